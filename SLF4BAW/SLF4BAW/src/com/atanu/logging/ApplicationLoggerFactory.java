@@ -3,26 +3,80 @@ package com.atanu.logging;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import ch.qos.logback.classic.Level;
 import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.LoggerContextListener;
 
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.UnaryOperator;
 
 /**
  * Factory class for creating and managing Logger instances with specific configurations.
  */
 public class ApplicationLoggerFactory {
     private static final Logger factoryLogger = LoggerFactory.getLogger(ApplicationLoggerFactory.class);
-    private static final Map<String, LoggerOptions> APP_LOGGER_CACHE = new ConcurrentHashMap<>();
+    private static final Map<String, LoggerEntry> APP_LOGGER_CACHE = new ConcurrentHashMap<>();
+    // One lock per application, so that only concurrent configuration of the same application is serialized
+    private static final Map<String, Object> CONFIGURATION_LOCKS = new ConcurrentHashMap<>();
+    private static final LoggerContextListener LEVEL_LISTENER = new LevelListener();
 
     /**
-     * Retrieves an ExtendedLogger for the given application name with default configurations.
+     * Cached logger of one application together with the options it was configured with.
+     */
+    private static final class LoggerEntry {
+        private final LoggerOptions options;
+        private final ExtendedLogger logger;
+
+        private LoggerEntry(LoggerOptions options, ExtendedLogger logger) {
+            this.options = options;
+            this.logger = logger;
+        }
+    }
+
+    /**
+     * Refreshes the level mirrored by every ExtendedLogger whenever a level in the logging context changes,
+     * since a change of the ROOT level changes the effective level of every application inheriting it.
+     */
+    private static final class LevelListener implements LoggerContextListener {
+        @Override
+        public boolean isResetResistant() {
+            return true;
+        }
+
+        @Override
+        public void onStart(LoggerContext context) {
+        }
+
+        @Override
+        public void onReset(LoggerContext context) {
+            ExtendedLogger.refreshLevels();
+        }
+
+        @Override
+        public void onStop(LoggerContext context) {
+        }
+
+        @Override
+        public void onLevelChange(ch.qos.logback.classic.Logger logger, Level level) {
+            ExtendedLogger.refreshLevels();
+        }
+    }
+
+    /**
+     * Retrieves an ExtendedLogger for the given application name. An application that is already configured keeps
+     * its configuration, whether it came from options, a configuration file or a runtime level change, and its
+     * cached instance is returned without allocating. Other applications are configured with default options.
      *
      * @param appName the name of the application
      * @return the ExtendedLogger instance
      */
     public static ExtendedLogger getLogger(String appName) {
         MDCConfig.setApplicationName(appName);
+        LoggerEntry entry = appName != null ? APP_LOGGER_CACHE.get(appName) : null;
+        if (entry != null) {
+            return entry.logger;
+        }
         return getLogger(new LoggerOptions.Builder(appName).build());
     }
 
@@ -82,7 +136,8 @@ public class ApplicationLoggerFactory {
 
     /**
      * Retrieves an ExtendedLogger based on the provided LoggerOptions.
-     * Utilizes caching to reuse existing configurations when possible.
+     * Loggers are cached per application; as long as the options match the cached configuration,
+     * the cached instance is returned without locking, allocating or logging.
      *
      * @param options the LoggerOptions containing configuration details
      * @return the ExtendedLogger instance
@@ -93,40 +148,107 @@ public class ApplicationLoggerFactory {
             throw new IllegalArgumentException("Application name cannot be null or empty");
         }
 
-        LoggerOptions existingOptions = APP_LOGGER_CACHE.get(appName);
-        if (existingOptions != null && !isDifferentConfig(existingOptions, options)) {
-            factoryLogger.debug("Using cached logger for app={}", appName);
-            Logger existingLogger = LoggerFactory.getLogger(appName);
-            return new ExtendedLogger(existingLogger);
+        LoggerEntry entry = APP_LOGGER_CACHE.get(appName);
+        if (entry != null && !isDifferentConfig(entry.options, options)) {
+            return entry.logger;
         }
 
-        synchronized (ApplicationLoggerFactory.class) {
+        ExtendedLogger logger;
+        synchronized (CONFIGURATION_LOCKS.computeIfAbsent(appName, key -> new Object())) {
             // Double-checked locking
-            existingOptions = APP_LOGGER_CACHE.get(appName);
-            if (existingOptions != null && !isDifferentConfig(existingOptions, options)) {
+            entry = APP_LOGGER_CACHE.get(appName);
+            if (entry != null && !isDifferentConfig(entry.options, options)) {
                 factoryLogger.debug("Using cached logger for app={}", appName);
-                Logger existingLogger = LoggerFactory.getLogger(appName);
-                return new ExtendedLogger(existingLogger);
+                return entry.logger;
             }
 
-            factoryLogger.info("Configuring new logger for app={}", appName);
             try {
-                LoggerConfiguration.configureBase(options);
-                LoggerConfiguration.configureForApp(appName);
-                APP_LOGGER_CACHE.put(appName, options);
-                factoryLogger.info("Logger configured successfully for app={}", appName);
+                if (entry != null && differsOnlyInLevel(entry.options, options)) {
+                    LoggerConfiguration.setAppLevel(options);
+                } else {
+                    factoryLogger.info("Configuring new logger for app={}", appName);
+                    LoggerConfiguration.configureApp(options);
+                    LoggerConfiguration.configureForApp(appName);
+                }
             } catch (Exception e) {
                 factoryLogger.error("Failed to configure logger for app={}", appName, e);
                 throw new RuntimeException("Failed to configure logger for app: " + appName, e);
             }
 
-            Logger newLogger = LoggerFactory.getLogger(appName);
-            return new ExtendedLogger(newLogger);
+            // The underlying logback logger survives reconfiguration, so the wrapper can be reused as well
+            logger = entry != null ? entry.logger : new ExtendedLogger(LoggerFactory.getLogger(appName));
+            APP_LOGGER_CACHE.put(appName, new LoggerEntry(options, logger));
+            factoryLogger.info("Logger configured successfully for app={}", appName);
+        }
+        // Outside the lock, since applying the configuration file reconfigures the application
+        LoggerConfigWatcher.watchConfigDirectory(appName);
+        return logger;
+    }
+
+    /**
+     * Configures the settings shared by all applications from the provided options: the asynchronous queue, the
+     * periodic durability interval and the compression of rolled files, as well as the log path and file sizes used
+     * by applications that set none. Without this call they are taken from the first application configured.
+     * The shared appender is replaced; every application keeps its own settings, and the new appender opens its
+     * files only after the previous one has written its pending events and closed them.
+     *
+     * @param options the LoggerOptions carrying the shared settings
+     */
+    public static void configureBase(LoggerOptions options) {
+        if (options == null) {
+            throw new IllegalArgumentException("Options cannot be null");
+        }
+        LoggerConfiguration.configureBase(options);
+    }
+
+    /**
+     * Sets the level of an application at runtime, without reopening its files. Calls below the level are
+     * discarded by its ExtendedLogger before any formatting. An application that is not configured yet is
+     * configured with default options and the level.
+     *
+     * @param appName the name of the application
+     * @param level   the log level, or null to inherit the level of the ROOT logger
+     */
+    public static void setLevel(String appName, Level level) {
+        if (appName == null || appName.trim().isEmpty()) {
+            throw new IllegalArgumentException("Application name cannot be null or empty");
+        }
+        reconfigure(appName, current -> new LoggerOptions.Builder(current).level(level).build());
+    }
+
+    /**
+     * Changes the configuration of an application through {@link #getLogger(LoggerOptions)}. The new options are
+     * computed from the current ones under the application's configuration lock, so concurrent changes are not lost.
+     *
+     * @param appName the name of the application
+     * @param change  computes the new options from the current ones, or from default options for a new application
+     */
+    static void reconfigure(String appName, UnaryOperator<LoggerOptions> change) {
+        synchronized (CONFIGURATION_LOCKS.computeIfAbsent(appName, key -> new Object())) {
+            LoggerEntry entry = APP_LOGGER_CACHE.get(appName);
+            getLogger(change.apply(entry != null ? entry.options : new LoggerOptions.Builder(appName).build()));
         }
     }
 
+    /**
+     * Returns the options an application is currently configured with.
+     *
+     * @param appName the name of the application
+     * @return the options, or null if the application has not been configured
+     */
+    static LoggerOptions getOptions(String appName) {
+        LoggerEntry entry = APP_LOGGER_CACHE.get(appName);
+        return entry != null ? entry.options : null;
+    }
+
     /**
      * Reloads the Logger configuration for the specified application.
+     * <p>
+     * The application keeps logging during the reload: its new files are published at once, the previous files are
+     * closed in the background once the events being written to them are done, and only then are the new files
+     * opened.
+     * How many of those in-flight events were carried over is reported as {@code carriedOverEvents} by
+     * {@link LoggerMonitor}.
      *
      * @param appName      the name of the application
      * @param logPath      the new log path
@@ -160,10 +282,6 @@ public class ApplicationLoggerFactory {
                 logPath, maxFileSize, totalSizeCap, logPattern, emailEnabled);
 
         try {
-            // Remove old logger configuration for the application
-            LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
-            context.getLogger(appName).detachAndStopAllAppenders(); // Detach and stop all previous appenders
-
             // Create new options for the logger
             LoggerOptions.Builder builder = new LoggerOptions.Builder(appName)
                     .logPath(logPath)
@@ -185,7 +303,8 @@ public class ApplicationLoggerFactory {
 
             LoggerOptions newOptions = builder.build();
 
-            // Get the logger with new configuration
+            // The new configuration replaces the application's appenders without detaching them first, so events
+            // logged meanwhile are written either to the previous files or to the new ones
             getLogger(newOptions);
 
             factoryLogger.info("Logger for application {} successfully reloaded.", appName);
@@ -196,40 +315,36 @@ public class ApplicationLoggerFactory {
     }
 
     /**
-     * Checks if the new LoggerOptions differ from the existing ones.
+     * Registers the listener keeping the levels of the ExtendedLoggers current, unless it is registered already.
+     *
+     * @param context the logging context of the wrapped loggers
+     */
+    static synchronized void installLevelListener(LoggerContext context) {
+        if (!context.getCopyOfListenerList().contains(LEVEL_LISTENER)) {
+            context.addListener(LEVEL_LISTENER);
+        }
+    }
+
+    /**
+     * Checks if two LoggerOptions differ in nothing but the level, which can be changed without reconfiguring files.
      *
      * @param oldOpts the existing LoggerOptions
      * @param newOpts the new LoggerOptions
-     * @return true if configurations differ, false otherwise
+     * @return true if only the level differs
      */
-    private static boolean isDifferentConfig(LoggerOptions oldOpts, LoggerOptions newOpts) {
-        if (oldOpts == null) {
-            return true;
-        }
-        return !(safeEq(oldOpts.getLogPath(), newOpts.getLogPath())
-                && safeEq(oldOpts.getMaxFileSize(), newOpts.getMaxFileSize())
-                && safeEq(oldOpts.getTotalSizeCap(), newOpts.getTotalSizeCap())
-                && safeEq(oldOpts.getLogPattern(), newOpts.getLogPattern())
-                && oldOpts.isEmailEnabled() == newOpts.isEmailEnabled()
-                && safeEq(oldOpts.getSmtpHost(), newOpts.getSmtpHost())
-                && oldOpts.getSmtpPort() == newOpts.getSmtpPort()
-                && safeEq(oldOpts.getSmtpUsername(), newOpts.getSmtpUsername())
-                && safeEq(oldOpts.getSmtpPassword(), newOpts.getSmtpPassword())
-                && safeEq(oldOpts.getEmailFrom(), newOpts.getEmailFrom())
-                && safeEq(oldOpts.getEmailTo(), newOpts.getEmailTo())
-                && safeEq(oldOpts.getEmailSubject(), newOpts.getEmailSubject()));
+    private static boolean differsOnlyInLevel(LoggerOptions oldOpts, LoggerOptions newOpts) {
+        return new LoggerOptions.Builder(newOpts).level(oldOpts.getLevel()).build().equals(oldOpts);
     }
 
     /**
-     * Safely compares two strings, treating nulls as empty strings.
+     * Checks if the new LoggerOptions differ from the existing ones. Different fingerprints settle it at once;
+     * equal fingerprints are confirmed field by field, since two configurations may share a 64-bit fingerprint.
      *
-     * @param s1 first string
-     * @param s2 second string
-     * @return true if equal, false otherwise
+     * @param oldOpts the existing LoggerOptions
+     * @param newOpts the new LoggerOptions
+     * @return true if configurations differ, false otherwise
      */
-    private static boolean safeEq(String s1, String s2) {
-        if (s1 == null) s1 = "";
-        if (s2 == null) s2 = "";
-        return s1.equals(s2);
+    private static boolean isDifferentConfig(LoggerOptions oldOpts, LoggerOptions newOpts) {
+        return oldOpts == null || oldOpts.getFingerprint() != newOpts.getFingerprint() || !oldOpts.equals(newOpts);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,299 @@
+package com.atanu.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.spi.ContextAware;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Hands logging events from application threads to dedicated consumer threads through a lock-free ring buffer.
+ * <p>
+ * Producers only publish an event reference; the consumer threads drain the buffer and pass every event to the sink,
+ * so disk latency never shows up on the calling thread. What happens when the buffer is full is decided by the
+ * configured {@link OverflowPolicy}.
+ */
+class AsyncLogDispatcher {
+    private static final int IDLE_SPINS = 64;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long FULL_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    private final ContextAware owner;
+    private final LogRingBuffer<ILoggingEvent> ringBuffer;
+    private final Consumer<ILoggingEvent> sink;
+    private final OverflowPolicy overflowPolicy;
+    private final LogSpillFile spillFile;
+    private final Worker[] workers;
+    private final AtomicInteger sleepingWorkers = new AtomicInteger(0);
+    private Runnable idleHandler;
+    private volatile boolean running;
+
+    /**
+     * Creates a dispatcher; call {@link #start()} before publishing events.
+     *
+     * @param owner           the component that owns the dispatcher, used for status reporting
+     * @param name            the name used for the consumer threads
+     * @param queueSize       the capacity of the ring buffer
+     * @param consumerThreads the number of consumer threads draining the ring buffer
+     * @param sink            the callback that writes an event on a consumer thread
+     * @param overflowPolicy  what to do with an event when the ring buffer is full
+     * @param spillFile       the spill area used by {@link OverflowPolicy#SPILL_TO_DISK}, may be null for other policies
+     */
+    AsyncLogDispatcher(ContextAware owner, String name, int queueSize, int consumerThreads, Consumer<ILoggingEvent> sink,
+                       OverflowPolicy overflowPolicy, LogSpillFile spillFile) {
+        if (overflowPolicy == OverflowPolicy.SPILL_TO_DISK && spillFile == null) {
+            throw new IllegalArgumentException("A spill file is required for the SPILL_TO_DISK overflow policy");
+        }
+        this.owner = owner;
+        this.ringBuffer = new LogRingBuffer<>(queueSize);
+        this.sink = sink;
+        this.overflowPolicy = overflowPolicy;
+        this.spillFile = spillFile;
+        this.workers = new Worker[Math.max(1, consumerThreads)];
+        for (int i = 0; i < workers.length; i++) {
+            workers[i] = new Worker(name + "-" + i);
+        }
+    }
+
+    /**
+     * Sets a callback run on a consumer thread each time it has drained the ring buffer.
+     * Must be set before {@link #start()}.
+     *
+     * @param idleHandler the callback, for example flushing batched file writes
+     */
+    void setIdleHandler(Runnable idleHandler) {
+        this.idleHandler = idleHandler;
+    }
+
+    /**
+     * Starts the consumer threads.
+     */
+    void start() {
+        running = true;
+        for (Worker worker : workers) {
+            worker.start();
+        }
+    }
+
+    /**
+     * Publishes an event to the ring buffer, applying the overflow policy when the buffer is full.
+     *
+     * @param event the logging event, already prepared for deferred processing
+     * @return true if the dispatcher took care of the event (queued, spilled or discarded),
+     *         false if the dispatcher is stopped and the caller has to write it
+     */
+    boolean publish(ILoggingEvent event) {
+        if (!running) {
+            return false;
+        }
+        if (ringBuffer.offer(event)) {
+            if (sleepingWorkers.get() > 0) {
+                wakeWorkers();
+            }
+            return true;
+        }
+        return handleOverflow(event);
+    }
+
+    /**
+     * Applies the overflow policy to an event that did not fit into the ring buffer.
+     *
+     * @param event the logging event
+     * @return true if the event was handled, false if the dispatcher stopped while waiting
+     */
+    private boolean handleOverflow(ILoggingEvent event) {
+        switch (overflowPolicy) {
+            case DROP_NEWEST:
+                discard(event);
+                return true;
+            case DROP_OLDEST:
+                while (!ringBuffer.offer(event)) {
+                    ILoggingEvent oldest = ringBuffer.poll();
+                    if (oldest != null) {
+                        discard(oldest);
+                    }
+                }
+                wakeWorkers();
+                return true;
+            case DROP_BELOW_LEVEL:
+                if (!event.getLevel().isGreaterOrEqual(Level.WARN)) {
+                    discard(event);
+                    return true;
+                }
+                return awaitSlot(event);
+            case SPILL_TO_DISK:
+                try {
+                    spillFile.write(event);
+                    LoggerMonitor.trackSpilledEvent(event.getLoggerName());
+                } catch (IOException e) {
+                    owner.addError("AsyncLogDispatcher: Failed to spill event for " + event.getLoggerName(), e);
+                    discard(event);
+                }
+                wakeWorkers();
+                return true;
+            case BLOCK:
+            default:
+                return awaitSlot(event);
+        }
+    }
+
+    /**
+     * Waits until the event fits into the ring buffer.
+     *
+     * @param event the logging event
+     * @return true if the event was queued, false if the dispatcher stopped while waiting
+     */
+    private boolean awaitSlot(ILoggingEvent event) {
+        while (!ringBuffer.offer(event)) {
+            if (!running) {
+                return false;
+            }
+            wakeWorkers();
+            LockSupport.parkNanos(FULL_PARK_NANOS);
+        }
+        wakeWorkers();
+        return true;
+    }
+
+    private void discard(ILoggingEvent event) {
+        LoggerMonitor.trackDiscardedEvent(event.getLoggerName(), overflowPolicy);
+    }
+
+    /**
+     * Stops the consumer threads and writes whatever is still queued on the calling thread.
+     *
+     * @param timeoutMillis how long to wait for each consumer thread to finish
+     */
+    void stop(long timeoutMillis) {
+        running = false;
+        wakeWorkers();
+        for (Worker worker : workers) {
+            try {
+                worker.join(timeoutMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        ILoggingEvent event;
+        while ((event = ringBuffer.poll()) != null) {
+            deliver(event);
+        }
+        replaySpill();
+        runIdleHandler();
+    }
+
+    /**
+     * Returns the number of events waiting in the ring buffer.
+     *
+     * @return the approximate queue depth
+     */
+    int getQueueDepth() {
+        return ringBuffer.size();
+    }
+
+    /**
+     * Returns the capacity of the ring buffer.
+     *
+     * @return the capacity
+     */
+    int getCapacity() {
+        return ringBuffer.capacity();
+    }
+
+    /**
+     * Checks whether the current thread is one of the dispatcher's consumer threads.
+     *
+     * @return true when called from a consumer thread
+     */
+    static boolean isDispatcherThread() {
+        return Thread.currentThread() instanceof Worker;
+    }
+
+    private void wakeWorkers() {
+        for (Worker worker : workers) {
+            LockSupport.unpark(worker);
+        }
+    }
+
+    private void replaySpill() {
+        if (spillFile == null || !spillFile.hasPendingEvents()) {
+            return;
+        }
+        try {
+            spillFile.replay(this::deliver);
+        } catch (IOException e) {
+            owner.addError("AsyncLogDispatcher: Failed to replay spilled events", e);
+        }
+    }
+
+    private void runIdleHandler() {
+        if (idleHandler == null) {
+            return;
+        }
+        try {
+            idleHandler.run();
+        } catch (RuntimeException e) {
+            owner.addError("AsyncLogDispatcher: Idle handler failed", e);
+        }
+    }
+
+    private void deliver(ILoggingEvent event) {
+        try {
+            sink.accept(event);
+        } catch (RuntimeException e) {
+            owner.addError("AsyncLogDispatcher: Failed to write event for " + event.getLoggerName(), e);
+        }
+    }
+
+    /**
+     * Consumer thread that drains the ring buffer, replays spilled events once it runs dry,
+     * notifies the idle handler, and spins briefly before parking when there is nothing left to do.
+     */
+    private final class Worker extends Thread {
+        Worker(String name) {
+            super(name);
+            setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            int idleRounds = 0;
+            boolean drained = true;
+            while (running || !ringBuffer.isEmpty()) {
+                ILoggingEvent event = ringBuffer.poll();
+                if (event != null) {
+                    deliver(event);
+                    idleRounds = 0;
+                    drained = false;
+                    continue;
+                }
+                if (spillFile != null && spillFile.hasPendingEvents()) {
+                    replaySpill();
+                    continue;
+                }
+                if (!drained) {
+                    runIdleHandler();
+                    drained = true;
+                }
+                if (++idleRounds < IDLE_SPINS) {
+                    Thread.yield();
+                    continue;
+                }
+                sleepingWorkers.incrementAndGet();
+                try {
+                    if (running && ringBuffer.isEmpty()) {
+                        LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                    }
+                } finally {
+                    sleepingWorkers.decrementAndGet();
+                }
+                idleRounds = 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package com.atanu.logging;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.rolling.TriggeringPolicy;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * RollingFileAppender that collects encoded events in a direct ByteBuffer and writes each batch with a single
+ * FileChannel.write, instead of writing and flushing an OutputStream once per event.
+ * <p>
+ * A batch is written when the buffer is full, when the oldest buffered event is older than the flush interval,
+ * and whenever {@link #flush()} is called, which DynamicAppender does when its asynchronous queue runs dry.
+ * Rolling is still driven by the configured rolling policy; the buffer is written out before every rollover.
+ */
+public class BatchingFileAppender extends SyncingRollingFileAppender {
+    private int batchSize = 64 * 1024;
+    private long flushIntervalMillis = 200;
+
+    private ByteBuffer buffer;
+    private File activeFile;
+    private long oldestBufferedMillis;
+    private ScheduledFuture<?> flushTask;
+
+    @Override
+    public void start() {
+        buffer = ByteBuffer.allocateDirect(batchSize);
+        super.start();
+        if (!isStarted()) {
+            return;
+        }
+        activeFile = new File(getFile());
+        if (flushIntervalMillis > 0) {
+            flushTask = getContext().getScheduledExecutorService().scheduleWithFixedDelay(
+                    this::flushIfDue, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    public void stop() {
+        if (flushTask != null) {
+            flushTask.cancel(false);
+            flushTask = null;
+        }
+        flush();
+        super.stop();
+    }
+
+    /**
+     * Writes the buffered batch out before the rolling policy renames the active file.
+     */
+    @Override
+    public void rollover() {
+        lock.lock();
+        try {
+            writeBuffer();
+        } catch (IOException e) {
+            addError("BatchingFileAppender: Failed to write batch before rollover of " + getFile(), e);
+        } finally {
+            lock.unlock();
+        }
+        super.rollover();
+    }
+
+    /**
+     * Encodes the event into the batch buffer, writing the batch first if the event does not fit.
+     *
+     * @param event the logging event
+     */
+    @Override
+    protected void subAppend(ILoggingEvent event) {
+        if (!isStarted()) {
+            return;
+        }
+
+        TriggeringPolicy<ILoggingEvent> triggeringPolicy = getTriggeringPolicy();
+        synchronized (triggeringPolicy) {
+            if (triggeringPolicy.isTriggeringEvent(activeFile, event)) {
+                rollover();
+            }
+        }
+
+        event.prepareForDeferredProcessing();
+        ByteBuffer encoded = encode(event);
+
+        lock.lock();
+        try {
+            if (encoded.remaining() > buffer.remaining()) {
+                writeBuffer();
+            }
+            if (encoded.remaining() > buffer.capacity()) {
+                writeFully(encoded);
+                return;
+            }
+            if (buffer.position() == 0) {
+                oldestBufferedMillis = System.currentTimeMillis();
+            }
+            buffer.put(encoded);
+        } catch (IOException e) {
+            addError("BatchingFileAppender: IO failure while writing to " + getFile(), e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Writes the buffered batch to the file.
+     */
+    public void flush() {
+        lock.lock();
+        try {
+            writeBuffer();
+        } catch (IOException e) {
+            addError("BatchingFileAppender: Failed to flush batch to " + getFile(), e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Writes the buffered batch and forces the file to disk.
+     *
+     * @throws IOException if the batch cannot be written or the file cannot be forced
+     */
+    @Override
+    public void sync() throws IOException {
+        lock.lock();
+        try {
+            writeBuffer();
+            super.sync();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void flushIfDue() {
+        if (!lock.tryLock()) {
+            // A writer holds the lock and will keep the batch moving
+            return;
+        }
+        try {
+            if (buffer.position() > 0 && System.currentTimeMillis() - oldestBufferedMillis >= flushIntervalMillis) {
+                writeBuffer();
+            }
+        } catch (IOException e) {
+            addError("BatchingFileAppender: Failed to flush batch to " + getFile(), e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private ByteBuffer encode(ILoggingEvent event) {
+        if (encoder instanceof DefaultPatternEncoder) {
+            return ((DefaultPatternEncoder) encoder).encodeToBuffer(event);
+        }
+        return ByteBuffer.wrap(encoder.encode(event));
+    }
+
+    /**
+     * Writes the batch buffer with one channel write. Must be called while holding the lock.
+     */
+    private void writeBuffer() throws IOException {
+        if (buffer == null || buffer.position() == 0) {
+            return;
+        }
+        buffer.flip();
+        try {
+            writeFully(buffer);
+        } finally {
+            buffer.clear();
+        }
+    }
+
+    private void writeFully(ByteBuffer source) throws IOException {
+        FileChannel channel = channel();
+        if (channel == null) {
+            throw new IOException("No open file channel for " + getFile());
+        }
+        while (source.hasRemaining()) {
+            channel.write(source);
+        }
+    }
+
+    /**
+     * Sets the size of the direct buffer collecting a batch.
+     *
+     * @param batchSize the batch buffer size in bytes
+     */
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Sets how long an event may wait in the batch buffer before the batch is written.
+     *
+     * @param flushIntervalMillis the flush interval in milliseconds, or 0 to flush only on size and idle
+     */
+    public void setFlushIntervalMillis(long flushIntervalMillis) {
+        this.flushIntervalMillis = flushIntervalMillis;
+    }
+}
@@ -0,0 +1,44 @@
+package com.atanu.logging;
+
+import ch.qos.logback.classic.pattern.ClassicConverter;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.CoreConstants;
+
+import java.util.List;
+import java.util.TimeZone;
+
+/**
+ * Drop-in replacement for logback's %d / %date converter that formats through a shared, lock-free
+ * {@link TimestampCache} instead of a synchronized date formatter. Accepts the same options:
+ * an optional date pattern (or ISO8601) followed by an optional time zone.
+ */
+public class CachedDateConverter extends ClassicConverter {
+    private TimestampCache timestampCache;
+
+    @Override
+    public void start() {
+        String datePattern = getFirstOption();
+        if (datePattern == null || datePattern.equals(CoreConstants.ISO8601_STR)) {
+            datePattern = CoreConstants.ISO8601_PATTERN;
+        }
+
+        TimeZone timeZone = null;
+        List<String> optionList = getOptionList();
+        if (optionList != null && optionList.size() > 1) {
+            timeZone = TimeZone.getTimeZone(optionList.get(1));
+        }
+
+        try {
+            timestampCache = TimestampCache.forPattern(datePattern, timeZone);
+        } catch (IllegalArgumentException e) {
+            addWarn("Could not instantiate SimpleDateFormat with pattern " + datePattern, e);
+            timestampCache = TimestampCache.forPattern(CoreConstants.ISO8601_PATTERN, timeZone);
+        }
+        super.start();
+    }
+
+    @Override
+    public String convert(ILoggingEvent event) {
+        return timestampCache.format(event.getTimeStamp());
+    }
+}
@@ -0,0 +1,58 @@
+package com.atanu.logging;
+
+import ch.qos.logback.core.rolling.RolloverFailure;
+import ch.qos.logback.core.rolling.SizeAndTimeBasedRollingPolicy;
+import ch.qos.logback.core.rolling.helper.CompressionMode;
+
+import java.io.File;
+
+/**
+ * SizeAndTimeBasedRollingPolicy that hands rolled files to a {@link LogCompressor} instead of compressing
+ * them on the context's shared executor.
+ * <p>
+ * The file name pattern ends in {@code .gz}, so logback's file index counting and totalSizeCap retention see
+ * the compressed archives and their compressed sizes. Logback's own compression is switched off after start:
+ * a rollover only renames the active file to the uncompressed name, which is then queued for compression.
+ *
+ * @param <E> the event type
+ */
+class CompressingRollingPolicy<E> extends SizeAndTimeBasedRollingPolicy<E> {
+    private LogCompressor compressor;
+
+    @Override
+    public void start() {
+        if (compressor == null) {
+            addError("CompressingRollingPolicy: Compressor is not set.");
+            return;
+        }
+        if (!getFileNamePattern().endsWith(LogCompressor.GZ_SUFFIX)) {
+            addError("CompressingRollingPolicy: fileNamePattern must end with " + LogCompressor.GZ_SUFFIX);
+            return;
+        }
+        String pattern = getFileNamePattern();
+        compressor.compressLeftovers(pattern.substring(0, pattern.length() - LogCompressor.GZ_SUFFIX.length()), getContext());
+        super.start();
+        compressionMode = CompressionMode.NONE;
+    }
+
+    /**
+     * Renames the active file to its rolled name and queues it for compression.
+     *
+     * @throws RolloverFailure if the active file cannot be renamed
+     */
+    @Override
+    public void rollover() throws RolloverFailure {
+        String rolledFileName = getTimeBasedFileNamingAndTriggeringPolicy().getElapsedPeriodsFileName();
+        super.rollover();
+        compressor.compressAsync(new File(rolledFileName));
+    }
+
+    /**
+     * Sets the compressor that compresses rolled files.
+     *
+     * @param compressor the LogCompressor instance
+     */
+    void setCompressor(LogCompressor compressor) {
+        this.compressor = compressor;
+    }
+}
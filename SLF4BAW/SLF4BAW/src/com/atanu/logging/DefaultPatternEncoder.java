@@ -0,0 +1,246 @@
+package com.atanu.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.pattern.TargetLengthBasedClassNameAbbreviator;
+import ch.qos.logback.classic.pattern.ThrowableProxyConverter;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.CoreConstants;
+import ch.qos.logback.core.encoder.EncoderBase;
+
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Precompiled encoder for the default log pattern
+ * {@code [%d{M/d/yy HH:mm:ss:SSS z}] <process> %thread %-5level %logger{36} - %msg%n}.
+ * <p>
+ * Instead of interpreting the pattern through generic converters and building a String per event,
+ * the fields are written straight into a reusable per-thread ByteBuffer as UTF-8. The constant parts,
+ * level names and abbreviated logger names are encoded once and cached, and timestamps come from the
+ * shared {@link TimestampCache}.
+ */
+public class DefaultPatternEncoder extends EncoderBase<ILoggingEvent> {
+    private static final int INITIAL_BUFFER_SIZE = 512;
+    private static final int MAX_CACHED_LOGGER_NAMES = 4096;
+    private static final int LOGGER_NAME_LENGTH = 36;
+    private static final String DATE_PATTERN = "M/d/yy HH:mm:ss:SSS z";
+
+    private static final byte[] PROCESS_NAME =
+            (" " + ManagementFactory.getRuntimeMXBean().getName() + " ").getBytes(StandardCharsets.UTF_8);
+    private static final byte[] MESSAGE_SEPARATOR = " - ".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] LINE_SEPARATOR = CoreConstants.LINE_SEPARATOR.getBytes(StandardCharsets.UTF_8);
+    private static final byte[] NULL_BYTES = "null".getBytes(StandardCharsets.UTF_8);
+
+    private final Map<String, byte[]> loggerNameCache = new ConcurrentHashMap<>();
+    private final TargetLengthBasedClassNameAbbreviator abbreviator =
+            new TargetLengthBasedClassNameAbbreviator(LOGGER_NAME_LENGTH);
+    private final ThrowableProxyConverter throwableConverter = new ThrowableProxyConverter();
+    private final TimestampCache timestampCache = TimestampCache.forPattern(DATE_PATTERN, null);
+    private final ThreadLocal<EncoderState> state = ThreadLocal.withInitial(EncoderState::new);
+
+    @Override
+    public void start() {
+        throwableConverter.setContext(getContext());
+        throwableConverter.start();
+        super.start();
+    }
+
+    @Override
+    public void stop() {
+        throwableConverter.stop();
+        super.stop();
+    }
+
+    @Override
+    public byte[] headerBytes() {
+        return null;
+    }
+
+    /**
+     * Encodes the event into a new byte array, as required by the Encoder contract.
+     * Callers able to consume a ByteBuffer should use {@link #encodeToBuffer(ILoggingEvent)} instead.
+     *
+     * @param event the logging event
+     * @return the encoded log line
+     */
+    @Override
+    public byte[] encode(ILoggingEvent event) {
+        ByteBuffer buffer = encodeToBuffer(event);
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    @Override
+    public byte[] footerBytes() {
+        return null;
+    }
+
+    /**
+     * Encodes the event into the calling thread's reusable buffer.
+     * The returned buffer is ready for reading and stays valid until the same thread encodes the next event.
+     *
+     * @param event the logging event
+     * @return the calling thread's buffer holding the encoded log line
+     */
+    public ByteBuffer encodeToBuffer(ILoggingEvent event) {
+        EncoderState encoderState = state.get();
+        encoderState.buffer.clear();
+
+        encoderState.put((byte) '[');
+        encoderState.putTimestamp(timestampCache, event.getTimeStamp());
+        encoderState.put((byte) ']');
+        encoderState.put(PROCESS_NAME);
+        encoderState.putChars(event.getThreadName());
+        encoderState.put((byte) ' ');
+        encoderState.put(levelBytes(event.getLevel()));
+        encoderState.put((byte) ' ');
+        encoderState.put(abbreviatedLoggerName(event.getLoggerName()));
+        encoderState.put(MESSAGE_SEPARATOR);
+        if (event instanceof ExtendedLoggingEvent) {
+            // Primitive arguments are formatted without boxing them or building the message String
+            encoderState.putChars(((ExtendedLoggingEvent) event).formatMessageTo(encoderState.scratch()));
+        } else {
+            encoderState.putChars(event.getFormattedMessage());
+        }
+        encoderState.put(LINE_SEPARATOR);
+        if (event.getThrowableProxy() != null) {
+            encoderState.putChars(throwableConverter.convert(event));
+        }
+
+        encoderState.buffer.flip();
+        return encoderState.buffer;
+    }
+
+    private byte[] abbreviatedLoggerName(String loggerName) {
+        byte[] cached = loggerNameCache.get(loggerName);
+        if (cached != null) {
+            return cached;
+        }
+        byte[] encoded = abbreviator.abbreviate(loggerName).getBytes(StandardCharsets.UTF_8);
+        if (loggerNameCache.size() < MAX_CACHED_LOGGER_NAMES) {
+            loggerNameCache.putIfAbsent(loggerName, encoded);
+        }
+        return encoded;
+    }
+
+    private static byte[] levelBytes(Level level) {
+        switch (level.toInt()) {
+            case Level.ERROR_INT:
+                return LevelBytes.ERROR;
+            case Level.WARN_INT:
+                return LevelBytes.WARN;
+            case Level.INFO_INT:
+                return LevelBytes.INFO;
+            case Level.DEBUG_INT:
+                return LevelBytes.DEBUG;
+            default:
+                return LevelBytes.TRACE;
+        }
+    }
+
+    /**
+     * Level names padded to five characters, matching %-5level.
+     */
+    private static final class LevelBytes {
+        static final byte[] ERROR = "ERROR".getBytes(StandardCharsets.UTF_8);
+        static final byte[] WARN = "WARN ".getBytes(StandardCharsets.UTF_8);
+        static final byte[] INFO = "INFO ".getBytes(StandardCharsets.UTF_8);
+        static final byte[] DEBUG = "DEBUG".getBytes(StandardCharsets.UTF_8);
+        static final byte[] TRACE = "TRACE".getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Per-thread encoding state holding the reusable output buffer.
+     */
+    private static final class EncoderState {
+        private ByteBuffer buffer = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+        private final StringBuilder chars = new StringBuilder(INITIAL_BUFFER_SIZE);
+
+        /**
+         * Returns the reusable builder for text that has to be formatted before it is written, emptied.
+         */
+        StringBuilder scratch() {
+            chars.setLength(0);
+            return chars;
+        }
+
+        void put(byte value) {
+            ensureCapacity(1);
+            buffer.put(value);
+        }
+
+        void put(byte[] bytes) {
+            ensureCapacity(bytes.length);
+            buffer.put(bytes);
+        }
+
+        /**
+         * Writes the cached text of the timestamp's second and patches in the milliseconds.
+         */
+        void putTimestamp(TimestampCache timestampCache, long timestamp) {
+            TimestampCache.Second second = timestampCache.secondOf(timestamp);
+            int millis = (int) Math.floorMod(timestamp, 1000L);
+            put(second.getPrefixBytes());
+            ensureCapacity(3);
+            buffer.put((byte) ('0' + millis / 100));
+            buffer.put((byte) ('0' + (millis / 10) % 10));
+            buffer.put((byte) ('0' + millis % 10));
+            put(second.getSuffixBytes());
+        }
+
+        /**
+         * Writes the characters as UTF-8 without creating an intermediate byte array.
+         */
+        void putChars(CharSequence chars) {
+            if (chars == null) {
+                put(NULL_BYTES);
+                return;
+            }
+            int length = chars.length();
+            ensureCapacity(length);
+            for (int i = 0; i < length; i++) {
+                char c = chars.charAt(i);
+                if (c < 0x80) {
+                    if (!buffer.hasRemaining()) {
+                        ensureCapacity(length - i);
+                    }
+                    buffer.put((byte) c);
+                } else if (c < 0x800) {
+                    ensureCapacity(2);
+                    buffer.put((byte) (0xC0 | (c >> 6)));
+                    buffer.put((byte) (0x80 | (c & 0x3F)));
+                } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(chars.charAt(i + 1))) {
+                    int codePoint = Character.toCodePoint(c, chars.charAt(++i));
+                    ensureCapacity(4);
+                    buffer.put((byte) (0xF0 | (codePoint >> 18)));
+                    buffer.put((byte) (0x80 | ((codePoint >> 12) & 0x3F)));
+                    buffer.put((byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+                    buffer.put((byte) (0x80 | (codePoint & 0x3F)));
+                } else if (Character.isSurrogate(c)) {
+                    ensureCapacity(1);
+                    buffer.put((byte) '?');
+                } else {
+                    ensureCapacity(3);
+                    buffer.put((byte) (0xE0 | (c >> 12)));
+                    buffer.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+                    buffer.put((byte) (0x80 | (c & 0x3F)));
+                }
+            }
+        }
+
+        private void ensureCapacity(int required) {
+            if (buffer.remaining() >= required) {
+                return;
+            }
+            int newCapacity = Math.max(buffer.capacity() * 2, buffer.position() + required);
+            ByteBuffer grown = ByteBuffer.allocate(newCapacity);
+            buffer.flip();
+            grown.put(buffer);
+            buffer = grown;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.atanu.logging;
+
+/**
+ * When DynamicAppender forces written log data from the OS page cache to disk.
+ */
+public enum DurabilityMode {
+    /**
+     * Never force; the operating system decides when data reaches the disk.
+     */
+    NONE,
+
+    /**
+     * Force every log file that received data at a fixed interval, bounding the loss on a crash to that interval.
+     */
+    PERIODIC,
+
+    /**
+     * Force after every write, sharing one force among all writers of the same file that are waiting for it.
+     */
+    GROUP_COMMIT,
+
+    /**
+     * Force only after ERROR events, which bypass the asynchronous queue and are on disk before the call returns.
+     */
+    SYNC_ON_ERROR
+}
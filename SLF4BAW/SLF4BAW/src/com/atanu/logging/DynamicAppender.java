@@ -3,7 +3,8 @@ package com.atanu.logging;
 import ch.qos.logback.classic.Level;
 import ch.qos.logback.classic.LoggerContext;
 import ch.qos.logback.classic.spi.ILoggingEvent;
-import ch.qos.logback.core.AppenderBase;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.UnsynchronizedAppenderBase;
 import ch.qos.logback.core.encoder.Encoder;
 import ch.qos.logback.core.rolling.RollingFileAppender;
 import ch.qos.logback.core.rolling.SizeAndTimeBasedRollingPolicy;
@@ -15,20 +16,133 @@ import java.io.File;
 import java.nio.file.Paths;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.zip.Deflater;
 
 /**
- * Custom Logback appender that dynamically manages RollingFileAppenders based on application name and log level.
+ * Custom Logback appender that dynamically manages file appenders based on application name and log level.
+ * <p>
+ * Each application can register its own file settings through {@link #configureApp(LoggerOptions)}; applications
+ * without registered settings use the settings of the appender itself. Registering an application only replaces
+ * that application's files, so the files of other applications stay open.
+ * <p>
+ * The files of an application form a generation that is replaced as a whole: the new generation is published
+ * with a single write, and the old one is closed in the background once the events being written through it
+ * are done. The new generation opens its files only after the old one is closed, so a file is never written or
+ * rolled by two appenders at once; writers wait for that briefly, and reconfiguring an application loses no events.
+ * <p>
+ * The appender itself holds no lock while appending; only events for the same application and level
+ * contend, on the lock of their file appender.
  */
-public class DynamicAppender extends AppenderBase<ILoggingEvent> {
+public class DynamicAppender extends UnsynchronizedAppenderBase<ILoggingEvent> {
 
     private static final Logger logger = LoggerFactory.getLogger(DynamicAppender.class);
 
-    private final Map<String, Map<Level, RollingFileAppender<ILoggingEvent>>> appenders = new ConcurrentHashMap<>();
+    private static final long RETIRE_TIMEOUT_MILLIS = 5000;
+    private static final ThreadLocal<StringBuilder> MESSAGE_SCRATCH = ThreadLocal.withInitial(() -> new StringBuilder(256));
 
+    private final Map<String, AppFiles> apps = new ConcurrentHashMap<>();
+    private final Map<Appender<ILoggingEvent>, FileSyncer> syncers = new ConcurrentHashMap<>();
+    private final CountDownLatch filesClosed = new CountDownLatch(1);
+
+    private EncoderFactory encoderFactory;
     private Encoder<ILoggingEvent> encoder;
     private String logPath;
     private String maxFileSize = "10MB";
     private String totalSizeCap = "4GB";
+    private boolean asyncEnabled = false;
+    private int asyncQueueSize = 8192;
+    private int asyncConsumerThreads = 1;
+    private OverflowPolicy overflowPolicy = OverflowPolicy.BLOCK;
+    private FileSinkType fileSinkType = FileSinkType.STREAM;
+    private int batchSize = 64 * 1024;
+    private long flushIntervalMillis = 200;
+    private DurabilityMode durabilityMode = DurabilityMode.NONE;
+    private long durabilityIntervalMillis = 1000;
+    private boolean compressionEnabled = false;
+    private int compressionLevel = Deflater.DEFAULT_COMPRESSION;
+    private int compressionThreads = 1;
+    private LogCompressor compressor;
+    private volatile AsyncLogDispatcher dispatcher;
+    private volatile AppSettings defaultSettings;
+    private volatile boolean batchingInUse;
+    private ScheduledFuture<?> periodicSyncTask;
+    // The appender this one replaces, until it has closed its files; no file is opened before then
+    private volatile DynamicAppender predecessor;
+
+    /**
+     * File settings of one application, resolved against the appender's own settings.
+     */
+    private static final class AppSettings {
+        private final String logPath;
+        private final String maxFileSize;
+        private final String totalSizeCap;
+        private final FileSinkType fileSinkType;
+        private final int batchSize;
+        private final long flushIntervalMillis;
+        private final DurabilityMode durabilityMode;
+
+        private AppSettings(String logPath, String maxFileSize, String totalSizeCap, FileSinkType fileSinkType,
+                            int batchSize, long flushIntervalMillis, DurabilityMode durabilityMode) {
+            this.logPath = logPath;
+            this.maxFileSize = maxFileSize;
+            this.totalSizeCap = totalSizeCap;
+            this.fileSinkType = fileSinkType;
+            this.batchSize = batchSize;
+            this.flushIntervalMillis = flushIntervalMillis;
+            this.durabilityMode = durabilityMode;
+        }
+    }
+
+    /**
+     * One generation of an application's files, opened with the same settings.
+     * Writers enter the generation before using its files and leave it afterwards, so that a retired generation
+     * is only closed once its last writer has left.
+     */
+    private static final class AppFiles {
+        private final AppSettings settings;
+        private final Map<Level, Appender<ILoggingEvent>> appenders = new ConcurrentHashMap<>();
+        private final AtomicInteger writers = new AtomicInteger();
+        private final AtomicInteger carriedOver = new AtomicInteger();
+        private final CountDownLatch closed = new CountDownLatch(1);
+        // The generation this one replaced, until it is closed
+        private volatile AppFiles predecessor;
+        private volatile boolean retired;
+
+        private AppFiles(AppSettings settings, AppFiles predecessor) {
+            this.settings = settings;
+            this.predecessor = predecessor;
+        }
+
+        /**
+         * Enters the generation for one write.
+         *
+         * @return true if the generation may be written, false if it was retired and the writer has to look up
+         *         the current generation
+         */
+        private boolean enter() {
+            writers.incrementAndGet();
+            if (retired) {
+                writers.decrementAndGet();
+                return false;
+            }
+            return true;
+        }
+
+        /**
+         * Leaves the generation after a write, counting writes that finished after it was retired.
+         */
+        private void leave() {
+            if (retired) {
+                carriedOver.incrementAndGet();
+            }
+            writers.decrementAndGet();
+        }
+    }
 
     /**
      * Starts the DynamicAppender by initializing the log path.
@@ -40,118 +154,476 @@ public class DynamicAppender extends AppenderBase<ILoggingEvent> {
         }
 
         logger.info("DynamicAppender: Starting with logPath = {}", logPath);
+        defaultSettings = new AppSettings(logPath, maxFileSize, totalSizeCap, fileSinkType, batchSize,
+                flushIntervalMillis, durabilityMode);
+        if (compressionEnabled) {
+            compressor = new LogCompressor(this, compressionLevel, compressionThreads);
+            compressor.start();
+        }
+        if (asyncEnabled) {
+            LogSpillFile spillFile = overflowPolicy == OverflowPolicy.SPILL_TO_DISK
+                    ? new LogSpillFile(this, Paths.get(logPath, ".spill").toFile())
+                    : null;
+            dispatcher = new AsyncLogDispatcher(this, "DynamicAppender-async", asyncQueueSize,
+                    asyncConsumerThreads, this::writeEvent, overflowPolicy, spillFile);
+            dispatcher.setIdleHandler(this::flushBatches);
+            dispatcher.start();
+            logger.info("DynamicAppender: Asynchronous mode enabled with queueSize={}, consumerThreads={}, overflowPolicy={}",
+                    dispatcher.getCapacity(), asyncConsumerThreads, overflowPolicy);
+        }
         super.start();
     }
 
     /**
-     * Appends a logging event by delegating to the appropriate RollingFileAppender based on application name and log level.
+     * Stops the DynamicAppender, draining any queued events and closing all file appenders.
+     */
+    @Override
+    public void stop() {
+        super.stop();
+        if (dispatcher != null) {
+            dispatcher.stop(5000);
+            dispatcher = null;
+        }
+        synchronized (syncers) {
+            if (periodicSyncTask != null) {
+                periodicSyncTask.cancel(false);
+                periodicSyncTask = null;
+            }
+        }
+        for (Map.Entry<String, AppFiles> app : apps.entrySet()) {
+            app.getValue().retired = true;
+            closeFiles(app.getKey(), app.getValue());
+        }
+        apps.clear();
+        syncers.clear();
+        filesClosed.countDown();
+        if (compressor != null) {
+            compressor.stop(30000);
+            compressor = null;
+        }
+    }
+
+    /**
+     * Appends a logging event. In asynchronous mode the event is queued for a consumer thread,
+     * otherwise it is written immediately. For applications using {@link DurabilityMode#SYNC_ON_ERROR}, ERROR events skip the queue
+     * so they are on disk before this method returns; each level has its own file, so this does not reorder lines.
      *
      * @param event the logging event
      */
     @Override
     protected void append(ILoggingEvent event) {
+        AsyncLogDispatcher asyncDispatcher = dispatcher;
+        if (asyncDispatcher != null) {
+            if (AsyncLogDispatcher.isDispatcherThread()) {
+                // Events raised while writing on a consumer thread would loop back into the queue
+                return;
+            }
+            if (event.getLevel() == Level.ERROR
+                    && settingsFor(event.getLoggerName()).durabilityMode == DurabilityMode.SYNC_ON_ERROR) {
+                writeEvent(event);
+                return;
+            }
+            event.prepareForDeferredProcessing();
+            if (event instanceof ExtendedLoggingEvent) {
+                // Structured fields still belong to the event builder of this thread
+                ((ExtendedLoggingEvent) event).detachFields();
+            }
+            if (asyncDispatcher.publish(event)) {
+                return;
+            }
+        }
+        writeEvent(event);
+    }
+
+    /**
+     * Writes a logging event by delegating to the appropriate file appender based on application name and log level.
+     * Diagnostics on this path go to the logback status manager, since logging through SLF4J here would
+     * feed back into this appender from the consumer threads.
+     *
+     * @param event the logging event
+     */
+    private void writeEvent(ILoggingEvent event) {
         String appName = event.getLoggerName();
 
         if (appName == null || appName.isEmpty()) {
-            logger.warn("DynamicAppender: No application name found; skipping log event.");
+            addWarn("DynamicAppender: No application name found; skipping log event.");
             return;
         }
 
-        LoggerMonitor.registerLogger(appName);
-        LoggerMonitor.trackLogEvent(appName, event.getFormattedMessage().getBytes().length);
-
-        logger.debug("DynamicAppender: append -> appName={}, level={}", appName, event.getLevel());
+        LoggerMonitor.trackLogEvent(appName, messageLength(event));
 
         Level level = event.getLevel();
-        RollingFileAppender<ILoggingEvent> appender = getAppenderForLevel(appName, level);
+        AppFiles files = enterFiles(appName);
+        try {
+            Appender<ILoggingEvent> appender = getAppenderForLevel(files, appName, level);
+
+            if (appender != null) {
+                appender.doAppend(event);
+                if (!syncers.isEmpty()) {
+                    applyDurability(appender, level);
+                }
+            } else {
+                addWarn("DynamicAppender: No appender found for appName=" + appName + " and level=" + level);
+            }
+        } finally {
+            files.leave();
+        }
+    }
 
-        if (appender != null) {
-            appender.doAppend(event);
-        } else {
-            logger.warn("DynamicAppender: No appender found for appName={} and level={}", appName, level);
+    /**
+     * Enters the current file generation of an application, creating it with the appender's own settings
+     * for applications that did not register any.
+     *
+     * @param appName the name of the application
+     * @return the entered generation; the caller has to leave it
+     */
+    private AppFiles enterFiles(String appName) {
+        while (true) {
+            AppFiles files = filesFor(appName);
+            if (files.enter()) {
+                return files;
+            }
         }
     }
 
     /**
-     * Retrieves or creates a RollingFileAppender for the specified application and log level.
+     * Returns the current file generation of an application.
      *
      * @param appName the name of the application
-     * @param level   the log level
-     * @return the RollingFileAppender instance
+     * @return the current generation
      */
-    private RollingFileAppender<ILoggingEvent> getAppenderForLevel(String appName, Level level) {
-        Map<Level, RollingFileAppender<ILoggingEvent>> levelAppenders =
-                appenders.computeIfAbsent(appName, k -> new ConcurrentHashMap<>());
+    private AppFiles filesFor(String appName) {
+        AppFiles files = apps.get(appName);
+        if (files == null) {
+            files = apps.computeIfAbsent(appName, k -> new AppFiles(defaultSettings, null));
+        }
+        return files;
+    }
 
-        RollingFileAppender<ILoggingEvent> fileAppender = levelAppenders.get(level);
+    /**
+     * Retrieves or creates a file appender for the specified application and log level.
+     * Lookups of existing appenders are lock-free; creation happens at most once per generation and level.
+     *
+     * @param files   the file generation of the application
+     * @param appName the name of the application
+     * @param level   the log level
+     * @return the file appender instance, or null if it could not be created
+     */
+    private Appender<ILoggingEvent> getAppenderForLevel(AppFiles files, String appName, Level level) {
+        Appender<ILoggingEvent> fileAppender = files.appenders.get(level);
         if (fileAppender == null) {
-            fileAppender = createAppender(appName, level);
-            if (fileAppender != null) {
-                levelAppenders.put(level, fileAppender);
-            }
+            fileAppender = files.appenders.computeIfAbsent(level, l -> openAppender(files, appName, l));
         }
         return fileAppender;
     }
 
     /**
-     * Creates a new RollingFileAppender for the specified application and log level.
+     * Opens the file appender of one level in a file generation. Nothing is opened before the appender this one
+     * replaces and the generation this one replaces have closed their files, since both may have the same file open
+     * and would roll it independently.
      *
+     * @param files   the file generation of the application
      * @param appName the name of the application
      * @param level   the log level
-     * @return the created RollingFileAppender, or null if creation fails
+     * @return the started file appender, or null if creation fails
      */
-    private RollingFileAppender<ILoggingEvent> createAppender(String appName, Level level) {
+    private Appender<ILoggingEvent> openAppender(AppFiles files, String appName, Level level) {
+        DynamicAppender previousAppender = this.predecessor;
+        if (previousAppender != null) {
+            awaitClosed(previousAppender.filesClosed);
+            this.predecessor = null;
+        }
+        AppFiles predecessor = files.predecessor;
+        if (predecessor != null) {
+            awaitClosed(predecessor.closed);
+            files.predecessor = null;
+        }
+        return registerSyncer(files.settings, appName, createAppender(files.settings, appName, level));
+    }
+
+    /**
+     * Creates a new file appender for the specified application and log level.
+     *
+     * @param settings the file settings of the application
+     * @param appName  the name of the application
+     * @param level    the log level
+     * @return the created file appender, or null if creation fails
+     */
+    private Appender<ILoggingEvent> createAppender(AppSettings settings, String appName, Level level) {
         try {
-            String appLogPath = Paths.get(logPath, appName).toString();
+            String appLogPath = Paths.get(settings.logPath, appName).toString();
             File appFolder = new File(appLogPath);
 
             if (!appFolder.exists() && !appFolder.mkdirs()) {
-                logger.error("DynamicAppender: Failed to create directory {}", appLogPath);
+                addError("DynamicAppender: Failed to create directory " + appLogPath);
                 return null;
             }
 
             LoggerContext context = (LoggerContext) getContext();
-            RollingFileAppender<ILoggingEvent> fileAppender = new RollingFileAppender<>();
+            if (settings.fileSinkType == FileSinkType.MEMORY_MAPPED) {
+                return createMappedAppender(context, settings, appName, appLogPath, level);
+            }
+
+            RollingFileAppender<ILoggingEvent> fileAppender = createFileAppender(settings);
             fileAppender.setContext(context);
 
             String logFileName = Paths.get(appLogPath, level.toString().toLowerCase() + ".log").toString();
             fileAppender.setFile(logFileName);
 
-            logger.debug("DynamicAppender: Creating RollingFileAppender for {}", logFileName);
+            addInfo("DynamicAppender: Creating RollingFileAppender for " + logFileName);
 
-            SizeAndTimeBasedRollingPolicy<ILoggingEvent> rollingPolicy = new SizeAndTimeBasedRollingPolicy<>();
+            SizeAndTimeBasedRollingPolicy<ILoggingEvent> rollingPolicy = createRollingPolicy();
             rollingPolicy.setContext(context);
             rollingPolicy.setParent(fileAppender);
-            rollingPolicy.setFileNamePattern(Paths.get(appLogPath, level.toString().toLowerCase() + ".%d{yyyy-MM-dd}.%i.log").toString());
-            rollingPolicy.setMaxFileSize(FileSize.valueOf(maxFileSize));
-            rollingPolicy.setTotalSizeCap(FileSize.valueOf(totalSizeCap));
+            rollingPolicy.setFileNamePattern(rolledFileNamePattern(appLogPath, level));
+            rollingPolicy.setMaxFileSize(FileSize.valueOf(settings.maxFileSize));
+            rollingPolicy.setTotalSizeCap(FileSize.valueOf(settings.totalSizeCap));
             rollingPolicy.setMaxHistory(90);
             rollingPolicy.start();
 
-            if (encoder == null) {
-                logger.error("DynamicAppender: Encoder is not initialized!");
+            Encoder<ILoggingEvent> fileEncoder = createEncoder(context, appName, level);
+            if (fileEncoder == null) {
+                addError("DynamicAppender: Encoder is not initialized!");
                 return null;
             }
 
-            if (!encoder.isStarted()) {
-                encoder.start();
-            }
-
-            fileAppender.setEncoder(encoder);
+            fileAppender.setEncoder(fileEncoder);
             fileAppender.setRollingPolicy(rollingPolicy);
             fileAppender.start();
 
-            logger.info("DynamicAppender: Successfully created appender for appName={}, level={}", appName, level);
+            addInfo("DynamicAppender: Successfully created appender for appName=" + appName + ", level=" + level);
             return fileAppender;
 
         } catch (Exception e) {
-            logger.error("DynamicAppender: Failed to create appender for appName={}, level={}", appName, level, e);
+            addError("DynamicAppender: Failed to create appender for appName=" + appName + ", level=" + level, e);
             return null;
         }
     }
 
     /**
-     * Sets the encoder for the DynamicAppender.
+     * Creates a memory-mapped segment appender for the specified application and log level.
+     * Segments are as large as the maximum file size and roll with the same naming as the rolling policy.
+     *
+     * @param context    the LoggerContext
+     * @param settings   the file settings of the application
+     * @param appName    the name of the application
+     * @param appLogPath the log folder of the application
+     * @param level      the log level
+     * @return the started MappedSegmentAppender, or null if creation fails
+     */
+    private Appender<ILoggingEvent> createMappedAppender(LoggerContext context, AppSettings settings, String appName,
+                                                         String appLogPath, Level level) {
+        Encoder<ILoggingEvent> fileEncoder = createEncoder(context, appName, level);
+        if (fileEncoder == null) {
+            addError("DynamicAppender: Encoder is not initialized!");
+            return null;
+        }
+
+        MappedSegmentAppender mappedAppender = new MappedSegmentAppender();
+        mappedAppender.setContext(context);
+        mappedAppender.setFile(Paths.get(appLogPath, level.toString().toLowerCase() + ".log").toString());
+        mappedAppender.setFileNamePattern(rolledFileNamePattern(appLogPath, level));
+        mappedAppender.setCompressor(compressor);
+        mappedAppender.setSegmentSize(FileSize.valueOf(settings.maxFileSize).getSize());
+        mappedAppender.setTotalSizeCap(FileSize.valueOf(settings.totalSizeCap).getSize());
+        mappedAppender.setMaxHistory(90);
+        mappedAppender.setEncoder(fileEncoder);
+
+        addInfo("DynamicAppender: Creating MappedSegmentAppender for " + mappedAppender.getFile());
+        mappedAppender.start();
+        if (!mappedAppender.isStarted()) {
+            return null;
+        }
+        return mappedAppender;
+    }
+
+    /**
+     * Records a write with the file's syncer and, depending on the durability mode, waits until it is on disk.
+     *
+     * @param appender the appender that wrote the event
+     * @param level    the level of the event
+     */
+    private void applyDurability(Appender<ILoggingEvent> appender, Level level) {
+        FileSyncer syncer = syncers.get(appender);
+        if (syncer == null) {
+            return;
+        }
+        long ticket = syncer.markWritten();
+        DurabilityMode mode = syncer.getDurabilityMode();
+        if (mode == DurabilityMode.GROUP_COMMIT || (mode == DurabilityMode.SYNC_ON_ERROR && level == Level.ERROR)) {
+            syncer.awaitSynced(ticket);
+        }
+    }
+
+    /**
+     * Creates the syncer of a new file appender when its application uses a durability mode,
+     * starting the periodic force task the first time a PERIODIC file shows up.
+     *
+     * @param settings the file settings of the application
+     * @param appName  the name of the application
+     * @param appender the new file appender, may be null
+     * @return the same appender
+     */
+    private Appender<ILoggingEvent> registerSyncer(AppSettings settings, String appName, Appender<ILoggingEvent> appender) {
+        DurabilityMode mode = settings.durabilityMode;
+        if (mode == DurabilityMode.NONE || !(appender instanceof SyncableAppender)) {
+            return appender;
+        }
+        syncers.put(appender, new FileSyncer(this, (SyncableAppender) appender, appName, mode));
+        if (mode == DurabilityMode.PERIODIC) {
+            synchronized (syncers) {
+                if (periodicSyncTask == null && isStarted()) {
+                    periodicSyncTask = getContext().getScheduledExecutorService().scheduleWithFixedDelay(
+                            this::syncPeriodic, durabilityIntervalMillis, durabilityIntervalMillis, TimeUnit.MILLISECONDS);
+                }
+            }
+        }
+        return appender;
+    }
+
+    /**
+     * Forces every PERIODIC log file written since its last force to disk.
+     */
+    private void syncPeriodic() {
+        for (FileSyncer syncer : syncers.values()) {
+            if (syncer.getDurabilityMode() == DurabilityMode.PERIODIC) {
+                syncer.syncIfDirty();
+            }
+        }
+    }
+
+    /**
+     * Builds the name pattern of rolled log files, ending in .gz when rolled files are compressed.
+     *
+     * @param appLogPath the log folder of the application
+     * @param level      the log level
+     * @return the rolled file name pattern
+     */
+    private String rolledFileNamePattern(String appLogPath, Level level) {
+        String pattern = Paths.get(appLogPath, level.toString().toLowerCase() + ".%d{yyyy-MM-dd}.%i.log").toString();
+        return compressor != null ? pattern + LogCompressor.GZ_SUFFIX : pattern;
+    }
+
+    /**
+     * Instantiates the rolling policy, compressing rolled files in the background when compression is enabled.
+     *
+     * @return the unconfigured rolling policy
+     */
+    private SizeAndTimeBasedRollingPolicy<ILoggingEvent> createRollingPolicy() {
+        if (compressor != null) {
+            CompressingRollingPolicy<ILoggingEvent> compressingPolicy = new CompressingRollingPolicy<>();
+            compressingPolicy.setCompressor(compressor);
+            return compressingPolicy;
+        }
+        return new SizeAndTimeBasedRollingPolicy<>();
+    }
+
+    /**
+     * Instantiates the file appender matching the application's sink type.
+     *
+     * @param settings the file settings of the application
+     * @return the unconfigured file appender
+     */
+    private RollingFileAppender<ILoggingEvent> createFileAppender(AppSettings settings) {
+        if (settings.fileSinkType == FileSinkType.BATCHED_CHANNEL) {
+            BatchingFileAppender batchingAppender = new BatchingFileAppender();
+            batchingAppender.setBatchSize(settings.batchSize);
+            batchingAppender.setFlushIntervalMillis(settings.flushIntervalMillis);
+            batchingInUse = true;
+            return batchingAppender;
+        }
+        return new SyncingRollingFileAppender();
+    }
+
+    /**
+     * Writes out the pending batch of every batching file appender. Called when the asynchronous queue goes idle.
+     */
+    private void flushBatches() {
+        if (!batchingInUse) {
+            return;
+        }
+        for (AppFiles files : apps.values()) {
+            for (Appender<ILoggingEvent> fileAppender : files.appenders.values()) {
+                if (fileAppender instanceof BatchingFileAppender) {
+                    ((BatchingFileAppender) fileAppender).flush();
+                }
+            }
+        }
+    }
+
+    /**
+     * Computes the UTF-8 encoded length of an event's message. Messages with primitive arguments are formatted
+     * into a reusable builder rather than into a String.
+     *
+     * @param event the logging event
+     * @return the number of bytes the message occupies in UTF-8
+     */
+    private static int messageLength(ILoggingEvent event) {
+        if (event instanceof ExtendedLoggingEvent) {
+            StringBuilder scratch = MESSAGE_SCRATCH.get();
+            scratch.setLength(0);
+            return utf8Length(((ExtendedLoggingEvent) event).formatMessageTo(scratch));
+        }
+        return utf8Length(event.getFormattedMessage());
+    }
+
+    /**
+     * Computes the UTF-8 encoded length of a message without encoding it.
+     *
+     * @param message the message
+     * @return the number of bytes the message occupies in UTF-8
+     */
+    private static int utf8Length(CharSequence message) {
+        if (message == null) {
+            return 0;
+        }
+        int length = message.length();
+        int bytes = length;
+        for (int i = 0; i < length; i++) {
+            char c = message.charAt(i);
+            if (c >= 0x800) {
+                // A surrogate pair takes four bytes for its two chars
+                bytes += 2;
+                if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(message.charAt(i + 1))) {
+                    i++;
+                }
+            } else if (c >= 0x80) {
+                bytes += 1;
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Creates the encoder for one log file, preferring a dedicated instance from the encoder factory
+     * over the shared encoder.
+     *
+     * @param context the LoggerContext
+     * @param appName the name of the application
+     * @param level   the log level
+     * @return the started encoder, or null if neither a factory nor an encoder is configured
+     */
+    private Encoder<ILoggingEvent> createEncoder(LoggerContext context, String appName, Level level) {
+        if (encoderFactory != null) {
+            return encoderFactory.createEncoder(context, appName, level);
+        }
+        if (encoder != null && !encoder.isStarted()) {
+            encoder.start();
+        }
+        return encoder;
+    }
+
+    /**
+     * Sets the factory that creates a dedicated encoder for every log file.
+     *
+     * @param encoderFactory the EncoderFactory instance
+     */
+    public void setEncoderFactory(EncoderFactory encoderFactory) {
+        this.encoderFactory = encoderFactory;
+    }
+
+    /**
+     * Sets an encoder shared by all log files. Only used when no encoder factory is configured.
      *
      * @param encoder the Encoder instance
      */
@@ -187,18 +659,251 @@ public class DynamicAppender extends AppenderBase<ILoggingEvent> {
     }
 
     /**
-     * Removes and stops all appenders associated with the specified application.
+     * Enables or disables asynchronous mode, in which events are written by dedicated consumer threads.
+     *
+     * @param asyncEnabled true to queue events instead of writing them on the calling thread
+     */
+    public void setAsyncEnabled(boolean asyncEnabled) {
+        this.asyncEnabled = asyncEnabled;
+    }
+
+    /**
+     * Sets the capacity of the asynchronous ring buffer.
+     *
+     * @param asyncQueueSize the queue capacity, rounded up to a power of two
+     */
+    public void setAsyncQueueSize(int asyncQueueSize) {
+        this.asyncQueueSize = asyncQueueSize;
+    }
+
+    /**
+     * Sets the number of consumer threads draining the asynchronous ring buffer.
+     *
+     * @param asyncConsumerThreads the number of consumer threads
+     */
+    public void setAsyncConsumerThreads(int asyncConsumerThreads) {
+        this.asyncConsumerThreads = asyncConsumerThreads;
+    }
+
+    /**
+     * Sets what the asynchronous ring buffer does with new events when it is full.
+     *
+     * @param overflowPolicy the overflow policy
+     */
+    public void setOverflowPolicy(OverflowPolicy overflowPolicy) {
+        this.overflowPolicy = overflowPolicy;
+    }
+
+    /**
+     * Sets how the per-application, per-level log files are written.
+     *
+     * @param fileSinkType the file sink type
+     */
+    public void setFileSinkType(FileSinkType fileSinkType) {
+        this.fileSinkType = fileSinkType;
+    }
+
+    /**
+     * Sets the batch buffer size used by the BATCHED_CHANNEL sink.
+     *
+     * @param batchSize the batch buffer size in bytes
+     */
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Sets how long an event may wait in a batch before the BATCHED_CHANNEL sink writes it.
+     *
+     * @param flushIntervalMillis the flush interval in milliseconds
+     */
+    public void setFlushIntervalMillis(long flushIntervalMillis) {
+        this.flushIntervalMillis = flushIntervalMillis;
+    }
+
+    /**
+     * Sets when written log data is forced to disk.
+     *
+     * @param durabilityMode the durability mode
+     */
+    public void setDurabilityMode(DurabilityMode durabilityMode) {
+        this.durabilityMode = durabilityMode;
+    }
+
+    /**
+     * Sets how often the PERIODIC durability mode forces the log files to disk.
+     *
+     * @param durabilityIntervalMillis the interval in milliseconds
+     */
+    public void setDurabilityIntervalMillis(long durabilityIntervalMillis) {
+        this.durabilityIntervalMillis = durabilityIntervalMillis;
+    }
+
+    /**
+     * Enables or disables GZIP compression of rolled log files on background threads.
+     *
+     * @param compressionEnabled true to compress rolled log files
+     */
+    public void setCompressionEnabled(boolean compressionEnabled) {
+        this.compressionEnabled = compressionEnabled;
+    }
+
+    /**
+     * Sets the Deflater level used to compress rolled log files.
+     *
+     * @param compressionLevel the level from 0 to 9, or -1 for the default level
+     */
+    public void setCompressionLevel(int compressionLevel) {
+        this.compressionLevel = compressionLevel;
+    }
+
+    /**
+     * Sets the number of background threads compressing rolled log files.
+     *
+     * @param compressionThreads the number of compression threads
+     */
+    public void setCompressionThreads(int compressionThreads) {
+        this.compressionThreads = compressionThreads;
+    }
+
+    /**
+     * Registers the file settings of an application and replaces its files with a generation opened with the new
+     * settings. The files of other applications are not touched. Settings the options leave unset fall back to the
+     * settings of this appender.
+     *
+     * @param options the LoggerOptions of the application
+     */
+    public void configureApp(LoggerOptions options) {
+        AppSettings defaults = defaultSettings;
+        if (defaults == null) {
+            addWarn("DynamicAppender: Not started; ignoring settings for appName=" + options.getAppName());
+            return;
+        }
+        AppSettings settings = new AppSettings(
+                options.getLogPath() != null ? options.getLogPath() : defaults.logPath,
+                options.getMaxFileSize() != null ? options.getMaxFileSize() : defaults.maxFileSize,
+                options.getTotalSizeCap() != null ? options.getTotalSizeCap() : defaults.totalSizeCap,
+                options.getFileSinkType(),
+                options.getBatchSize(),
+                options.getFlushIntervalMillis(),
+                options.getDurabilityMode());
+        replaceFiles(options.getAppName(), settings);
+    }
+
+    /**
+     * Makes this appender take over from another one writing to the same files. Until the other appender is stopped
+     * and has closed its files, this appender opens none, so that no file is ever written and rolled by both.
+     *
+     * @param previous the appender being replaced, stopped by the caller
+     */
+    void takeOver(DynamicAppender previous) {
+        predecessor = previous;
+    }
+
+    /**
+     * Returns the file settings of an application, falling back to the settings of this appender.
+     *
+     * @param appName the name of the application
+     * @return the file settings
+     */
+    private AppSettings settingsFor(String appName) {
+        return appName != null ? filesFor(appName).settings : defaultSettings;
+    }
+
+    /**
+     * Replaces the open files of the specified application; they are reopened with the same settings.
+     * The previous files are closed in the background once the events being written to them are done.
      *
      * @param appName the name of the application
      */
     public void removeAppendersForApp(String appName) {
-        Map<Level, RollingFileAppender<ILoggingEvent>> levelAppenders = appenders.remove(appName);
-        if (levelAppenders != null) {
-            levelAppenders.values().forEach(appender -> {
-                appender.stop();
-                ((LoggerContext) getContext()).getLogger(appName).detachAppender(appender);
-                logger.info("DynamicAppender: Removed appender for appName={}, level={}", appName, appender.getName());
-            });
+        AppFiles current = apps.get(appName);
+        if (current != null) {
+            replaceFiles(appName, current.settings);
+        }
+    }
+
+    /**
+     * Publishes a new file generation for an application and retires the previous one, which is closed in the
+     * background. The new generation opens each file on its first event after the previous generation is closed.
+     *
+     * @param appName  the name of the application
+     * @param settings the file settings of the new generation
+     */
+    private void replaceFiles(String appName, AppSettings settings) {
+        AppFiles files = new AppFiles(settings, apps.get(appName));
+        AppFiles retiredFiles = apps.put(appName, files);
+        if (retiredFiles == null) {
+            return;
+        }
+        retiredFiles.retired = true;
+        try {
+            getContext().getScheduledExecutorService().execute(() -> closeReplacedFiles(appName, retiredFiles));
+        } catch (RuntimeException e) {
+            // The context is shutting down; close on the calling thread instead
+            closeReplacedFiles(appName, retiredFiles);
+        }
+    }
+
+    /**
+     * Closes a replaced file generation and reports how many in-flight events it carried over the replacement.
+     *
+     * @param appName the name of the application
+     * @param files   the replaced generation
+     */
+    private void closeReplacedFiles(String appName, AppFiles files) {
+        closeFiles(appName, files);
+        int carriedOver = files.carriedOver.get();
+        LoggerMonitor.trackReload(appName, carriedOver);
+        addInfo("DynamicAppender: Closed previous files of appName=" + appName + "; carried over "
+                + carriedOver + " in-flight events");
+    }
+
+    /**
+     * Closes a retired file generation once its last writer has left, forcing durable files to disk first.
+     * A generation is only closed after the generation it replaced.
+     *
+     * @param appName the name of the application
+     * @param files   the retired generation
+     */
+    private void closeFiles(String appName, AppFiles files) {
+        AppFiles predecessor = files.predecessor;
+        if (predecessor != null) {
+            awaitClosed(predecessor.closed);
+            files.predecessor = null;
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(RETIRE_TIMEOUT_MILLIS);
+        while (files.writers.get() > 0) {
+            if (System.nanoTime() - deadline > 0) {
+                addWarn("DynamicAppender: Closing files of appName=" + appName + " with "
+                        + files.writers.get() + " writes still in progress");
+                break;
+            }
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(100));
+        }
+        for (Appender<ILoggingEvent> appender : files.appenders.values()) {
+            FileSyncer syncer = syncers.remove(appender);
+            if (syncer != null) {
+                syncer.syncIfDirty();
+            }
+            appender.stop();
+        }
+        files.appenders.clear();
+        files.closed.countDown();
+    }
+
+    /**
+     * Waits until a retired file generation, or the files of a replaced appender, are closed.
+     *
+     * @param closed counted down once the files are closed
+     */
+    private void awaitClosed(CountDownLatch closed) {
+        try {
+            if (!closed.await(RETIRE_TIMEOUT_MILLIS * 2, TimeUnit.MILLISECONDS)) {
+                addWarn("DynamicAppender: Timed out waiting for previous files to close");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         }
     }
 }
@@ -9,6 +9,15 @@ import org.slf4j.Marker;
 
 /**
  * Custom EmailAppender that sends emails based on log events with specific markers.
+ * <p>
+ * The event is formatted on the logging thread, and the email is handed to an {@link EmailDispatcher} that sends it
+ * in the background, so logging with the EMAIL marker does not wait for the SMTP server.
+ * <p>
+ * With a digest window set, alerts that follow a sent alert within the window are gathered by an
+ * {@link EmailDigest} and sent together when the window ends. With a dedup TTL set, an {@link EmailDedupCache}
+ * first suppresses alerts identical to one sent within the TTL, and the next email for that alert reports how many
+ * were suppressed. Before an email is queued, the {@link EmailDispatcher} applies the rate limits and the circuit
+ * breaker.
  */
 public class EmailAppender extends AppenderBase<ILoggingEvent> {
     private static final Logger logger = LoggerFactory.getLogger(EmailAppender.class);
@@ -20,8 +29,26 @@ public class EmailAppender extends AppenderBase<ILoggingEvent> {
     private String emailFrom;
     private String emailTo;
     private String emailSubject = "Application Error Notification";
+    private String appName;
+    private int queueSize = 256;
+    private int workerThreads = 1;
+    private long sendTimeoutMillis = 10_000;
+    private long digestWindowMillis = 0;
+    private int digestMaxSamples = 20;
+    private long dedupTtlMillis = 0;
+    private int dedupCapacity = 4096;
+    private int rateLimitPerMinute = 0;
+    private int rateLimitBurst = 10;
+    private int breakerFailureThreshold = 5;
+    private long breakerOpenMillis = 30_000;
 
     private PatternLayoutEncoder encoder;
+    private EmailService emailService;
+    private EmailDispatcher dispatcher;
+    private EmailDigest digest;
+    private EmailDedupCache dedupCache;
+    // The application name used for metrics
+    private String monitoredAppName;
 
     /**
      * Starts the EmailAppender by validating configurations.
@@ -45,12 +72,51 @@ public class EmailAppender extends AppenderBase<ILoggingEvent> {
             return;
         }
         encoder.start();
+        monitoredAppName = appName != null ? appName : getName();
+        // One pooled connection per worker thread
+        emailService = new EmailService(smtpHost, smtpPort, smtpUsername, smtpPassword, sendTimeoutMillis,
+                workerThreads, EmailService.DEFAULT_IDLE_TIMEOUT_MILLIS);
+        dispatcher = new EmailDispatcher(this, monitoredAppName, emailService, queueSize, workerThreads,
+                rateLimitPerMinute > 0 ? new EmailRateLimiter(rateLimitPerMinute, rateLimitBurst) : null,
+                breakerFailureThreshold > 0
+                        ? new EmailCircuitBreaker(monitoredAppName, breakerFailureThreshold, breakerOpenMillis) : null);
+        dispatcher.start();
+        if (dedupTtlMillis > 0) {
+            dedupCache = new EmailDedupCache(dedupTtlMillis, dedupCapacity);
+        }
+        if (digestWindowMillis > 0) {
+            digest = new EmailDigest(monitoredAppName, digestWindowMillis, digestMaxSamples,
+                    getContext().getScheduledExecutorService(), this::sendDigest);
+        }
         super.start();
         logger.info("EmailAppender: Started successfully.");
     }
 
     /**
-     * Appends the log event by sending an email if the event contains the EMAIL marker.
+     * Stops the EmailAppender, sending the pending digest and waiting up to the send timeout for queued emails
+     * to be sent, and closes the connections to the SMTP server.
+     */
+    @Override
+    public void stop() {
+        super.stop();
+        if (digest != null) {
+            digest.stop();
+            digest = null;
+        }
+        if (dispatcher != null) {
+            dispatcher.stop(sendTimeoutMillis);
+            dispatcher = null;
+        }
+        if (emailService != null) {
+            emailService.close();
+            emailService = null;
+        }
+    }
+
+    /**
+     * Appends the log event by queueing an email if the event contains the EMAIL marker,
+     * unless an identical alert was sent within the dedup TTL, or by adding it to the digest while a digest window
+     * is open.
      *
      * @param event the logging event
      */
@@ -62,31 +128,44 @@ public class EmailAppender extends AppenderBase<ILoggingEvent> {
 
         Marker emailMarker = LogMarkers.EMAIL;
         if (event.getMarker() != null && event.getMarker().contains(emailMarker)) {
+            int suppressed = 0;
+            if (dedupCache != null) {
+                suppressed = dedupCache.admit(EmailDedupCache.fingerprint(event), event.getTimeStamp());
+                if (suppressed < 0) {
+                    LoggerMonitor.trackEmailSuppressed(monitoredAppName);
+                    return;
+                }
+            }
+            EmailDigest emailDigest = digest;
+            if (emailDigest != null && !emailDigest.offer(event, encoder.getLayout(), suppressed)) {
+                return;
+            }
             String formattedMessage = encoder.getLayout().doLayout(event);
-            sendEmail(event.getLevel().toString(), formattedMessage);
+            if (suppressed > 0) {
+                formattedMessage = suppressedNote(suppressed) + "\n\n" + formattedMessage;
+            }
+            EmailDispatcher emailDispatcher = dispatcher;
+            if (emailDispatcher != null) {
+                emailDispatcher.dispatch(emailFrom, emailTo, emailSubject + " - " + event.getLevel(), formattedMessage);
+            }
         }
     }
 
     /**
-     * Sends an email with the log event details.
+     * Describes the alerts suppressed by the dedup cache.
      *
-     * @param level   the log level
-     * @param message the formatted log message
+     * @param suppressed the number of suppressed alerts
+     * @return the note
      */
-    private void sendEmail(String level, String message) {
-        // Implement email sending logic using JavaMail API
-        EmailService emailService = new EmailService(
-                smtpHost,
-                smtpPort,
-                smtpUsername,
-                smtpPassword
-        );
+    static String suppressedNote(long suppressed) {
+        return suppressed + (suppressed == 1 ? " identical alert was" : " identical alerts were")
+                + " suppressed since the last email.";
+    }
 
-        try {
-            emailService.sendEmail(emailFrom, emailTo, emailSubject + " - " + level, message);
-            logger.debug("EmailAppender: Sent email for log level {}", level);
-        } catch (Exception e) {
-            logger.error("EmailAppender: Failed to send email for log level {}", level, e);
+    private void sendDigest(String subjectSuffix, String body) {
+        EmailDispatcher emailDispatcher = dispatcher;
+        if (emailDispatcher != null) {
+            emailDispatcher.dispatch(emailFrom, emailTo, emailSubject + subjectSuffix, body);
         }
     }
 
@@ -153,6 +232,133 @@ public class EmailAppender extends AppenderBase<ILoggingEvent> {
         this.emailSubject = emailSubject;
     }
 
+    /**
+     * Sets the name of the application the emails are sent for, used for metrics.
+     *
+     * @param appName the name of the application
+     */
+    public void setAppName(String appName) {
+        this.appName = appName;
+    }
+
+    /**
+     * Sets how many emails can wait to be sent. Emails logged while the queue is full are dropped.
+     *
+     * @param queueSize the queue capacity
+     */
+    public void setQueueSize(int queueSize) {
+        this.queueSize = queueSize;
+    }
+
+    /**
+     * Sets the number of threads sending emails.
+     *
+     * @param workerThreads the number of email threads
+     */
+    public void setWorkerThreads(int workerThreads) {
+        this.workerThreads = workerThreads;
+    }
+
+    /**
+     * Sets the timeout for connecting to the SMTP server and for each read and write while sending an email.
+     *
+     * @param sendTimeoutMillis the timeout in milliseconds
+     */
+    public void setSendTimeoutMillis(long sendTimeoutMillis) {
+        this.sendTimeoutMillis = sendTimeoutMillis;
+    }
+
+    /**
+     * Sets the digest window. Alerts logged within the window after an email was sent are gathered into one
+     * digest email; 0 sends every alert on its own.
+     *
+     * @param digestWindowMillis the window in milliseconds
+     */
+    public void setDigestWindowMillis(long digestWindowMillis) {
+        this.digestWindowMillis = digestWindowMillis;
+    }
+
+    /**
+     * Sets how many alert lines a digest email keeps.
+     *
+     * @param digestMaxSamples the maximum number of sample lines
+     */
+    public void setDigestMaxSamples(int digestMaxSamples) {
+        this.digestMaxSamples = digestMaxSamples;
+    }
+
+    /**
+     * Sets how long repeats of a sent alert are suppressed. Alerts are identical when they have the same logger,
+     * level, message template and top stack frames; 0 sends every alert.
+     *
+     * @param dedupTtlMillis the TTL in milliseconds
+     */
+    public void setDedupTtlMillis(long dedupTtlMillis) {
+        this.dedupTtlMillis = dedupTtlMillis;
+    }
+
+    /**
+     * Sets how many distinct alerts the dedup cache remembers.
+     *
+     * @param dedupCapacity the number of alerts
+     */
+    public void setDedupCapacity(int dedupCapacity) {
+        this.dedupCapacity = dedupCapacity;
+    }
+
+    /**
+     * Sets how many emails per minute this appender sends at most. Emails over the limit are dropped.
+     *
+     * @param rateLimitPerMinute the sustained rate, or 0 for no limit
+     */
+    public void setRateLimitPerMinute(int rateLimitPerMinute) {
+        this.rateLimitPerMinute = rateLimitPerMinute;
+    }
+
+    /**
+     * Sets how many emails can be sent at once under the rate limit after a quiet period.
+     *
+     * @param rateLimitBurst the burst size
+     */
+    public void setRateLimitBurst(int rateLimitBurst) {
+        this.rateLimitBurst = rateLimitBurst;
+    }
+
+    /**
+     * Sets how many consecutive failed sends open the circuit breaker, after which emails are dropped without
+     * contacting the SMTP server until the breaker probes it again.
+     *
+     * @param breakerFailureThreshold the number of failures, or 0 to disable the breaker
+     */
+    public void setBreakerFailureThreshold(int breakerFailureThreshold) {
+        this.breakerFailureThreshold = breakerFailureThreshold;
+    }
+
+    /**
+     * Sets how long the circuit breaker stays open before the next email is sent as a probe.
+     *
+     * @param breakerOpenMillis the open period in milliseconds
+     */
+    public void setBreakerOpenMillis(long breakerOpenMillis) {
+        this.breakerOpenMillis = breakerOpenMillis;
+    }
+
+    /**
+     * Limits how many emails all applications send together. Emails over the limit are dropped.
+     *
+     * @param emailsPerMinute the sustained rate, or 0 to remove the global limit
+     * @param burst           how many emails can be sent at once after a quiet period
+     */
+    public static void setGlobalRateLimit(int emailsPerMinute, int burst) {
+        if (emailsPerMinute < 0) {
+            throw new IllegalArgumentException("Global email rate limit cannot be negative");
+        }
+        if (emailsPerMinute > 0 && burst <= 0) {
+            throw new IllegalArgumentException("Global email burst must be greater than zero");
+        }
+        EmailRateLimiter.setGlobal(emailsPerMinute > 0 ? new EmailRateLimiter(emailsPerMinute, burst) : null);
+    }
+
     /**
      * Sets the PatternLayoutEncoder for formatting email content.
      *
@@ -161,4 +367,4 @@ public class EmailAppender extends AppenderBase<ILoggingEvent> {
     public void setEncoder(PatternLayoutEncoder encoder) {
         this.encoder = encoder;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,106 @@
+package com.atanu.logging;
+
+/**
+ * Circuit breaker stopping an {@link EmailDispatcher} from contacting an SMTP server that keeps failing.
+ * <p>
+ * The breaker is closed while sends succeed. After the configured number of consecutive failures it opens, and
+ * emails are dropped without connecting to the server. Once the open period has passed, the next email is sent as
+ * a probe while the breaker is half open: if the probe succeeds the breaker closes, otherwise it opens again for
+ * another period. Every state change is reported to {@link LoggerMonitor}.
+ */
+class EmailCircuitBreaker {
+
+    /**
+     * The states of the breaker.
+     */
+    enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final String appName;
+    private final int failureThreshold;
+    private final long openMillis;
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openUntilMillis;
+
+    /**
+     * Creates a closed breaker.
+     *
+     * @param appName          the name of the application the emails are sent for, used for metrics
+     * @param failureThreshold the number of consecutive failures that opens the breaker
+     * @param openMillis       how long the breaker stays open before a probe
+     */
+    EmailCircuitBreaker(String appName, int failureThreshold, long openMillis) {
+        this.appName = appName;
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openMillis = openMillis;
+        LoggerMonitor.trackEmailBreakerState(appName, state.name(), false);
+    }
+
+    /**
+     * Tells whether new emails are dropped right away, because the breaker is open or a probe is in flight.
+     *
+     * @param nowMillis the current time
+     * @return true if emails are dropped without being queued
+     */
+    synchronized boolean isRejecting(long nowMillis) {
+        return state == State.HALF_OPEN || (state == State.OPEN && nowMillis < openUntilMillis);
+    }
+
+    /**
+     * Asks to contact the SMTP server. When the open period has passed, the first caller becomes the probe.
+     *
+     * @param nowMillis the current time
+     * @return true if the email may be sent
+     */
+    synchronized boolean allowRequest(long nowMillis) {
+        switch (state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if (nowMillis < openUntilMillis) {
+                    return false;
+                }
+                transition(State.HALF_OPEN, false);
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Records a successful send, closing the breaker.
+     */
+    synchronized void recordSuccess() {
+        consecutiveFailures = 0;
+        if (state != State.CLOSED) {
+            transition(State.CLOSED, false);
+        }
+    }
+
+    /**
+     * Records a failed send.
+     *
+     * @param nowMillis the current time
+     * @return true if the failure opened the breaker
+     */
+    synchronized boolean recordFailure(long nowMillis) {
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || (state == State.CLOSED && consecutiveFailures >= failureThreshold)) {
+            openUntilMillis = nowMillis + openMillis;
+            transition(State.OPEN, true);
+            return true;
+        }
+        return false;
+    }
+
+    long getOpenMillis() {
+        return openMillis;
+    }
+
+    private void transition(State newState, boolean opened) {
+        state = newState;
+        LoggerMonitor.trackEmailBreakerState(appName, newState.name(), opened);
+    }
+}
@@ -0,0 +1,118 @@
+package com.atanu.logging;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.IThrowableProxy;
+import ch.qos.logback.classic.spi.StackTraceElementProxy;
+
+/**
+ * Suppresses repeated alerts of an {@link EmailAppender}. Each alert is reduced to a 64-bit fingerprint of its
+ * logger name, level, message template and the top frames of its throwable, so alerts that differ only in their
+ * timestamp or arguments share a fingerprint. An alert whose fingerprint was sent less than the TTL ago is
+ * suppressed and counted; the next alert with that fingerprint that is sent reports the count.
+ * <p>
+ * The fingerprints live in an open-addressing table of primitive arrays, about 20 bytes per slot, with a fixed
+ * number of slots. Expired slots are reused, and when every slot a fingerprint may occupy is taken, the one sent
+ * longest ago is replaced; an evicted fingerprint is simply sent again, so the table never loses an alert.
+ * <p>
+ * Not thread-safe; the appender calls it while holding its own lock.
+ */
+class EmailDedupCache {
+    // Top frames of the throwable and of each cause that take part in the fingerprint
+    private static final int FINGERPRINT_FRAMES = 3;
+    // Bounds the walk down the causes, which may form a cycle
+    private static final int FINGERPRINT_CAUSES = 8;
+    private static final int MAX_PROBES = 8;
+    // Marks an empty slot; a fingerprint of 0 is stored as 1
+    private static final long EMPTY = 0L;
+
+    private final long ttlMillis;
+    private final int mask;
+    private final long[] fingerprints;
+    private final long[] sentMillis;
+    private final int[] suppressedCounts;
+
+    /**
+     * Creates a cache.
+     *
+     * @param ttlMillis how long repeats of a sent alert are suppressed
+     * @param capacity  the number of fingerprints the cache holds, rounded up to a power of two
+     */
+    EmailDedupCache(long ttlMillis, int capacity) {
+        this.ttlMillis = ttlMillis;
+        int slots = Integer.highestOneBit(Math.max(MAX_PROBES, capacity) - 1) << 1;
+        this.mask = slots - 1;
+        this.fingerprints = new long[slots];
+        this.sentMillis = new long[slots];
+        this.suppressedCounts = new int[slots];
+    }
+
+    /**
+     * Decides whether an alert is sent.
+     *
+     * @param fingerprint the fingerprint of the alert, from {@link #fingerprint(ILoggingEvent)}
+     * @param nowMillis   the current time
+     * @return -1 if the alert is suppressed; otherwise the number of alerts with the same fingerprint suppressed
+     * since the last one was sent
+     */
+    int admit(long fingerprint, long nowMillis) {
+        long key = fingerprint == EMPTY ? 1L : fingerprint;
+        int home = (int) (key ^ (key >>> 32)) & mask;
+        int free = -1;
+        int oldest = home;
+        for (int probe = 0; probe < MAX_PROBES; probe++) {
+            int slot = (home + probe) & mask;
+            long stored = fingerprints[slot];
+            if (stored == key) {
+                if (nowMillis - sentMillis[slot] < ttlMillis) {
+                    if (suppressedCounts[slot] < Integer.MAX_VALUE) {
+                        suppressedCounts[slot]++;
+                    }
+                    return -1;
+                }
+                int suppressed = suppressedCounts[slot];
+                sentMillis[slot] = nowMillis;
+                suppressedCounts[slot] = 0;
+                return suppressed;
+            }
+            if (free < 0 && (stored == EMPTY || nowMillis - sentMillis[slot] >= ttlMillis)) {
+                free = slot;
+            }
+            if (sentMillis[slot] < sentMillis[oldest]) {
+                oldest = slot;
+            }
+        }
+        int slot = free >= 0 ? free : oldest;
+        fingerprints[slot] = key;
+        sentMillis[slot] = nowMillis;
+        suppressedCounts[slot] = 0;
+        return 0;
+    }
+
+    /**
+     * Computes the fingerprint of an alert from its logger name, level, message template and the top frames of its
+     * throwable and causes.
+     *
+     * @param event the logging event
+     * @return the fingerprint
+     */
+    static long fingerprint(ILoggingEvent event) {
+        long hash = LoggerOptions.FINGERPRINT_SEED;
+        hash = LoggerOptions.mix(hash, event.getLoggerName());
+        hash = LoggerOptions.mix(hash, event.getLevel().toInt());
+        hash = LoggerOptions.mix(hash, event.getMessage());
+        IThrowableProxy throwable = event.getThrowableProxy();
+        for (int depth = 0; throwable != null && depth < FINGERPRINT_CAUSES; depth++) {
+            hash = LoggerOptions.mix(hash, throwable.getClassName());
+            StackTraceElementProxy[] frames = throwable.getStackTraceElementProxyArray();
+            int count = frames == null ? 0 : Math.min(FINGERPRINT_FRAMES, frames.length);
+            for (int i = 0; i < count; i++) {
+                StackTraceElement frame = frames[i].getStackTraceElement();
+                hash = LoggerOptions.mix(hash, frame.getClassName());
+                hash = LoggerOptions.mix(hash, frame.getMethodName());
+                hash = LoggerOptions.mix(hash, frame.getLineNumber());
+            }
+            throwable = throwable.getCause();
+        }
+        return hash;
+    }
+}
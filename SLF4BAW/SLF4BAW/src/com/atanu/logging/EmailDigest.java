@@ -0,0 +1,162 @@
+package com.atanu.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Layout;
+
+import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+/**
+ * Gathers the alerts of an {@link EmailAppender} into digest emails, so that a failing downstream system
+ * produces one email per window instead of one per alert.
+ * <p>
+ * An alert arriving while no window is open is sent on its own and opens a window. Alerts arriving during the
+ * window are counted, and the first few are kept as sample lines. When the window ends, the gathered alerts are
+ * sent as one digest and the next window opens; a window without alerts closes, so the next alert is sent
+ * immediately again. Only the configured number of samples is kept, which bounds the memory of a digest however
+ * many alerts it counts.
+ */
+class EmailDigest {
+    private static final String TIMESTAMP_PATTERN = "yyyy-MM-dd HH:mm:ss.SSS";
+
+    private final String appName;
+    private final long windowMillis;
+    private final ScheduledExecutorService scheduler;
+    private final BiConsumer<String, String> sender;
+    private final String[] samples;
+
+    private int sampleCount;
+    private long count;
+    private long suppressedCount;
+    private long firstMillis;
+    private long lastMillis;
+    private Level highestLevel;
+    private boolean windowOpen;
+    private boolean stopped;
+    private ScheduledFuture<?> flushTask;
+
+    /**
+     * Creates a digest.
+     *
+     * @param appName      the name of the application the alerts are sent for, used for metrics
+     * @param windowMillis how long alerts are gathered after an email was sent
+     * @param maxSamples   how many alert lines a digest keeps
+     * @param scheduler    the executor ending the windows
+     * @param sender       sends a digest, given the subject suffix and the body
+     */
+    EmailDigest(String appName, long windowMillis, int maxSamples, ScheduledExecutorService scheduler,
+                BiConsumer<String, String> sender) {
+        this.appName = appName;
+        this.windowMillis = windowMillis;
+        this.scheduler = scheduler;
+        this.sender = sender;
+        this.samples = new String[Math.max(1, maxSamples)];
+    }
+
+    /**
+     * Offers an alert to the digest. The alert is only formatted if it is kept as a sample.
+     *
+     * @param event      the logging event of the alert
+     * @param layout     the layout formatting sample lines
+     * @param suppressed the number of identical alerts suppressed before this one
+     * @return true if no window was open and the alert must be sent on its own; false if the digest took it
+     */
+    synchronized boolean offer(ILoggingEvent event, Layout<ILoggingEvent> layout, int suppressed) {
+        if (stopped) {
+            return true;
+        }
+        if (!windowOpen) {
+            windowOpen = true;
+            flushTask = scheduler.schedule(this::flush, windowMillis, TimeUnit.MILLISECONDS);
+            return true;
+        }
+        long timestamp = event.getTimeStamp();
+        if (count == 0) {
+            firstMillis = timestamp;
+            lastMillis = timestamp;
+            highestLevel = event.getLevel();
+        } else {
+            firstMillis = Math.min(firstMillis, timestamp);
+            lastMillis = Math.max(lastMillis, timestamp);
+            if (event.getLevel().isGreaterOrEqual(highestLevel)) {
+                highestLevel = event.getLevel();
+            }
+        }
+        count++;
+        suppressedCount += suppressed;
+        if (sampleCount < samples.length) {
+            samples[sampleCount++] = layout.doLayout(event);
+        }
+        return false;
+    }
+
+    /**
+     * Sends the alerts gathered so far and stops gathering; alerts offered afterwards are sent on their own.
+     */
+    void stop() {
+        synchronized (this) {
+            stopped = true;
+            if (flushTask != null) {
+                flushTask.cancel(false);
+            }
+        }
+        flush();
+    }
+
+    /**
+     * Ends the current window, sending a digest of its alerts and opening the next window if there were any.
+     */
+    private void flush() {
+        String subjectSuffix;
+        String body;
+        long digested;
+        synchronized (this) {
+            flushTask = null;
+            if (count == 0) {
+                windowOpen = false;
+                return;
+            }
+            digested = count;
+            subjectSuffix = " - " + highestLevel + " digest of " + count + (count == 1 ? " alert" : " alerts");
+            body = buildBody();
+            Arrays.fill(samples, 0, sampleCount, null);
+            sampleCount = 0;
+            count = 0;
+            suppressedCount = 0;
+            highestLevel = null;
+            if (stopped) {
+                windowOpen = false;
+            } else {
+                flushTask = scheduler.schedule(this::flush, windowMillis, TimeUnit.MILLISECONDS);
+            }
+        }
+        LoggerMonitor.trackAlertsDigested(appName, digested);
+        sender.accept(subjectSuffix, body);
+    }
+
+    private String buildBody() {
+        SimpleDateFormat format = new SimpleDateFormat(TIMESTAMP_PATTERN);
+        StringBuilder body = new StringBuilder();
+        body.append(count).append(count == 1 ? " alert" : " alerts")
+                .append(" between ").append(format.format(new Date(firstMillis)))
+                .append(" and ").append(format.format(new Date(lastMillis))).append('\n');
+        body.append("Highest level: ").append(highestLevel).append('\n');
+        if (suppressedCount > 0) {
+            body.append(EmailAppender.suppressedNote(suppressedCount)).append('\n');
+        }
+        body.append('\n');
+        for (int i = 0; i < sampleCount; i++) {
+            body.append(samples[i]);
+        }
+        if (count > sampleCount) {
+            body.append("... and ").append(count - sampleCount).append(" more\n");
+        }
+        return body.toString();
+    }
+}
@@ -0,0 +1,213 @@
+package com.atanu.logging;
+
+import ch.qos.logback.core.spi.ContextAware;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends the emails of one application on dedicated worker threads, so that the thread logging an event with the
+ * EMAIL marker never waits for the mail server.
+ * <p>
+ * Emails wait in a bounded queue. When it is full, new emails are dropped and counted in {@link LoggerMonitor}
+ * instead of blocking the caller. The workers are virtual threads when the JVM supports them, and daemon threads
+ * otherwise. Each send is bounded by the SMTP timeouts of the {@link EmailService}.
+ * <p>
+ * Emails can be limited by a per-application and a global {@link EmailRateLimiter}, and an
+ * {@link EmailCircuitBreaker} stops contacting the SMTP server after consecutive failures, so an unreachable server
+ * is not hit with a connection attempt, and a logged stack trace, for every alert. Emails dropped by either are
+ * counted in {@link LoggerMonitor}.
+ * <p>
+ * A full queue and a reached rate limit are reported to the logback status manager, since they are noticed on the
+ * logging thread; failed sends are logged from the worker threads.
+ */
+class EmailDispatcher {
+    private static final Logger logger = LoggerFactory.getLogger(EmailDispatcher.class);
+
+    private final ContextAware owner;
+    private final String appName;
+    private final EmailService emailService;
+    private final int queueSize;
+    private final int threads;
+    private final EmailRateLimiter rateLimiter;
+    private final EmailCircuitBreaker breaker;
+    // Set from the first dropped email until the queue has drained, so that a full queue is reported once
+    private volatile boolean overflowing;
+    // Set from the first rate-limited email until an email passes the limits again
+    private volatile boolean rateLimited;
+    private volatile ThreadPoolExecutor executor;
+
+    /**
+     * Creates a dispatcher; call {@link #start()} before dispatching emails.
+     *
+     * @param owner        the component that owns the dispatcher, used for status reporting
+     * @param appName      the name of the application the emails are sent for
+     * @param emailService the service sending the emails
+     * @param queueSize    how many emails can wait to be sent
+     * @param threads      the number of worker threads
+     * @param rateLimiter  the application's rate limit, or null for none
+     * @param breaker      the circuit breaker guarding the SMTP server, or null for none
+     */
+    EmailDispatcher(ContextAware owner, String appName, EmailService emailService, int queueSize, int threads,
+                    EmailRateLimiter rateLimiter, EmailCircuitBreaker breaker) {
+        this.owner = owner;
+        this.appName = appName;
+        this.emailService = emailService;
+        this.queueSize = Math.max(1, queueSize);
+        this.threads = Math.max(1, threads);
+        this.rateLimiter = rateLimiter;
+        this.breaker = breaker;
+        LoggerMonitor.trackEmailRateLimiter(appName, rateLimiter);
+    }
+
+    /**
+     * Starts the worker threads.
+     */
+    void start() {
+        String threadName = "EmailDispatcher-" + appName + "-";
+        ThreadFactory threadFactory = virtualThreadFactory(threadName);
+        if (threadFactory == null) {
+            AtomicInteger threadCount = new AtomicInteger(0);
+            threadFactory = runnable -> {
+                Thread thread = new Thread(runnable, threadName + threadCount.getAndIncrement());
+                thread.setDaemon(true);
+                return thread;
+            };
+        }
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize), threadFactory);
+        executor.prestartAllCoreThreads();
+    }
+
+    /**
+     * Stops accepting emails and waits for the queued emails to be sent.
+     *
+     * @param timeoutMillis how long to wait for the queued emails
+     */
+    void stop(long timeoutMillis) {
+        if (executor == null) {
+            return;
+        }
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                owner.addWarn("EmailDispatcher: " + executor.getQueue().size() + " emails of app=" + appName
+                        + " still queued after " + timeoutMillis + "ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        executor = null;
+    }
+
+    /**
+     * Queues an email without waiting for it to be sent. The email is dropped if the circuit breaker is open,
+     * a rate limit is reached, the queue is full or the dispatcher is stopped.
+     *
+     * @param from    the sender's email address
+     * @param to      the recipient's email address
+     * @param subject the email subject
+     * @param body    the email body
+     * @return true if the email was queued
+     */
+    boolean dispatch(String from, String to, String subject, String body) {
+        if (breaker != null && breaker.isRejecting(System.currentTimeMillis())) {
+            LoggerMonitor.trackEmailShortCircuited(appName);
+            return false;
+        }
+        if (!withinRateLimits()) {
+            return false;
+        }
+        ThreadPoolExecutor emailExecutor = executor;
+        if (emailExecutor != null) {
+            try {
+                emailExecutor.execute(() -> send(from, to, subject, body));
+                return true;
+            } catch (RejectedExecutionException e) {
+                // Full queue or shut down; dropped below
+            }
+        }
+        LoggerMonitor.trackEmailDropped(appName);
+        if (!overflowing) {
+            overflowing = true;
+            owner.addWarn("EmailDispatcher: Email queue of app=" + appName + " is full or stopped; dropping emails");
+        }
+        return false;
+    }
+
+    /**
+     * Takes a token from the application's rate limit and from the global one.
+     *
+     * @return true if the email may be queued
+     */
+    private boolean withinRateLimits() {
+        boolean global = false;
+        if (rateLimiter == null || rateLimiter.tryAcquire()) {
+            EmailRateLimiter globalLimiter = EmailRateLimiter.global();
+            if (globalLimiter == null || globalLimiter.tryAcquire()) {
+                rateLimited = false;
+                return true;
+            }
+            global = true;
+        }
+        LoggerMonitor.trackEmailRateLimited(appName, global);
+        if (!rateLimited) {
+            rateLimited = true;
+            owner.addWarn("EmailDispatcher: " + (global ? "Global email rate limit" : "Email rate limit of app=" + appName)
+                    + " reached; dropping emails");
+        }
+        return false;
+    }
+
+    private void send(String from, String to, String subject, String body) {
+        if (breaker != null && !breaker.allowRequest(System.currentTimeMillis())) {
+            // The breaker opened while the email was queued
+            LoggerMonitor.trackEmailShortCircuited(appName);
+        } else {
+            long start = System.nanoTime();
+            try {
+                emailService.sendEmail(from, to, subject, body);
+                LoggerMonitor.trackEmailSent(appName, System.nanoTime() - start);
+                if (breaker != null) {
+                    breaker.recordSuccess();
+                }
+                logger.debug("EmailDispatcher: Sent email '{}' for app={}", subject, appName);
+            } catch (Exception e) {
+                LoggerMonitor.trackEmailFailed(appName);
+                if (breaker != null && breaker.recordFailure(System.currentTimeMillis())) {
+                    logger.error("EmailDispatcher: Failed to send email '{}' for app={}; pausing emails for {}ms",
+                            subject, appName, breaker.getOpenMillis(), e);
+                } else {
+                    logger.error("EmailDispatcher: Failed to send email '{}' for app={}", subject, appName, e);
+                }
+            }
+        }
+        ThreadPoolExecutor emailExecutor = executor;
+        if (overflowing && (emailExecutor == null || emailExecutor.getQueue().isEmpty())) {
+            overflowing = false;
+        }
+    }
+
+    /**
+     * Creates a factory for named virtual threads through reflection, since they need Java 21.
+     *
+     * @param namePrefix the prefix of the thread names
+     * @return the factory, or null if the JVM does not support virtual threads
+     */
+    private static ThreadFactory virtualThreadFactory(String namePrefix) {
+        try {
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, namePrefix, 0L);
+            return (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+}
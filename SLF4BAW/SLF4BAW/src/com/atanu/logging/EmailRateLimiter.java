@@ -0,0 +1,88 @@
+package com.atanu.logging;
+
+/**
+ * Token bucket limiting how many emails are sent. The bucket holds up to {@code burst} tokens and refills at
+ * {@code emailsPerMinute}; each email takes one token, and an email finding the bucket empty is dropped.
+ * <p>
+ * Each {@link EmailDispatcher} can have its own limiter, and one global limiter, set with
+ * {@link EmailAppender#setGlobalRateLimit(int, int)}, is shared by the emails of all applications.
+ */
+class EmailRateLimiter {
+    private static volatile EmailRateLimiter global;
+
+    private final int emailsPerMinute;
+    private final int burst;
+    private final double tokensPerNano;
+    private double tokens;
+    private long lastRefillNanos;
+
+    /**
+     * Creates a limiter with a full bucket.
+     *
+     * @param emailsPerMinute the sustained rate
+     * @param burst           how many emails can be sent at once after a quiet period
+     */
+    EmailRateLimiter(int emailsPerMinute, int burst) {
+        this.emailsPerMinute = emailsPerMinute;
+        this.burst = Math.max(1, burst);
+        this.tokensPerNano = emailsPerMinute / 60_000_000_000.0;
+        this.tokens = this.burst;
+        this.lastRefillNanos = System.nanoTime();
+    }
+
+    /**
+     * Takes a token if one is available.
+     *
+     * @return true if the email may be sent
+     */
+    synchronized boolean tryAcquire() {
+        refill();
+        if (tokens < 1) {
+            return false;
+        }
+        tokens--;
+        return true;
+    }
+
+    /**
+     * Returns the tokens currently in the bucket.
+     *
+     * @return the number of emails that can be sent right away
+     */
+    synchronized int availableTokens() {
+        refill();
+        return (int) tokens;
+    }
+
+    int getEmailsPerMinute() {
+        return emailsPerMinute;
+    }
+
+    int getBurst() {
+        return burst;
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        tokens = Math.min(burst, tokens + (now - lastRefillNanos) * tokensPerNano);
+        lastRefillNanos = now;
+    }
+
+    /**
+     * Returns the limiter shared by all applications.
+     *
+     * @return the global limiter, or null if the emails of all applications together are not limited
+     */
+    static EmailRateLimiter global() {
+        return global;
+    }
+
+    /**
+     * Replaces the limiter shared by all applications.
+     *
+     * @param limiter the new global limiter, or null to remove the global limit
+     */
+    static void setGlobal(EmailRateLimiter limiter) {
+        global = limiter;
+    }
+}
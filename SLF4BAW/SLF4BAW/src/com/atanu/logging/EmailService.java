@@ -2,16 +2,50 @@ package com.atanu.logging;
 
 import javax.mail.*;
 import javax.mail.internet.*;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
 import java.util.Properties;
 
 /**
  * Service class responsible for sending emails using JavaMail API.
+ * <p>
+ * The mail Session is created once, and connected Transports are kept in a small pool, so a burst of emails reuses
+ * authenticated connections instead of connecting, negotiating TLS and authenticating for every message.
+ * The most recently used connection is reused first. Connections that were idle for a few seconds are checked
+ * with a NOOP before they are reused, and connections idle for longer than the idle timeout are closed.
  */
 public class EmailService {
+    static final long DEFAULT_IDLE_TIMEOUT_MILLIS = 60_000;
+
+    // Connections used more recently than this are reused without asking the server whether they are still open
+    private static final long HEALTH_CHECK_IDLE_MILLIS = 5_000;
+
     private final String smtpHost;
     private final int smtpPort;
     private final String smtpUsername;
     private final String smtpPassword;
+    private final long timeoutMillis;
+    private final int maxIdleConnections;
+    private final long idleTimeoutMillis;
+    private final Session session;
+    // Most recently used first
+    private final Deque<PooledTransport> idleTransports = new ArrayDeque<>();
+    private boolean closed;
+
+    /**
+     * A connected Transport and when it was last used.
+     */
+    private static final class PooledTransport {
+        private final Transport transport;
+        private long lastUsedMillis;
+        private boolean reused;
+
+        private PooledTransport(Transport transport) {
+            this.transport = transport;
+        }
+    }
 
     /**
      * Initializes the EmailService with SMTP configurations.
@@ -22,40 +56,78 @@ public class EmailService {
      * @param smtpPassword the SMTP password (optional)
      */
     public EmailService(String smtpHost, int smtpPort, String smtpUsername, String smtpPassword) {
+        this(smtpHost, smtpPort, smtpUsername, smtpPassword, 0);
+    }
+
+    /**
+     * Initializes the EmailService with SMTP configurations and a timeout for talking to the SMTP server.
+     *
+     * @param smtpHost      the SMTP server host
+     * @param smtpPort      the SMTP server port
+     * @param smtpUsername  the SMTP username (optional)
+     * @param smtpPassword  the SMTP password (optional)
+     * @param timeoutMillis the timeout for connecting and for each read and write, or 0 to wait indefinitely
+     */
+    public EmailService(String smtpHost, int smtpPort, String smtpUsername, String smtpPassword, long timeoutMillis) {
+        this(smtpHost, smtpPort, smtpUsername, smtpPassword, timeoutMillis, 1, DEFAULT_IDLE_TIMEOUT_MILLIS);
+    }
+
+    /**
+     * Initializes the EmailService with SMTP configurations, a timeout and the size of the connection pool.
+     *
+     * @param smtpHost           the SMTP server host
+     * @param smtpPort           the SMTP server port
+     * @param smtpUsername       the SMTP username (optional)
+     * @param smtpPassword       the SMTP password (optional)
+     * @param timeoutMillis      the timeout for connecting and for each read and write, or 0 to wait indefinitely
+     * @param maxIdleConnections how many connections are kept open between emails
+     * @param idleTimeoutMillis  how long a connection is kept open without being used
+     */
+    public EmailService(String smtpHost, int smtpPort, String smtpUsername, String smtpPassword, long timeoutMillis,
+                        int maxIdleConnections, long idleTimeoutMillis) {
         this.smtpHost = smtpHost;
         this.smtpPort = smtpPort;
         this.smtpUsername = smtpUsername;
         this.smtpPassword = smtpPassword;
+        this.timeoutMillis = timeoutMillis;
+        this.maxIdleConnections = maxIdleConnections;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.session = createSession();
     }
 
-    /**
-     * Sends an email with the specified parameters.
-     *
-     * @param from    the sender's email address
-     * @param to      the recipient's email address
-     * @param subject the email subject
-     * @param body    the email body
-     * @throws MessagingException if sending the email fails
-     */
-    public void sendEmail(String from, String to, String subject, String body) throws MessagingException {
+    private Session createSession() {
         Properties props = new Properties();
         props.put("mail.smtp.auth", smtpUsername != null && !smtpUsername.isEmpty());
         props.put("mail.smtp.starttls.enable", "true");
         props.put("mail.smtp.host", smtpHost);
         props.put("mail.smtp.port", String.valueOf(smtpPort));
+        if (timeoutMillis > 0) {
+            props.put("mail.smtp.connectiontimeout", String.valueOf(timeoutMillis));
+            props.put("mail.smtp.timeout", String.valueOf(timeoutMillis));
+            props.put("mail.smtp.writetimeout", String.valueOf(timeoutMillis));
+        }
 
-        Session session;
         if (smtpUsername != null && !smtpUsername.isEmpty()) {
             Authenticator auth = new Authenticator() {
                 protected PasswordAuthentication getPasswordAuthentication() {
                     return new PasswordAuthentication(smtpUsername, smtpPassword);
                 }
             };
-            session = Session.getInstance(props, auth);
-        } else {
-            session = Session.getInstance(props);
+            return Session.getInstance(props, auth);
         }
+        return Session.getInstance(props);
+    }
 
+    /**
+     * Sends an email with the specified parameters.
+     *
+     * @param from    the sender's email address
+     * @param to      the recipient's email address
+     * @param subject the email subject
+     * @param body    the email body
+     * @throws MessagingException if sending the email fails
+     */
+    public void sendEmail(String from, String to, String subject, String body) throws MessagingException {
         Message message = new MimeMessage(session);
         message.setFrom(new InternetAddress(from));
         message.setRecipients(
@@ -64,7 +136,120 @@ public class EmailService {
 
         // Set email content
         message.setText(body);
+        message.saveChanges();
+
+        send(message);
+    }
 
-        Transport.send(message);
+    /**
+     * Sends a complete message over a pooled connection. If a reused connection fails, the server may have closed
+     * it, so the message is sent once more over a new connection.
+     *
+     * @param message the message, with its headers updated
+     * @throws MessagingException if sending the message fails
+     */
+    void send(Message message) throws MessagingException {
+        PooledTransport pooled = borrow();
+        try {
+            sendOver(pooled, message);
+        } catch (MessagingException e) {
+            if (!pooled.reused || e instanceof SendFailedException) {
+                throw e;
+            }
+            sendOver(connect(), message);
+        }
+    }
+
+    private void sendOver(PooledTransport pooled, Message message) throws MessagingException {
+        try {
+            pooled.transport.sendMessage(message, message.getAllRecipients());
+        } catch (MessagingException | RuntimeException e) {
+            closeQuietly(pooled);
+            throw e;
+        }
+        release(pooled);
+    }
+
+    /**
+     * Takes the most recently used open connection from the pool, or opens a new one.
+     *
+     * @return a connected Transport, used by the calling thread only until it is released
+     * @throws MessagingException if a new connection cannot be opened
+     */
+    private PooledTransport borrow() throws MessagingException {
+        while (true) {
+            PooledTransport pooled;
+            synchronized (idleTransports) {
+                pooled = idleTransports.pollFirst();
+            }
+            if (pooled == null) {
+                return connect();
+            }
+            long idleMillis = System.currentTimeMillis() - pooled.lastUsedMillis;
+            if (idleMillis > idleTimeoutMillis
+                    || (idleMillis > HEALTH_CHECK_IDLE_MILLIS && !pooled.transport.isConnected())) {
+                closeQuietly(pooled);
+                continue;
+            }
+            pooled.reused = true;
+            return pooled;
+        }
+    }
+
+    private PooledTransport connect() throws MessagingException {
+        Transport transport = session.getTransport("smtp");
+        transport.connect();
+        return new PooledTransport(transport);
+    }
+
+    /**
+     * Returns a connection to the pool, and closes the connections that have been idle for too long.
+     *
+     * @param pooled the connection, still open
+     */
+    private void release(PooledTransport pooled) {
+        long now = System.currentTimeMillis();
+        pooled.lastUsedMillis = now;
+        List<PooledTransport> expired = null;
+        synchronized (idleTransports) {
+            if (!closed && idleTransports.size() < maxIdleConnections) {
+                idleTransports.addFirst(pooled);
+                pooled = null;
+            }
+            PooledTransport oldest;
+            while ((oldest = idleTransports.peekLast()) != null && now - oldest.lastUsedMillis > idleTimeoutMillis) {
+                if (expired == null) {
+                    expired = new ArrayList<>();
+                }
+                expired.add(idleTransports.pollLast());
+            }
+        }
+        if (pooled != null) {
+            closeQuietly(pooled);
+        }
+        if (expired != null) {
+            expired.forEach(EmailService::closeQuietly);
+        }
+    }
+
+    /**
+     * Closes the pooled connections. Emails sent afterwards use a new connection each.
+     */
+    public void close() {
+        List<PooledTransport> open;
+        synchronized (idleTransports) {
+            closed = true;
+            open = new ArrayList<>(idleTransports);
+            idleTransports.clear();
+        }
+        open.forEach(EmailService::closeQuietly);
+    }
+
+    private static void closeQuietly(PooledTransport pooled) {
+        try {
+            pooled.transport.close();
+        } catch (MessagingException e) {
+            // The connection is discarded either way
+        }
     }
-}
\ No newline at end of file
+}
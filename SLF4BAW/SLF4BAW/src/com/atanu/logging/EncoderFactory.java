@@ -0,0 +1,24 @@
+package com.atanu.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.encoder.Encoder;
+
+/**
+ * Factory that supplies DynamicAppender with a dedicated encoder for every log file it opens.
+ * <p>
+ * Logback encoders are stateful, so each RollingFileAppender gets its own instance instead of sharing one.
+ */
+public interface EncoderFactory {
+
+    /**
+     * Creates and starts an encoder for the log file of the given application and level.
+     *
+     * @param context the LoggerContext
+     * @param appName the name of the application
+     * @param level   the log level of the file
+     * @return the started encoder
+     */
+    Encoder<ILoggingEvent> createEncoder(LoggerContext context, String appName, Level level);
+}
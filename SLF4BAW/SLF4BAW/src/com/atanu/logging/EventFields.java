@@ -0,0 +1,127 @@
+package com.atanu.logging;
+
+import java.util.Arrays;
+
+/**
+ * Structured key-value fields of a logging event, kept in parallel arrays instead of a Map.
+ * Primitive values are stored as their kind and bits, like the arguments of {@link ExtendedLoggingEvent},
+ * so adding them does not box.
+ * <p>
+ * An instance is reused by the {@link LogEventBuilder} of a thread. Every {@link #clear()} starts a new generation,
+ * which lets an event notice that the fields it was created with have been replaced.
+ */
+final class EventFields {
+    static final byte OBJECT = 0;
+
+    private static final int INITIAL_CAPACITY = 8;
+
+    private String[] keys;
+    private byte[] kinds;
+    private long[] bits;
+    private Object[] objects;
+    private int size;
+    private int generation;
+
+    EventFields() {
+        this(INITIAL_CAPACITY);
+    }
+
+    private EventFields(int capacity) {
+        keys = new String[capacity];
+        kinds = new byte[capacity];
+        bits = new long[capacity];
+        objects = new Object[capacity];
+    }
+
+    /**
+     * Adds a field with a primitive value.
+     *
+     * @param key   the name of the field
+     * @param kind  the kind of the value, one of the kinds of {@link ExtendedLoggingEvent}
+     * @param value the bits of the value
+     */
+    void add(String key, byte kind, long value) {
+        int index = nextIndex();
+        keys[index] = key;
+        kinds[index] = kind;
+        bits[index] = value;
+    }
+
+    /**
+     * Adds a field with an object value.
+     *
+     * @param key   the name of the field
+     * @param value the value, may be null
+     */
+    void add(String key, Object value) {
+        int index = nextIndex();
+        keys[index] = key;
+        kinds[index] = OBJECT;
+        objects[index] = value;
+    }
+
+    private int nextIndex() {
+        if (size == keys.length) {
+            int capacity = size * 2;
+            keys = Arrays.copyOf(keys, capacity);
+            kinds = Arrays.copyOf(kinds, capacity);
+            bits = Arrays.copyOf(bits, capacity);
+            objects = Arrays.copyOf(objects, capacity);
+        }
+        return size++;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    int generation() {
+        return generation;
+    }
+
+    /**
+     * Appends the fields to a builder as space-separated {@code key=value} pairs, in the order they were added.
+     *
+     * @param builder      the builder to append to
+     * @param leadingSpace whether to separate the first field from text already in the builder
+     */
+    void appendTo(StringBuilder builder, boolean leadingSpace) {
+        for (int i = 0; i < size; i++) {
+            if (i > 0 || leadingSpace) {
+                builder.append(' ');
+            }
+            builder.append(keys[i]).append('=');
+            if (kinds[i] == OBJECT) {
+                builder.append(objects[i]);
+            } else {
+                ExtendedLoggingEvent.appendValue(builder, kinds[i], bits[i]);
+            }
+        }
+    }
+
+    /**
+     * Copies the fields, for an event that outlives the builder that created it.
+     *
+     * @return a copy with the same fields and generation
+     */
+    EventFields copy() {
+        EventFields copy = new EventFields(Math.max(size, 1));
+        System.arraycopy(keys, 0, copy.keys, 0, size);
+        System.arraycopy(kinds, 0, copy.kinds, 0, size);
+        System.arraycopy(bits, 0, copy.bits, 0, size);
+        System.arraycopy(objects, 0, copy.objects, 0, size);
+        copy.size = size;
+        copy.generation = generation;
+        return copy;
+    }
+
+    /**
+     * Removes all fields and starts a new generation. Object values are released so they can be collected.
+     */
+    void clear() {
+        Arrays.fill(objects, 0, size, null);
+        Arrays.fill(keys, 0, size, null);
+        size = 0;
+        generation++;
+    }
+}
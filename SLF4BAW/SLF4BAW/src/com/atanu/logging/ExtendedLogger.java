@@ -1,13 +1,32 @@
 package com.atanu.logging;
 
+import ch.qos.logback.classic.Level;
 import org.slf4j.Logger;
 import org.slf4j.Marker;
 
+import java.util.Collections;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.function.Supplier;
+
 /**
  * ExtendedLogger wraps the SLF4J Logger and provides additional methods for sending email notifications.
+ * <p>
+ * The effective level of the wrapped logback logger is mirrored in a volatile field, so a call below the level
+ * returns after a single volatile read, before its arguments are passed on. The mirror is refreshed whenever a
+ * level in the logging context changes, for every instance, whether it came from {@link ApplicationLoggerFactory}
+ * or was constructed directly. Logback turbo filters are not consulted for calls below the level.
  */
 public class ExtendedLogger implements Logger {
+    // Every instance wrapping a logback logger, held weakly so that loggers dropped by their callers can be collected
+    private static final Set<ExtendedLogger> INSTANCES = Collections.synchronizedSet(
+            Collections.newSetFromMap(new WeakHashMap<>()));
+
     private final Logger logger;
+    // The wrapped logger as a logback logger, or null; primitive arguments are only kept unboxed with logback
+    private final ch.qos.logback.classic.Logger logbackLogger;
+    // Integer value of the effective logback level; MIN_VALUE when the wrapped logger is not a logback logger
+    private volatile int levelThreshold;
     
     /**
      * Constructs an ExtendedLogger wrapping the provided SLF4J Logger.
@@ -16,6 +35,30 @@ public class ExtendedLogger implements Logger {
      */
     public ExtendedLogger(Logger logger) {
         this.logger = logger;
+        this.logbackLogger = logger instanceof ch.qos.logback.classic.Logger
+                ? (ch.qos.logback.classic.Logger) logger
+                : null;
+        refreshLevel();
+        if (logbackLogger != null) {
+            INSTANCES.add(this);
+            ApplicationLoggerFactory.installLevelListener(logbackLogger.getLoggerContext());
+        }
+    }
+
+    /**
+     * Reads the effective level of the wrapped logger again. Called after a level in the logging context changed.
+     */
+    void refreshLevel() {
+        levelThreshold = logbackLogger != null ? logbackLogger.getEffectiveLevel().toInt() : Integer.MIN_VALUE;
+    }
+
+    /**
+     * Reads the effective level of every ExtendedLogger again.
+     */
+    static void refreshLevels() {
+        synchronized (INSTANCES) {
+            INSTANCES.forEach(ExtendedLogger::refreshLevel);
+        }
     }
     
     // Delegate all Logger methods to the underlying logger
@@ -27,304 +70,1358 @@ public class ExtendedLogger implements Logger {
 
     @Override
     public boolean isTraceEnabled() {
-        return logger.isTraceEnabled();
+        return levelThreshold <= Level.TRACE_INT && logger.isTraceEnabled();
     }
 
     @Override
     public void trace(String msg) {
-        logger.trace(msg);
+        if (levelThreshold <= Level.TRACE_INT) {
+            logger.trace(msg);
+        }
     }
 
     @Override
     public void trace(String format, Object arg) {
-        logger.trace(format, arg);
+        if (levelThreshold <= Level.TRACE_INT) {
+            logger.trace(format, arg);
+        }
     }
 
     @Override
     public void trace(String format, Object arg1, Object arg2) {
-        logger.trace(format, arg1, arg2);
+        if (levelThreshold <= Level.TRACE_INT) {
+            logger.trace(format, arg1, arg2);
+        }
     }
 
     @Override
     public void trace(String format, Object... arguments) {
-        logger.trace(format, arguments);
+        if (levelThreshold <= Level.TRACE_INT) {
+            logger.trace(format, arguments);
+        }
     }
 
     @Override
     public void trace(String msg, Throwable t) {
-        logger.trace(msg, t);
+        if (levelThreshold <= Level.TRACE_INT) {
+            logger.trace(msg, t);
+        }
     }
 
     @Override
     public boolean isDebugEnabled() {
-        return logger.isDebugEnabled();
+        return levelThreshold <= Level.DEBUG_INT && logger.isDebugEnabled();
     }
 
     @Override
     public void debug(String msg) {
-        logger.debug(msg);
+        if (levelThreshold <= Level.DEBUG_INT) {
+            logger.debug(msg);
+        }
     }
 
     @Override
     public void debug(String format, Object arg) {
-        logger.debug(format, arg);
+        if (levelThreshold <= Level.DEBUG_INT) {
+            logger.debug(format, arg);
+        }
     }
 
     @Override
     public void debug(String format, Object arg1, Object arg2) {
-        logger.debug(format, arg1, arg2);
+        if (levelThreshold <= Level.DEBUG_INT) {
+            logger.debug(format, arg1, arg2);
+        }
     }
 
     @Override
     public void debug(String format, Object... arguments) {
-        logger.debug(format, arguments);
+        if (levelThreshold <= Level.DEBUG_INT) {
+            logger.debug(format, arguments);
+        }
     }
 
     @Override
     public void debug(String msg, Throwable t) {
-        logger.debug(msg, t);
+        if (levelThreshold <= Level.DEBUG_INT) {
+            logger.debug(msg, t);
+        }
     }
 
     @Override
     public boolean isInfoEnabled() {
-        return logger.isInfoEnabled();
+        return levelThreshold <= Level.INFO_INT && logger.isInfoEnabled();
     }
 
     @Override
     public void info(String msg) {
-        logger.info(msg);
+        if (levelThreshold <= Level.INFO_INT) {
+            logger.info(msg);
+        }
     }
 
     @Override
     public void info(String format, Object arg) {
-        logger.info(format, arg);
+        if (levelThreshold <= Level.INFO_INT) {
+            logger.info(format, arg);
+        }
     }
 
     @Override
     public void info(String format, Object arg1, Object arg2) {
-        logger.info(format, arg1, arg2);
+        if (levelThreshold <= Level.INFO_INT) {
+            logger.info(format, arg1, arg2);
+        }
     }
 
     @Override
     public void info(String format, Object... arguments) {
-        logger.info(format, arguments);
+        if (levelThreshold <= Level.INFO_INT) {
+            logger.info(format, arguments);
+        }
     }
 
     @Override
     public void info(String msg, Throwable t) {
-        logger.info(msg, t);
+        if (levelThreshold <= Level.INFO_INT) {
+            logger.info(msg, t);
+        }
     }
 
     @Override
     public boolean isWarnEnabled() {
-        return logger.isWarnEnabled();
+        return levelThreshold <= Level.WARN_INT && logger.isWarnEnabled();
     }
 
     @Override
     public void warn(String msg) {
-        logger.warn(msg);
+        if (levelThreshold <= Level.WARN_INT) {
+            logger.warn(msg);
+        }
     }
 
     @Override
     public void warn(String format, Object arg) {
-        logger.warn(format, arg);
+        if (levelThreshold <= Level.WARN_INT) {
+            logger.warn(format, arg);
+        }
     }
 
     @Override
     public void warn(String format, Object arg1, Object arg2) {
-        logger.warn(format, arg1, arg2);
+        if (levelThreshold <= Level.WARN_INT) {
+            logger.warn(format, arg1, arg2);
+        }
     }
 
     @Override
     public void warn(String format, Object... arguments) {
-        logger.warn(format, arguments);
+        if (levelThreshold <= Level.WARN_INT) {
+            logger.warn(format, arguments);
+        }
     }
 
     @Override
     public void warn(String msg, Throwable t) {
-        logger.warn(msg, t);
+        if (levelThreshold <= Level.WARN_INT) {
+            logger.warn(msg, t);
+        }
     }
 
     @Override
     public boolean isErrorEnabled() {
-        return logger.isErrorEnabled();
+        return levelThreshold <= Level.ERROR_INT && logger.isErrorEnabled();
     }
 
     @Override
     public void error(String msg) {
-        logger.error(msg);
+        if (levelThreshold <= Level.ERROR_INT) {
+            logger.error(msg);
+        }
     }
 
     @Override
     public void error(String format, Object arg) {
-        logger.error(format, arg);
+        if (levelThreshold <= Level.ERROR_INT) {
+            logger.error(format, arg);
+        }
     }
 
     @Override
     public void error(String format, Object arg1, Object arg2) {
-        logger.error(format, arg1, arg2);
+        if (levelThreshold <= Level.ERROR_INT) {
+            logger.error(format, arg1, arg2);
+        }
     }
 
     @Override
     public void error(String format, Object... arguments) {
-        logger.error(format, arguments);
+        if (levelThreshold <= Level.ERROR_INT) {
+            logger.error(format, arguments);
+        }
     }
 
     @Override
     public void error(String msg, Throwable t) {
-        logger.error(msg, t);
+        if (levelThreshold <= Level.ERROR_INT) {
+            logger.error(msg, t);
+        }
     }
 
     // Implement Marker-based methods
 
     @Override
     public boolean isTraceEnabled(Marker marker) {
-        return logger.isTraceEnabled(marker);
+        return levelThreshold <= Level.TRACE_INT && logger.isTraceEnabled(marker);
     }
 
     @Override
     public void trace(Marker marker, String msg) {
-        logger.trace(marker, msg);
+        if (levelThreshold <= Level.TRACE_INT) {
+            logger.trace(marker, msg);
+        }
     }
 
     @Override
     public void trace(Marker marker, String format, Object arg) {
-        logger.trace(marker, format, arg);
+        if (levelThreshold <= Level.TRACE_INT) {
+            logger.trace(marker, format, arg);
+        }
     }
 
     @Override
     public void trace(Marker marker, String format, Object arg1, Object arg2) {
-        logger.trace(marker, format, arg1, arg2);
+        if (levelThreshold <= Level.TRACE_INT) {
+            logger.trace(marker, format, arg1, arg2);
+        }
     }
 
     @Override
     public void trace(Marker marker, String format, Object... arguments) {
-        logger.trace(marker, format, arguments);
+        if (levelThreshold <= Level.TRACE_INT) {
+            logger.trace(marker, format, arguments);
+        }
     }
 
     @Override
     public void trace(Marker marker, String msg, Throwable t) {
-        logger.trace(marker, msg, t);
+        if (levelThreshold <= Level.TRACE_INT) {
+            logger.trace(marker, msg, t);
+        }
     }
 
     @Override
     public boolean isDebugEnabled(Marker marker) {
-        return logger.isDebugEnabled(marker);
+        return levelThreshold <= Level.DEBUG_INT && logger.isDebugEnabled(marker);
     }
 
     @Override
     public void debug(Marker marker, String msg) {
-        logger.debug(marker, msg);
+        if (levelThreshold <= Level.DEBUG_INT) {
+            logger.debug(marker, msg);
+        }
     }
 
     @Override
     public void debug(Marker marker, String format, Object arg) {
-        logger.debug(marker, format, arg);
+        if (levelThreshold <= Level.DEBUG_INT) {
+            logger.debug(marker, format, arg);
+        }
     }
 
     @Override
     public void debug(Marker marker, String format, Object arg1, Object arg2) {
-        logger.debug(marker, format, arg1, arg2);
+        if (levelThreshold <= Level.DEBUG_INT) {
+            logger.debug(marker, format, arg1, arg2);
+        }
     }
 
     @Override
     public void debug(Marker marker, String format, Object... arguments) {
-        logger.debug(marker, format, arguments);
+        if (levelThreshold <= Level.DEBUG_INT) {
+            logger.debug(marker, format, arguments);
+        }
     }
 
     @Override
     public void debug(Marker marker, String msg, Throwable t) {
-        logger.debug(marker, msg, t);
+        if (levelThreshold <= Level.DEBUG_INT) {
+            logger.debug(marker, msg, t);
+        }
     }
 
     @Override
     public boolean isInfoEnabled(Marker marker) {
-        return logger.isInfoEnabled(marker);
+        return levelThreshold <= Level.INFO_INT && logger.isInfoEnabled(marker);
     }
 
     @Override
     public void info(Marker marker, String msg) {
-        logger.info(marker, msg);
+        if (levelThreshold <= Level.INFO_INT) {
+            logger.info(marker, msg);
+        }
     }
 
     @Override
     public void info(Marker marker, String format, Object arg) {
-        logger.info(marker, format, arg);
+        if (levelThreshold <= Level.INFO_INT) {
+            logger.info(marker, format, arg);
+        }
     }
 
     @Override
     public void info(Marker marker, String format, Object arg1, Object arg2) {
-        logger.info(marker, format, arg1, arg2);
+        if (levelThreshold <= Level.INFO_INT) {
+            logger.info(marker, format, arg1, arg2);
+        }
     }
 
     @Override
     public void info(Marker marker, String format, Object... arguments) {
-        logger.info(marker, format, arguments);
+        if (levelThreshold <= Level.INFO_INT) {
+            logger.info(marker, format, arguments);
+        }
     }
 
     @Override
     public void info(Marker marker, String msg, Throwable t) {
-        logger.info(marker, msg, t);
+        if (levelThreshold <= Level.INFO_INT) {
+            logger.info(marker, msg, t);
+        }
     }
 
     @Override
     public boolean isWarnEnabled(Marker marker) {
-        return logger.isWarnEnabled(marker);
+        return levelThreshold <= Level.WARN_INT && logger.isWarnEnabled(marker);
     }
 
     @Override
     public void warn(Marker marker, String msg) {
-        logger.warn(marker, msg);
+        if (levelThreshold <= Level.WARN_INT) {
+            logger.warn(marker, msg);
+        }
     }
 
     @Override
     public void warn(Marker marker, String format, Object arg) {
-        logger.warn(marker, format, arg);
+        if (levelThreshold <= Level.WARN_INT) {
+            logger.warn(marker, format, arg);
+        }
     }
 
     @Override
     public void warn(Marker marker, String format, Object arg1, Object arg2) {
-        logger.warn(marker, format, arg1, arg2);
+        if (levelThreshold <= Level.WARN_INT) {
+            logger.warn(marker, format, arg1, arg2);
+        }
     }
 
     @Override
     public void warn(Marker marker, String format, Object... arguments) {
-        logger.warn(marker, format, arguments);
+        if (levelThreshold <= Level.WARN_INT) {
+            logger.warn(marker, format, arguments);
+        }
     }
 
     @Override
     public void warn(Marker marker, String msg, Throwable t) {
-        logger.warn(marker, msg, t);
+        if (levelThreshold <= Level.WARN_INT) {
+            logger.warn(marker, msg, t);
+        }
     }
 
     @Override
     public boolean isErrorEnabled(Marker marker) {
-        return logger.isErrorEnabled(marker);
+        return levelThreshold <= Level.ERROR_INT && logger.isErrorEnabled(marker);
     }
 
     @Override
     public void error(Marker marker, String msg) {
-        logger.error(marker, msg);
+        if (levelThreshold <= Level.ERROR_INT) {
+            logger.error(marker, msg);
+        }
     }
 
     @Override
     public void error(Marker marker, String format, Object arg) {
-        logger.error(marker, format, arg);
+        if (levelThreshold <= Level.ERROR_INT) {
+            logger.error(marker, format, arg);
+        }
     }
 
     @Override
     public void error(Marker marker, String format, Object arg1, Object arg2) {
-        logger.error(marker, format, arg1, arg2);
+        if (levelThreshold <= Level.ERROR_INT) {
+            logger.error(marker, format, arg1, arg2);
+        }
     }
 
     @Override
     public void error(Marker marker, String format, Object... arguments) {
-        logger.error(marker, format, arguments);
+        if (levelThreshold <= Level.ERROR_INT) {
+            logger.error(marker, format, arguments);
+        }
     }
 
     @Override
     public void error(Marker marker, String msg, Throwable t) {
-        logger.error(marker, msg, t);
+        if (levelThreshold <= Level.ERROR_INT) {
+            logger.error(marker, msg, t);
+        }
+    }
+
+    // Primitive arguments: logged without boxing. Every combination of long, double, float and char is declared,
+    // so that no argument is widened to a type that formats differently.
+
+    public void trace(String format, long arg) {
+        if (levelThreshold <= Level.TRACE_INT) {
+            logPrimitive(Level.TRACE, format, 1, ExtendedLoggingEvent.LONG, arg, (byte) 0, 0L);
+        }
+    }
+
+    public void trace(String format, double arg) {
+        if (levelThreshold <= Level.TRACE_INT) {
+            logPrimitive(Level.TRACE, format, 1, ExtendedLoggingEvent.DOUBLE, Double.doubleToRawLongBits(arg), (byte) 0, 0L);
+        }
+    }
+
+    public void trace(String format, float arg) {
+        if (levelThreshold <= Level.TRACE_INT) {
+            logPrimitive(Level.TRACE, format, 1, ExtendedLoggingEvent.FLOAT, Float.floatToRawIntBits(arg), (byte) 0, 0L);
+        }
+    }
+
+    public void trace(String format, char arg) {
+        if (levelThreshold <= Level.TRACE_INT) {
+            logPrimitive(Level.TRACE, format, 1, ExtendedLoggingEvent.CHAR, arg, (byte) 0, 0L);
+        }
+    }
+
+    public void trace(String format, long arg1, long arg2) {
+        if (levelThreshold <= Level.TRACE_INT) {
+            logPrimitive(Level.TRACE, format, 2, ExtendedLoggingEvent.LONG, arg1, ExtendedLoggingEvent.LONG, arg2);
+        }
+    }
+
+    public void trace(String format, long arg1, double arg2) {
+        if (levelThreshold <= Level.TRACE_INT) {
+            logPrimitive(Level.TRACE, format, 2, ExtendedLoggingEvent.LONG, arg1, ExtendedLoggingEvent.DOUBLE, Double.doubleToRawLongBits(arg2));
+        }
+    }
+
+    public void trace(String format, long arg1, float arg2) {
+        if (levelThreshold <= Level.TRACE_INT) {
+            logPrimitive(Level.TRACE, format, 2, ExtendedLoggingEvent.LONG, arg1, ExtendedLoggingEvent.FLOAT, Float.floatToRawIntBits(arg2));
+        }
+    }
+
+    public void trace(String format, long arg1, char arg2) {
+        if (levelThreshold <= Level.TRACE_INT) {
+            logPrimitive(Level.TRACE, format, 2, ExtendedLoggingEvent.LONG, arg1, ExtendedLoggingEvent.CHAR, arg2);
+        }
+    }
+
+    public void trace(String format, double arg1, long arg2) {
+        if (levelThreshold <= Level.TRACE_INT) {
+            logPrimitive(Level.TRACE, format, 2, ExtendedLoggingEvent.DOUBLE, Double.doubleToRawLongBits(arg1), ExtendedLoggingEvent.LONG, arg2);
+        }
+    }
+
+    public void trace(String format, double arg1, double arg2) {
+        if (levelThreshold <= Level.TRACE_INT) {
+            logPrimitive(Level.TRACE, format, 2, ExtendedLoggingEvent.DOUBLE, Double.doubleToRawLongBits(arg1), ExtendedLoggingEvent.DOUBLE, Double.doubleToRawLongBits(arg2));
+        }
+    }
+
+    public void trace(String format, double arg1, float arg2) {
+        if (levelThreshold <= Level.TRACE_INT) {
+            logPrimitive(Level.TRACE, format, 2, ExtendedLoggingEvent.DOUBLE, Double.doubleToRawLongBits(arg1), ExtendedLoggingEvent.FLOAT, Float.floatToRawIntBits(arg2));
+        }
+    }
+
+    public void trace(String format, double arg1, char arg2) {
+        if (levelThreshold <= Level.TRACE_INT) {
+            logPrimitive(Level.TRACE, format, 2, ExtendedLoggingEvent.DOUBLE, Double.doubleToRawLongBits(arg1), ExtendedLoggingEvent.CHAR, arg2);
+        }
+    }
+
+    public void trace(String format, float arg1, long arg2) {
+        if (levelThreshold <= Level.TRACE_INT) {
+            logPrimitive(Level.TRACE, format, 2, ExtendedLoggingEvent.FLOAT, Float.floatToRawIntBits(arg1), ExtendedLoggingEvent.LONG, arg2);
+        }
+    }
+
+    public void trace(String format, float arg1, double arg2) {
+        if (levelThreshold <= Level.TRACE_INT) {
+            logPrimitive(Level.TRACE, format, 2, ExtendedLoggingEvent.FLOAT, Float.floatToRawIntBits(arg1), ExtendedLoggingEvent.DOUBLE, Double.doubleToRawLongBits(arg2));
+        }
+    }
+
+    public void trace(String format, float arg1, float arg2) {
+        if (levelThreshold <= Level.TRACE_INT) {
+            logPrimitive(Level.TRACE, format, 2, ExtendedLoggingEvent.FLOAT, Float.floatToRawIntBits(arg1), ExtendedLoggingEvent.FLOAT, Float.floatToRawIntBits(arg2));
+        }
+    }
+
+    public void trace(String format, float arg1, char arg2) {
+        if (levelThreshold <= Level.TRACE_INT) {
+            logPrimitive(Level.TRACE, format, 2, ExtendedLoggingEvent.FLOAT, Float.floatToRawIntBits(arg1), ExtendedLoggingEvent.CHAR, arg2);
+        }
+    }
+
+    public void trace(String format, char arg1, long arg2) {
+        if (levelThreshold <= Level.TRACE_INT) {
+            logPrimitive(Level.TRACE, format, 2, ExtendedLoggingEvent.CHAR, arg1, ExtendedLoggingEvent.LONG, arg2);
+        }
+    }
+
+    public void trace(String format, char arg1, double arg2) {
+        if (levelThreshold <= Level.TRACE_INT) {
+            logPrimitive(Level.TRACE, format, 2, ExtendedLoggingEvent.CHAR, arg1, ExtendedLoggingEvent.DOUBLE, Double.doubleToRawLongBits(arg2));
+        }
+    }
+
+    public void trace(String format, char arg1, float arg2) {
+        if (levelThreshold <= Level.TRACE_INT) {
+            logPrimitive(Level.TRACE, format, 2, ExtendedLoggingEvent.CHAR, arg1, ExtendedLoggingEvent.FLOAT, Float.floatToRawIntBits(arg2));
+        }
+    }
+
+    public void trace(String format, char arg1, char arg2) {
+        if (levelThreshold <= Level.TRACE_INT) {
+            logPrimitive(Level.TRACE, format, 2, ExtendedLoggingEvent.CHAR, arg1, ExtendedLoggingEvent.CHAR, arg2);
+        }
+    }
+
+    public void debug(String format, long arg) {
+        if (levelThreshold <= Level.DEBUG_INT) {
+            logPrimitive(Level.DEBUG, format, 1, ExtendedLoggingEvent.LONG, arg, (byte) 0, 0L);
+        }
+    }
+
+    public void debug(String format, double arg) {
+        if (levelThreshold <= Level.DEBUG_INT) {
+            logPrimitive(Level.DEBUG, format, 1, ExtendedLoggingEvent.DOUBLE, Double.doubleToRawLongBits(arg), (byte) 0, 0L);
+        }
+    }
+
+    public void debug(String format, float arg) {
+        if (levelThreshold <= Level.DEBUG_INT) {
+            logPrimitive(Level.DEBUG, format, 1, ExtendedLoggingEvent.FLOAT, Float.floatToRawIntBits(arg), (byte) 0, 0L);
+        }
+    }
+
+    public void debug(String format, char arg) {
+        if (levelThreshold <= Level.DEBUG_INT) {
+            logPrimitive(Level.DEBUG, format, 1, ExtendedLoggingEvent.CHAR, arg, (byte) 0, 0L);
+        }
+    }
+
+    public void debug(String format, long arg1, long arg2) {
+        if (levelThreshold <= Level.DEBUG_INT) {
+            logPrimitive(Level.DEBUG, format, 2, ExtendedLoggingEvent.LONG, arg1, ExtendedLoggingEvent.LONG, arg2);
+        }
+    }
+
+    public void debug(String format, long arg1, double arg2) {
+        if (levelThreshold <= Level.DEBUG_INT) {
+            logPrimitive(Level.DEBUG, format, 2, ExtendedLoggingEvent.LONG, arg1, ExtendedLoggingEvent.DOUBLE, Double.doubleToRawLongBits(arg2));
+        }
+    }
+
+    public void debug(String format, long arg1, float arg2) {
+        if (levelThreshold <= Level.DEBUG_INT) {
+            logPrimitive(Level.DEBUG, format, 2, ExtendedLoggingEvent.LONG, arg1, ExtendedLoggingEvent.FLOAT, Float.floatToRawIntBits(arg2));
+        }
+    }
+
+    public void debug(String format, long arg1, char arg2) {
+        if (levelThreshold <= Level.DEBUG_INT) {
+            logPrimitive(Level.DEBUG, format, 2, ExtendedLoggingEvent.LONG, arg1, ExtendedLoggingEvent.CHAR, arg2);
+        }
+    }
+
+    public void debug(String format, double arg1, long arg2) {
+        if (levelThreshold <= Level.DEBUG_INT) {
+            logPrimitive(Level.DEBUG, format, 2, ExtendedLoggingEvent.DOUBLE, Double.doubleToRawLongBits(arg1), ExtendedLoggingEvent.LONG, arg2);
+        }
+    }
+
+    public void debug(String format, double arg1, double arg2) {
+        if (levelThreshold <= Level.DEBUG_INT) {
+            logPrimitive(Level.DEBUG, format, 2, ExtendedLoggingEvent.DOUBLE, Double.doubleToRawLongBits(arg1), ExtendedLoggingEvent.DOUBLE, Double.doubleToRawLongBits(arg2));
+        }
+    }
+
+    public void debug(String format, double arg1, float arg2) {
+        if (levelThreshold <= Level.DEBUG_INT) {
+            logPrimitive(Level.DEBUG, format, 2, ExtendedLoggingEvent.DOUBLE, Double.doubleToRawLongBits(arg1), ExtendedLoggingEvent.FLOAT, Float.floatToRawIntBits(arg2));
+        }
+    }
+
+    public void debug(String format, double arg1, char arg2) {
+        if (levelThreshold <= Level.DEBUG_INT) {
+            logPrimitive(Level.DEBUG, format, 2, ExtendedLoggingEvent.DOUBLE, Double.doubleToRawLongBits(arg1), ExtendedLoggingEvent.CHAR, arg2);
+        }
+    }
+
+    public void debug(String format, float arg1, long arg2) {
+        if (levelThreshold <= Level.DEBUG_INT) {
+            logPrimitive(Level.DEBUG, format, 2, ExtendedLoggingEvent.FLOAT, Float.floatToRawIntBits(arg1), ExtendedLoggingEvent.LONG, arg2);
+        }
+    }
+
+    public void debug(String format, float arg1, double arg2) {
+        if (levelThreshold <= Level.DEBUG_INT) {
+            logPrimitive(Level.DEBUG, format, 2, ExtendedLoggingEvent.FLOAT, Float.floatToRawIntBits(arg1), ExtendedLoggingEvent.DOUBLE, Double.doubleToRawLongBits(arg2));
+        }
+    }
+
+    public void debug(String format, float arg1, float arg2) {
+        if (levelThreshold <= Level.DEBUG_INT) {
+            logPrimitive(Level.DEBUG, format, 2, ExtendedLoggingEvent.FLOAT, Float.floatToRawIntBits(arg1), ExtendedLoggingEvent.FLOAT, Float.floatToRawIntBits(arg2));
+        }
+    }
+
+    public void debug(String format, float arg1, char arg2) {
+        if (levelThreshold <= Level.DEBUG_INT) {
+            logPrimitive(Level.DEBUG, format, 2, ExtendedLoggingEvent.FLOAT, Float.floatToRawIntBits(arg1), ExtendedLoggingEvent.CHAR, arg2);
+        }
+    }
+
+    public void debug(String format, char arg1, long arg2) {
+        if (levelThreshold <= Level.DEBUG_INT) {
+            logPrimitive(Level.DEBUG, format, 2, ExtendedLoggingEvent.CHAR, arg1, ExtendedLoggingEvent.LONG, arg2);
+        }
+    }
+
+    public void debug(String format, char arg1, double arg2) {
+        if (levelThreshold <= Level.DEBUG_INT) {
+            logPrimitive(Level.DEBUG, format, 2, ExtendedLoggingEvent.CHAR, arg1, ExtendedLoggingEvent.DOUBLE, Double.doubleToRawLongBits(arg2));
+        }
+    }
+
+    public void debug(String format, char arg1, float arg2) {
+        if (levelThreshold <= Level.DEBUG_INT) {
+            logPrimitive(Level.DEBUG, format, 2, ExtendedLoggingEvent.CHAR, arg1, ExtendedLoggingEvent.FLOAT, Float.floatToRawIntBits(arg2));
+        }
+    }
+
+    public void debug(String format, char arg1, char arg2) {
+        if (levelThreshold <= Level.DEBUG_INT) {
+            logPrimitive(Level.DEBUG, format, 2, ExtendedLoggingEvent.CHAR, arg1, ExtendedLoggingEvent.CHAR, arg2);
+        }
+    }
+
+    public void info(String format, long arg) {
+        if (levelThreshold <= Level.INFO_INT) {
+            logPrimitive(Level.INFO, format, 1, ExtendedLoggingEvent.LONG, arg, (byte) 0, 0L);
+        }
+    }
+
+    public void info(String format, double arg) {
+        if (levelThreshold <= Level.INFO_INT) {
+            logPrimitive(Level.INFO, format, 1, ExtendedLoggingEvent.DOUBLE, Double.doubleToRawLongBits(arg), (byte) 0, 0L);
+        }
+    }
+
+    public void info(String format, float arg) {
+        if (levelThreshold <= Level.INFO_INT) {
+            logPrimitive(Level.INFO, format, 1, ExtendedLoggingEvent.FLOAT, Float.floatToRawIntBits(arg), (byte) 0, 0L);
+        }
+    }
+
+    public void info(String format, char arg) {
+        if (levelThreshold <= Level.INFO_INT) {
+            logPrimitive(Level.INFO, format, 1, ExtendedLoggingEvent.CHAR, arg, (byte) 0, 0L);
+        }
+    }
+
+    public void info(String format, long arg1, long arg2) {
+        if (levelThreshold <= Level.INFO_INT) {
+            logPrimitive(Level.INFO, format, 2, ExtendedLoggingEvent.LONG, arg1, ExtendedLoggingEvent.LONG, arg2);
+        }
+    }
+
+    public void info(String format, long arg1, double arg2) {
+        if (levelThreshold <= Level.INFO_INT) {
+            logPrimitive(Level.INFO, format, 2, ExtendedLoggingEvent.LONG, arg1, ExtendedLoggingEvent.DOUBLE, Double.doubleToRawLongBits(arg2));
+        }
+    }
+
+    public void info(String format, long arg1, float arg2) {
+        if (levelThreshold <= Level.INFO_INT) {
+            logPrimitive(Level.INFO, format, 2, ExtendedLoggingEvent.LONG, arg1, ExtendedLoggingEvent.FLOAT, Float.floatToRawIntBits(arg2));
+        }
+    }
+
+    public void info(String format, long arg1, char arg2) {
+        if (levelThreshold <= Level.INFO_INT) {
+            logPrimitive(Level.INFO, format, 2, ExtendedLoggingEvent.LONG, arg1, ExtendedLoggingEvent.CHAR, arg2);
+        }
+    }
+
+    public void info(String format, double arg1, long arg2) {
+        if (levelThreshold <= Level.INFO_INT) {
+            logPrimitive(Level.INFO, format, 2, ExtendedLoggingEvent.DOUBLE, Double.doubleToRawLongBits(arg1), ExtendedLoggingEvent.LONG, arg2);
+        }
+    }
+
+    public void info(String format, double arg1, double arg2) {
+        if (levelThreshold <= Level.INFO_INT) {
+            logPrimitive(Level.INFO, format, 2, ExtendedLoggingEvent.DOUBLE, Double.doubleToRawLongBits(arg1), ExtendedLoggingEvent.DOUBLE, Double.doubleToRawLongBits(arg2));
+        }
+    }
+
+    public void info(String format, double arg1, float arg2) {
+        if (levelThreshold <= Level.INFO_INT) {
+            logPrimitive(Level.INFO, format, 2, ExtendedLoggingEvent.DOUBLE, Double.doubleToRawLongBits(arg1), ExtendedLoggingEvent.FLOAT, Float.floatToRawIntBits(arg2));
+        }
+    }
+
+    public void info(String format, double arg1, char arg2) {
+        if (levelThreshold <= Level.INFO_INT) {
+            logPrimitive(Level.INFO, format, 2, ExtendedLoggingEvent.DOUBLE, Double.doubleToRawLongBits(arg1), ExtendedLoggingEvent.CHAR, arg2);
+        }
+    }
+
+    public void info(String format, float arg1, long arg2) {
+        if (levelThreshold <= Level.INFO_INT) {
+            logPrimitive(Level.INFO, format, 2, ExtendedLoggingEvent.FLOAT, Float.floatToRawIntBits(arg1), ExtendedLoggingEvent.LONG, arg2);
+        }
+    }
+
+    public void info(String format, float arg1, double arg2) {
+        if (levelThreshold <= Level.INFO_INT) {
+            logPrimitive(Level.INFO, format, 2, ExtendedLoggingEvent.FLOAT, Float.floatToRawIntBits(arg1), ExtendedLoggingEvent.DOUBLE, Double.doubleToRawLongBits(arg2));
+        }
+    }
+
+    public void info(String format, float arg1, float arg2) {
+        if (levelThreshold <= Level.INFO_INT) {
+            logPrimitive(Level.INFO, format, 2, ExtendedLoggingEvent.FLOAT, Float.floatToRawIntBits(arg1), ExtendedLoggingEvent.FLOAT, Float.floatToRawIntBits(arg2));
+        }
+    }
+
+    public void info(String format, float arg1, char arg2) {
+        if (levelThreshold <= Level.INFO_INT) {
+            logPrimitive(Level.INFO, format, 2, ExtendedLoggingEvent.FLOAT, Float.floatToRawIntBits(arg1), ExtendedLoggingEvent.CHAR, arg2);
+        }
+    }
+
+    public void info(String format, char arg1, long arg2) {
+        if (levelThreshold <= Level.INFO_INT) {
+            logPrimitive(Level.INFO, format, 2, ExtendedLoggingEvent.CHAR, arg1, ExtendedLoggingEvent.LONG, arg2);
+        }
+    }
+
+    public void info(String format, char arg1, double arg2) {
+        if (levelThreshold <= Level.INFO_INT) {
+            logPrimitive(Level.INFO, format, 2, ExtendedLoggingEvent.CHAR, arg1, ExtendedLoggingEvent.DOUBLE, Double.doubleToRawLongBits(arg2));
+        }
+    }
+
+    public void info(String format, char arg1, float arg2) {
+        if (levelThreshold <= Level.INFO_INT) {
+            logPrimitive(Level.INFO, format, 2, ExtendedLoggingEvent.CHAR, arg1, ExtendedLoggingEvent.FLOAT, Float.floatToRawIntBits(arg2));
+        }
+    }
+
+    public void info(String format, char arg1, char arg2) {
+        if (levelThreshold <= Level.INFO_INT) {
+            logPrimitive(Level.INFO, format, 2, ExtendedLoggingEvent.CHAR, arg1, ExtendedLoggingEvent.CHAR, arg2);
+        }
+    }
+
+    public void warn(String format, long arg) {
+        if (levelThreshold <= Level.WARN_INT) {
+            logPrimitive(Level.WARN, format, 1, ExtendedLoggingEvent.LONG, arg, (byte) 0, 0L);
+        }
+    }
+
+    public void warn(String format, double arg) {
+        if (levelThreshold <= Level.WARN_INT) {
+            logPrimitive(Level.WARN, format, 1, ExtendedLoggingEvent.DOUBLE, Double.doubleToRawLongBits(arg), (byte) 0, 0L);
+        }
+    }
+
+    public void warn(String format, float arg) {
+        if (levelThreshold <= Level.WARN_INT) {
+            logPrimitive(Level.WARN, format, 1, ExtendedLoggingEvent.FLOAT, Float.floatToRawIntBits(arg), (byte) 0, 0L);
+        }
+    }
+
+    public void warn(String format, char arg) {
+        if (levelThreshold <= Level.WARN_INT) {
+            logPrimitive(Level.WARN, format, 1, ExtendedLoggingEvent.CHAR, arg, (byte) 0, 0L);
+        }
+    }
+
+    public void warn(String format, long arg1, long arg2) {
+        if (levelThreshold <= Level.WARN_INT) {
+            logPrimitive(Level.WARN, format, 2, ExtendedLoggingEvent.LONG, arg1, ExtendedLoggingEvent.LONG, arg2);
+        }
+    }
+
+    public void warn(String format, long arg1, double arg2) {
+        if (levelThreshold <= Level.WARN_INT) {
+            logPrimitive(Level.WARN, format, 2, ExtendedLoggingEvent.LONG, arg1, ExtendedLoggingEvent.DOUBLE, Double.doubleToRawLongBits(arg2));
+        }
+    }
+
+    public void warn(String format, long arg1, float arg2) {
+        if (levelThreshold <= Level.WARN_INT) {
+            logPrimitive(Level.WARN, format, 2, ExtendedLoggingEvent.LONG, arg1, ExtendedLoggingEvent.FLOAT, Float.floatToRawIntBits(arg2));
+        }
+    }
+
+    public void warn(String format, long arg1, char arg2) {
+        if (levelThreshold <= Level.WARN_INT) {
+            logPrimitive(Level.WARN, format, 2, ExtendedLoggingEvent.LONG, arg1, ExtendedLoggingEvent.CHAR, arg2);
+        }
+    }
+
+    public void warn(String format, double arg1, long arg2) {
+        if (levelThreshold <= Level.WARN_INT) {
+            logPrimitive(Level.WARN, format, 2, ExtendedLoggingEvent.DOUBLE, Double.doubleToRawLongBits(arg1), ExtendedLoggingEvent.LONG, arg2);
+        }
+    }
+
+    public void warn(String format, double arg1, double arg2) {
+        if (levelThreshold <= Level.WARN_INT) {
+            logPrimitive(Level.WARN, format, 2, ExtendedLoggingEvent.DOUBLE, Double.doubleToRawLongBits(arg1), ExtendedLoggingEvent.DOUBLE, Double.doubleToRawLongBits(arg2));
+        }
+    }
+
+    public void warn(String format, double arg1, float arg2) {
+        if (levelThreshold <= Level.WARN_INT) {
+            logPrimitive(Level.WARN, format, 2, ExtendedLoggingEvent.DOUBLE, Double.doubleToRawLongBits(arg1), ExtendedLoggingEvent.FLOAT, Float.floatToRawIntBits(arg2));
+        }
+    }
+
+    public void warn(String format, double arg1, char arg2) {
+        if (levelThreshold <= Level.WARN_INT) {
+            logPrimitive(Level.WARN, format, 2, ExtendedLoggingEvent.DOUBLE, Double.doubleToRawLongBits(arg1), ExtendedLoggingEvent.CHAR, arg2);
+        }
+    }
+
+    public void warn(String format, float arg1, long arg2) {
+        if (levelThreshold <= Level.WARN_INT) {
+            logPrimitive(Level.WARN, format, 2, ExtendedLoggingEvent.FLOAT, Float.floatToRawIntBits(arg1), ExtendedLoggingEvent.LONG, arg2);
+        }
+    }
+
+    public void warn(String format, float arg1, double arg2) {
+        if (levelThreshold <= Level.WARN_INT) {
+            logPrimitive(Level.WARN, format, 2, ExtendedLoggingEvent.FLOAT, Float.floatToRawIntBits(arg1), ExtendedLoggingEvent.DOUBLE, Double.doubleToRawLongBits(arg2));
+        }
+    }
+
+    public void warn(String format, float arg1, float arg2) {
+        if (levelThreshold <= Level.WARN_INT) {
+            logPrimitive(Level.WARN, format, 2, ExtendedLoggingEvent.FLOAT, Float.floatToRawIntBits(arg1), ExtendedLoggingEvent.FLOAT, Float.floatToRawIntBits(arg2));
+        }
+    }
+
+    public void warn(String format, float arg1, char arg2) {
+        if (levelThreshold <= Level.WARN_INT) {
+            logPrimitive(Level.WARN, format, 2, ExtendedLoggingEvent.FLOAT, Float.floatToRawIntBits(arg1), ExtendedLoggingEvent.CHAR, arg2);
+        }
+    }
+
+    public void warn(String format, char arg1, long arg2) {
+        if (levelThreshold <= Level.WARN_INT) {
+            logPrimitive(Level.WARN, format, 2, ExtendedLoggingEvent.CHAR, arg1, ExtendedLoggingEvent.LONG, arg2);
+        }
+    }
+
+    public void warn(String format, char arg1, double arg2) {
+        if (levelThreshold <= Level.WARN_INT) {
+            logPrimitive(Level.WARN, format, 2, ExtendedLoggingEvent.CHAR, arg1, ExtendedLoggingEvent.DOUBLE, Double.doubleToRawLongBits(arg2));
+        }
+    }
+
+    public void warn(String format, char arg1, float arg2) {
+        if (levelThreshold <= Level.WARN_INT) {
+            logPrimitive(Level.WARN, format, 2, ExtendedLoggingEvent.CHAR, arg1, ExtendedLoggingEvent.FLOAT, Float.floatToRawIntBits(arg2));
+        }
+    }
+
+    public void warn(String format, char arg1, char arg2) {
+        if (levelThreshold <= Level.WARN_INT) {
+            logPrimitive(Level.WARN, format, 2, ExtendedLoggingEvent.CHAR, arg1, ExtendedLoggingEvent.CHAR, arg2);
+        }
+    }
+
+    public void error(String format, long arg) {
+        if (levelThreshold <= Level.ERROR_INT) {
+            logPrimitive(Level.ERROR, format, 1, ExtendedLoggingEvent.LONG, arg, (byte) 0, 0L);
+        }
+    }
+
+    public void error(String format, double arg) {
+        if (levelThreshold <= Level.ERROR_INT) {
+            logPrimitive(Level.ERROR, format, 1, ExtendedLoggingEvent.DOUBLE, Double.doubleToRawLongBits(arg), (byte) 0, 0L);
+        }
+    }
+
+    public void error(String format, float arg) {
+        if (levelThreshold <= Level.ERROR_INT) {
+            logPrimitive(Level.ERROR, format, 1, ExtendedLoggingEvent.FLOAT, Float.floatToRawIntBits(arg), (byte) 0, 0L);
+        }
+    }
+
+    public void error(String format, char arg) {
+        if (levelThreshold <= Level.ERROR_INT) {
+            logPrimitive(Level.ERROR, format, 1, ExtendedLoggingEvent.CHAR, arg, (byte) 0, 0L);
+        }
+    }
+
+    public void error(String format, long arg1, long arg2) {
+        if (levelThreshold <= Level.ERROR_INT) {
+            logPrimitive(Level.ERROR, format, 2, ExtendedLoggingEvent.LONG, arg1, ExtendedLoggingEvent.LONG, arg2);
+        }
+    }
+
+    public void error(String format, long arg1, double arg2) {
+        if (levelThreshold <= Level.ERROR_INT) {
+            logPrimitive(Level.ERROR, format, 2, ExtendedLoggingEvent.LONG, arg1, ExtendedLoggingEvent.DOUBLE, Double.doubleToRawLongBits(arg2));
+        }
+    }
+
+    public void error(String format, long arg1, float arg2) {
+        if (levelThreshold <= Level.ERROR_INT) {
+            logPrimitive(Level.ERROR, format, 2, ExtendedLoggingEvent.LONG, arg1, ExtendedLoggingEvent.FLOAT, Float.floatToRawIntBits(arg2));
+        }
+    }
+
+    public void error(String format, long arg1, char arg2) {
+        if (levelThreshold <= Level.ERROR_INT) {
+            logPrimitive(Level.ERROR, format, 2, ExtendedLoggingEvent.LONG, arg1, ExtendedLoggingEvent.CHAR, arg2);
+        }
+    }
+
+    public void error(String format, double arg1, long arg2) {
+        if (levelThreshold <= Level.ERROR_INT) {
+            logPrimitive(Level.ERROR, format, 2, ExtendedLoggingEvent.DOUBLE, Double.doubleToRawLongBits(arg1), ExtendedLoggingEvent.LONG, arg2);
+        }
+    }
+
+    public void error(String format, double arg1, double arg2) {
+        if (levelThreshold <= Level.ERROR_INT) {
+            logPrimitive(Level.ERROR, format, 2, ExtendedLoggingEvent.DOUBLE, Double.doubleToRawLongBits(arg1), ExtendedLoggingEvent.DOUBLE, Double.doubleToRawLongBits(arg2));
+        }
+    }
+
+    public void error(String format, double arg1, float arg2) {
+        if (levelThreshold <= Level.ERROR_INT) {
+            logPrimitive(Level.ERROR, format, 2, ExtendedLoggingEvent.DOUBLE, Double.doubleToRawLongBits(arg1), ExtendedLoggingEvent.FLOAT, Float.floatToRawIntBits(arg2));
+        }
+    }
+
+    public void error(String format, double arg1, char arg2) {
+        if (levelThreshold <= Level.ERROR_INT) {
+            logPrimitive(Level.ERROR, format, 2, ExtendedLoggingEvent.DOUBLE, Double.doubleToRawLongBits(arg1), ExtendedLoggingEvent.CHAR, arg2);
+        }
+    }
+
+    public void error(String format, float arg1, long arg2) {
+        if (levelThreshold <= Level.ERROR_INT) {
+            logPrimitive(Level.ERROR, format, 2, ExtendedLoggingEvent.FLOAT, Float.floatToRawIntBits(arg1), ExtendedLoggingEvent.LONG, arg2);
+        }
+    }
+
+    public void error(String format, float arg1, double arg2) {
+        if (levelThreshold <= Level.ERROR_INT) {
+            logPrimitive(Level.ERROR, format, 2, ExtendedLoggingEvent.FLOAT, Float.floatToRawIntBits(arg1), ExtendedLoggingEvent.DOUBLE, Double.doubleToRawLongBits(arg2));
+        }
+    }
+
+    public void error(String format, float arg1, float arg2) {
+        if (levelThreshold <= Level.ERROR_INT) {
+            logPrimitive(Level.ERROR, format, 2, ExtendedLoggingEvent.FLOAT, Float.floatToRawIntBits(arg1), ExtendedLoggingEvent.FLOAT, Float.floatToRawIntBits(arg2));
+        }
+    }
+
+    public void error(String format, float arg1, char arg2) {
+        if (levelThreshold <= Level.ERROR_INT) {
+            logPrimitive(Level.ERROR, format, 2, ExtendedLoggingEvent.FLOAT, Float.floatToRawIntBits(arg1), ExtendedLoggingEvent.CHAR, arg2);
+        }
+    }
+
+    public void error(String format, char arg1, long arg2) {
+        if (levelThreshold <= Level.ERROR_INT) {
+            logPrimitive(Level.ERROR, format, 2, ExtendedLoggingEvent.CHAR, arg1, ExtendedLoggingEvent.LONG, arg2);
+        }
+    }
+
+    public void error(String format, char arg1, double arg2) {
+        if (levelThreshold <= Level.ERROR_INT) {
+            logPrimitive(Level.ERROR, format, 2, ExtendedLoggingEvent.CHAR, arg1, ExtendedLoggingEvent.DOUBLE, Double.doubleToRawLongBits(arg2));
+        }
+    }
+
+    public void error(String format, char arg1, float arg2) {
+        if (levelThreshold <= Level.ERROR_INT) {
+            logPrimitive(Level.ERROR, format, 2, ExtendedLoggingEvent.CHAR, arg1, ExtendedLoggingEvent.FLOAT, Float.floatToRawIntBits(arg2));
+        }
+    }
+
+    public void error(String format, char arg1, char arg2) {
+        if (levelThreshold <= Level.ERROR_INT) {
+            logPrimitive(Level.ERROR, format, 2, ExtendedLoggingEvent.CHAR, arg1, ExtendedLoggingEvent.CHAR, arg2);
+        }
+    }
+
+    // Lazily evaluated messages: the suppliers are only called when the level is enabled. These have their own
+    // names so that calls such as info("msg {}", null) keep resolving to the Object overloads
+
+    /**
+     * Logs a message at TRACE level, building it only if TRACE is enabled.
+     *
+     * @param msgSupplier supplies the message string
+     */
+    public void traceLazy(Supplier<String> msgSupplier) {
+        if (levelThreshold <= Level.TRACE_INT && logger.isTraceEnabled()) {
+            logger.trace(msgSupplier.get());
+        }
+    }
+
+    /**
+     * Logs a message and an exception at TRACE level, building the message only if TRACE is enabled.
+     *
+     * @param msgSupplier supplies the message string
+     * @param t           the exception to log
+     */
+    public void traceLazy(Supplier<String> msgSupplier, Throwable t) {
+        if (levelThreshold <= Level.TRACE_INT && logger.isTraceEnabled()) {
+            logger.trace(msgSupplier.get(), t);
+        }
+    }
+
+    /**
+     * Logs a message at TRACE level, computing the argument only if TRACE is enabled.
+     *
+     * @param format      the format string
+     * @param argSupplier supplies the argument
+     */
+    public void traceLazy(String format, Supplier<?> argSupplier) {
+        if (levelThreshold <= Level.TRACE_INT && logger.isTraceEnabled()) {
+            logger.trace(format, get(argSupplier));
+        }
+    }
+
+    /**
+     * Logs a message at TRACE level, computing the arguments only if TRACE is enabled.
+     *
+     * @param format       the format string
+     * @param argSupplier1 supplies the first argument
+     * @param argSupplier2 supplies the second argument
+     */
+    public void traceLazy(String format, Supplier<?> argSupplier1, Supplier<?> argSupplier2) {
+        if (levelThreshold <= Level.TRACE_INT && logger.isTraceEnabled()) {
+            logger.trace(format, get(argSupplier1), get(argSupplier2));
+        }
+    }
+
+    /**
+     * Logs a message at TRACE level, computing the arguments only if TRACE is enabled.
+     *
+     * @param format       the format string
+     * @param argSuppliers supply the arguments
+     */
+    public void traceLazy(String format, Supplier<?>... argSuppliers) {
+        if (levelThreshold <= Level.TRACE_INT && logger.isTraceEnabled()) {
+            logger.trace(format, getAll(argSuppliers));
+        }
+    }
+
+    /**
+     * Logs a message at DEBUG level, building it only if DEBUG is enabled.
+     *
+     * @param msgSupplier supplies the message string
+     */
+    public void debugLazy(Supplier<String> msgSupplier) {
+        if (levelThreshold <= Level.DEBUG_INT && logger.isDebugEnabled()) {
+            logger.debug(msgSupplier.get());
+        }
+    }
+
+    /**
+     * Logs a message and an exception at DEBUG level, building the message only if DEBUG is enabled.
+     *
+     * @param msgSupplier supplies the message string
+     * @param t           the exception to log
+     */
+    public void debugLazy(Supplier<String> msgSupplier, Throwable t) {
+        if (levelThreshold <= Level.DEBUG_INT && logger.isDebugEnabled()) {
+            logger.debug(msgSupplier.get(), t);
+        }
+    }
+
+    /**
+     * Logs a message at DEBUG level, computing the argument only if DEBUG is enabled.
+     *
+     * @param format      the format string
+     * @param argSupplier supplies the argument
+     */
+    public void debugLazy(String format, Supplier<?> argSupplier) {
+        if (levelThreshold <= Level.DEBUG_INT && logger.isDebugEnabled()) {
+            logger.debug(format, get(argSupplier));
+        }
+    }
+
+    /**
+     * Logs a message at DEBUG level, computing the arguments only if DEBUG is enabled.
+     *
+     * @param format       the format string
+     * @param argSupplier1 supplies the first argument
+     * @param argSupplier2 supplies the second argument
+     */
+    public void debugLazy(String format, Supplier<?> argSupplier1, Supplier<?> argSupplier2) {
+        if (levelThreshold <= Level.DEBUG_INT && logger.isDebugEnabled()) {
+            logger.debug(format, get(argSupplier1), get(argSupplier2));
+        }
+    }
+
+    /**
+     * Logs a message at DEBUG level, computing the arguments only if DEBUG is enabled.
+     *
+     * @param format       the format string
+     * @param argSuppliers supply the arguments
+     */
+    public void debugLazy(String format, Supplier<?>... argSuppliers) {
+        if (levelThreshold <= Level.DEBUG_INT && logger.isDebugEnabled()) {
+            logger.debug(format, getAll(argSuppliers));
+        }
+    }
+
+    /**
+     * Logs a message at INFO level, building it only if INFO is enabled.
+     *
+     * @param msgSupplier supplies the message string
+     */
+    public void infoLazy(Supplier<String> msgSupplier) {
+        if (levelThreshold <= Level.INFO_INT && logger.isInfoEnabled()) {
+            logger.info(msgSupplier.get());
+        }
+    }
+
+    /**
+     * Logs a message and an exception at INFO level, building the message only if INFO is enabled.
+     *
+     * @param msgSupplier supplies the message string
+     * @param t           the exception to log
+     */
+    public void infoLazy(Supplier<String> msgSupplier, Throwable t) {
+        if (levelThreshold <= Level.INFO_INT && logger.isInfoEnabled()) {
+            logger.info(msgSupplier.get(), t);
+        }
+    }
+
+    /**
+     * Logs a message at INFO level, computing the argument only if INFO is enabled.
+     *
+     * @param format      the format string
+     * @param argSupplier supplies the argument
+     */
+    public void infoLazy(String format, Supplier<?> argSupplier) {
+        if (levelThreshold <= Level.INFO_INT && logger.isInfoEnabled()) {
+            logger.info(format, get(argSupplier));
+        }
+    }
+
+    /**
+     * Logs a message at INFO level, computing the arguments only if INFO is enabled.
+     *
+     * @param format       the format string
+     * @param argSupplier1 supplies the first argument
+     * @param argSupplier2 supplies the second argument
+     */
+    public void infoLazy(String format, Supplier<?> argSupplier1, Supplier<?> argSupplier2) {
+        if (levelThreshold <= Level.INFO_INT && logger.isInfoEnabled()) {
+            logger.info(format, get(argSupplier1), get(argSupplier2));
+        }
+    }
+
+    /**
+     * Logs a message at INFO level, computing the arguments only if INFO is enabled.
+     *
+     * @param format       the format string
+     * @param argSuppliers supply the arguments
+     */
+    public void infoLazy(String format, Supplier<?>... argSuppliers) {
+        if (levelThreshold <= Level.INFO_INT && logger.isInfoEnabled()) {
+            logger.info(format, getAll(argSuppliers));
+        }
+    }
+
+    /**
+     * Logs a message at WARN level, building it only if WARN is enabled.
+     *
+     * @param msgSupplier supplies the message string
+     */
+    public void warnLazy(Supplier<String> msgSupplier) {
+        if (levelThreshold <= Level.WARN_INT && logger.isWarnEnabled()) {
+            logger.warn(msgSupplier.get());
+        }
+    }
+
+    /**
+     * Logs a message and an exception at WARN level, building the message only if WARN is enabled.
+     *
+     * @param msgSupplier supplies the message string
+     * @param t           the exception to log
+     */
+    public void warnLazy(Supplier<String> msgSupplier, Throwable t) {
+        if (levelThreshold <= Level.WARN_INT && logger.isWarnEnabled()) {
+            logger.warn(msgSupplier.get(), t);
+        }
+    }
+
+    /**
+     * Logs a message at WARN level, computing the argument only if WARN is enabled.
+     *
+     * @param format      the format string
+     * @param argSupplier supplies the argument
+     */
+    public void warnLazy(String format, Supplier<?> argSupplier) {
+        if (levelThreshold <= Level.WARN_INT && logger.isWarnEnabled()) {
+            logger.warn(format, get(argSupplier));
+        }
+    }
+
+    /**
+     * Logs a message at WARN level, computing the arguments only if WARN is enabled.
+     *
+     * @param format       the format string
+     * @param argSupplier1 supplies the first argument
+     * @param argSupplier2 supplies the second argument
+     */
+    public void warnLazy(String format, Supplier<?> argSupplier1, Supplier<?> argSupplier2) {
+        if (levelThreshold <= Level.WARN_INT && logger.isWarnEnabled()) {
+            logger.warn(format, get(argSupplier1), get(argSupplier2));
+        }
+    }
+
+    /**
+     * Logs a message at WARN level, computing the arguments only if WARN is enabled.
+     *
+     * @param format       the format string
+     * @param argSuppliers supply the arguments
+     */
+    public void warnLazy(String format, Supplier<?>... argSuppliers) {
+        if (levelThreshold <= Level.WARN_INT && logger.isWarnEnabled()) {
+            logger.warn(format, getAll(argSuppliers));
+        }
+    }
+
+    /**
+     * Logs a message at ERROR level, building it only if ERROR is enabled.
+     *
+     * @param msgSupplier supplies the message string
+     */
+    public void errorLazy(Supplier<String> msgSupplier) {
+        if (levelThreshold <= Level.ERROR_INT && logger.isErrorEnabled()) {
+            logger.error(msgSupplier.get());
+        }
+    }
+
+    /**
+     * Logs a message and an exception at ERROR level, building the message only if ERROR is enabled.
+     *
+     * @param msgSupplier supplies the message string
+     * @param t           the exception to log
+     */
+    public void errorLazy(Supplier<String> msgSupplier, Throwable t) {
+        if (levelThreshold <= Level.ERROR_INT && logger.isErrorEnabled()) {
+            logger.error(msgSupplier.get(), t);
+        }
+    }
+
+    /**
+     * Logs a message at ERROR level, computing the argument only if ERROR is enabled.
+     *
+     * @param format      the format string
+     * @param argSupplier supplies the argument
+     */
+    public void errorLazy(String format, Supplier<?> argSupplier) {
+        if (levelThreshold <= Level.ERROR_INT && logger.isErrorEnabled()) {
+            logger.error(format, get(argSupplier));
+        }
+    }
+
+    /**
+     * Logs a message at ERROR level, computing the arguments only if ERROR is enabled.
+     *
+     * @param format       the format string
+     * @param argSupplier1 supplies the first argument
+     * @param argSupplier2 supplies the second argument
+     */
+    public void errorLazy(String format, Supplier<?> argSupplier1, Supplier<?> argSupplier2) {
+        if (levelThreshold <= Level.ERROR_INT && logger.isErrorEnabled()) {
+            logger.error(format, get(argSupplier1), get(argSupplier2));
+        }
+    }
+
+    /**
+     * Logs a message at ERROR level, computing the arguments only if ERROR is enabled.
+     *
+     * @param format       the format string
+     * @param argSuppliers supply the arguments
+     */
+    public void errorLazy(String format, Supplier<?>... argSuppliers) {
+        if (levelThreshold <= Level.ERROR_INT && logger.isErrorEnabled()) {
+            logger.error(format, getAll(argSuppliers));
+        }
+    }
+
+    // Fluent event builders: the builder of the calling thread is reused, and a shared builder that ignores
+    // every call is returned when the level is disabled
+
+    /**
+     * Starts building an event with structured fields at TRACE level.
+     *
+     * @return the builder of the calling thread, or a builder that ignores every call if TRACE is disabled
+     */
+    public LogEventBuilder atTrace() {
+        return isTraceEnabled() ? LogEventBuilder.acquire(this, Level.TRACE) : LogEventBuilder.DISABLED;
+    }
+
+    /**
+     * Starts building an event with structured fields at DEBUG level.
+     *
+     * @return the builder of the calling thread, or a builder that ignores every call if DEBUG is disabled
+     */
+    public LogEventBuilder atDebug() {
+        return isDebugEnabled() ? LogEventBuilder.acquire(this, Level.DEBUG) : LogEventBuilder.DISABLED;
+    }
+
+    /**
+     * Starts building an event with structured fields at INFO level.
+     *
+     * @return the builder of the calling thread, or a builder that ignores every call if INFO is disabled
+     */
+    public LogEventBuilder atInfo() {
+        return isInfoEnabled() ? LogEventBuilder.acquire(this, Level.INFO) : LogEventBuilder.DISABLED;
+    }
+
+    /**
+     * Starts building an event with structured fields at WARN level.
+     *
+     * @return the builder of the calling thread, or a builder that ignores every call if WARN is disabled
+     */
+    public LogEventBuilder atWarn() {
+        return isWarnEnabled() ? LogEventBuilder.acquire(this, Level.WARN) : LogEventBuilder.DISABLED;
+    }
+
+    /**
+     * Starts building an event with structured fields at ERROR level.
+     *
+     * @return the builder of the calling thread, or a builder that ignores every call if ERROR is disabled
+     */
+    public LogEventBuilder atError() {
+        return isErrorEnabled() ? LogEventBuilder.acquire(this, Level.ERROR) : LogEventBuilder.DISABLED;
     }
 
     // Custom methods for logging with email
@@ -335,7 +1432,9 @@ public class ExtendedLogger implements Logger {
      * @param msg the message string to be logged
      */
     public void infoWithMail(String msg) {
-        logger.info(LogMarkers.EMAIL, msg);
+        if (levelThreshold <= Level.INFO_INT) {
+            logger.info(LogMarkers.EMAIL, msg);
+        }
     }
 
     /**
@@ -344,7 +1443,9 @@ public class ExtendedLogger implements Logger {
      * @param msg the message string to be logged
      */
     public void debugWithMail(String msg) {
-        logger.debug(LogMarkers.EMAIL, msg);
+        if (levelThreshold <= Level.DEBUG_INT) {
+            logger.debug(LogMarkers.EMAIL, msg);
+        }
     }
 
     /**
@@ -353,6 +1454,134 @@ public class ExtendedLogger implements Logger {
      * @param msg the message string to be logged
      */
     public void errorWithMail(String msg) {
-        logger.error(LogMarkers.EMAIL, msg);
+        if (levelThreshold <= Level.ERROR_INT) {
+            logger.error(LogMarkers.EMAIL, msg);
+        }
+    }
+
+    /**
+     * Logs a message at INFO level and sends an email notification, building the message only if INFO is enabled.
+     *
+     * @param msgSupplier supplies the message string
+     */
+    public void infoWithMailLazy(Supplier<String> msgSupplier) {
+        if (levelThreshold <= Level.INFO_INT && logger.isInfoEnabled(LogMarkers.EMAIL)) {
+            logger.info(LogMarkers.EMAIL, msgSupplier.get());
+        }
+    }
+
+    /**
+     * Logs a message at DEBUG level and sends an email notification, building the message only if DEBUG is enabled.
+     *
+     * @param msgSupplier supplies the message string
+     */
+    public void debugWithMailLazy(Supplier<String> msgSupplier) {
+        if (levelThreshold <= Level.DEBUG_INT && logger.isDebugEnabled(LogMarkers.EMAIL)) {
+            logger.debug(LogMarkers.EMAIL, msgSupplier.get());
+        }
+    }
+
+    /**
+     * Logs a message at ERROR level and sends an email notification, building the message only if ERROR is enabled.
+     *
+     * @param msgSupplier supplies the message string
+     */
+    public void errorWithMailLazy(Supplier<String> msgSupplier) {
+        if (levelThreshold <= Level.ERROR_INT && logger.isErrorEnabled(LogMarkers.EMAIL)) {
+            logger.error(LogMarkers.EMAIL, msgSupplier.get());
+        }
+    }
+
+    /**
+     * Logs an event built by a {@link LogEventBuilder}. With logback the fields are passed to the appenders
+     * as they are; otherwise they are formatted into the message.
+     *
+     * @param level     the level of the event, already checked to be enabled
+     * @param marker    the marker, may be null
+     * @param message   the message
+     * @param throwable the throwable, may be null
+     * @param fields    the fields, owned by the builder
+     */
+    void logEvent(Level level, Marker marker, String message, Throwable throwable, EventFields fields) {
+        if (logbackLogger != null) {
+            logbackLogger.callAppenders(new ExtendedLoggingEvent(logbackLogger, level, message, marker, throwable,
+                    fields));
+            return;
+        }
+        StringBuilder builder = new StringBuilder(String.valueOf(message));
+        fields.appendTo(builder, message != null && !message.isEmpty());
+        String formatted = builder.toString();
+        switch (level.toInt()) {
+            case Level.TRACE_INT:
+                logger.trace(marker, formatted, throwable);
+                break;
+            case Level.DEBUG_INT:
+                logger.debug(marker, formatted, throwable);
+                break;
+            case Level.INFO_INT:
+                logger.info(marker, formatted, throwable);
+                break;
+            case Level.WARN_INT:
+                logger.warn(marker, formatted, throwable);
+                break;
+            default:
+                logger.error(marker, formatted, throwable);
+                break;
+        }
+    }
+
+    /**
+     * Logs an event with primitive arguments to the wrapped logback logger without boxing them. Other loggers get
+     * the arguments boxed.
+     *
+     * @param level         the level of the event, already checked against the mirrored level
+     * @param format        the format string
+     * @param argumentCount the number of arguments, 1 or 2
+     * @param kind1         the kind of the first argument
+     * @param bits1         the raw bits of the first argument
+     * @param kind2         the kind of the second argument, unused with one argument
+     * @param bits2         the raw bits of the second argument, unused with one argument
+     */
+    private void logPrimitive(Level level, String format, int argumentCount,
+                              byte kind1, long bits1, byte kind2, long bits2) {
+        if (logbackLogger != null) {
+            if (logbackLogger.isEnabledFor(level)) {
+                logbackLogger.callAppenders(new ExtendedLoggingEvent(logbackLogger, level, format, argumentCount,
+                        kind1, bits1, kind2, bits2));
+            }
+            return;
+        }
+        Object[] arguments = argumentCount == 1
+                ? new Object[]{ExtendedLoggingEvent.box(kind1, bits1)}
+                : new Object[]{ExtendedLoggingEvent.box(kind1, bits1), ExtendedLoggingEvent.box(kind2, bits2)};
+        switch (level.toInt()) {
+            case Level.TRACE_INT:
+                logger.trace(format, arguments);
+                break;
+            case Level.DEBUG_INT:
+                logger.debug(format, arguments);
+                break;
+            case Level.INFO_INT:
+                logger.info(format, arguments);
+                break;
+            case Level.WARN_INT:
+                logger.warn(format, arguments);
+                break;
+            default:
+                logger.error(format, arguments);
+                break;
+        }
+    }
+
+    private static Object get(Supplier<?> supplier) {
+        return supplier != null ? supplier.get() : null;
+    }
+
+    private static Object[] getAll(Supplier<?>[] suppliers) {
+        Object[] values = new Object[suppliers.length];
+        for (int i = 0; i < suppliers.length; i++) {
+            values[i] = get(suppliers[i]);
+        }
+        return values;
     }
 }
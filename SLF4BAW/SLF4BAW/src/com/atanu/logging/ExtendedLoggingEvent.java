@@ -0,0 +1,393 @@
+package com.atanu.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.CallerData;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.IThrowableProxy;
+import ch.qos.logback.classic.spi.LoggerContextVO;
+import ch.qos.logback.classic.spi.ThrowableProxy;
+import ch.qos.logback.classic.util.LogbackMDCAdapter;
+import org.slf4j.MDC;
+import org.slf4j.Marker;
+import org.slf4j.spi.MDCAdapter;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Logging event created by {@link ExtendedLogger} for messages with primitive arguments, and by
+ * {@link LogEventBuilder} for messages with structured fields.
+ * <p>
+ * The arguments are kept unboxed until something asks for them: {@link DefaultPatternEncoder} formats them straight
+ * into its output buffer through {@link #formatMessageTo(StringBuilder)}, so neither the arguments nor the formatted
+ * message are allocated on that path. {@link #getArgumentArray()} and {@link #getFormattedMessage()} box and format
+ * on first use, for appenders and encoders that need them. Fields are formatted after the message as
+ * {@code key=value} pairs.
+ * <p>
+ * The fields belong to the builder that created the event until {@link #detachFields()} copies them, which
+ * {@link DynamicAppender} does before queueing. Logback calls {@link #prepareForDeferredProcessing()} on every
+ * write, not only before deferring, so copying there would allocate on every event. An event kept by another
+ * appender loses its fields once the builder is reused, rather than showing the fields of a later event.
+ */
+class ExtendedLoggingEvent implements ILoggingEvent {
+    static final byte LONG = 1;
+    static final byte DOUBLE = 2;
+    static final byte FLOAT = 3;
+    static final byte CHAR = 4;
+
+    private static final String DELIMITER = "{}";
+    private static final char ESCAPE_CHAR = '\\';
+
+    private final Logger logger;
+    // Class whose callers are reported as the callers of the event
+    private final String callerBoundary;
+    private final Level level;
+    private final String message;
+    private final Marker marker;
+    private final IThrowableProxy throwableProxy;
+    private final long timeStamp;
+    private final String threadName;
+    private final Map<String, String> mdcPropertyMap;
+    private final int argumentCount;
+    private final byte kind1;
+    private final long bits1;
+    private final byte kind2;
+    private final long bits2;
+    private final int fieldsGeneration;
+
+    private EventFields fields;
+    private Object[] argumentArray;
+    private String formattedMessage;
+    private StackTraceElement[] callerData;
+
+    /**
+     * Creates an event with up to two primitive arguments, each given as its kind and its bits:
+     * the value of a long or char, {@link Double#doubleToRawLongBits(double)} or {@link Float#floatToRawIntBits(float)}.
+     *
+     * @param logger        the logback logger the event is logged to
+     * @param level         the level of the event
+     * @param message       the message format with {} placeholders
+     * @param argumentCount the number of arguments, 1 or 2
+     * @param kind1         the kind of the first argument
+     * @param bits1         the bits of the first argument
+     * @param kind2         the kind of the second argument, ignored for a single argument
+     * @param bits2         the bits of the second argument, ignored for a single argument
+     */
+    ExtendedLoggingEvent(Logger logger, Level level, String message, int argumentCount,
+                         byte kind1, long bits1, byte kind2, long bits2) {
+        this(logger, ExtendedLogger.class.getName(), level, message, null, null,
+                argumentCount, kind1, bits1, kind2, bits2, null);
+    }
+
+    /**
+     * Creates an event with structured fields and no arguments.
+     *
+     * @param logger    the logback logger the event is logged to
+     * @param level     the level of the event
+     * @param message   the message, logged as is
+     * @param marker    the marker of the event, may be null
+     * @param throwable the throwable of the event, may be null
+     * @param fields    the fields of the event, still owned by the builder
+     */
+    ExtendedLoggingEvent(Logger logger, Level level, String message, Marker marker, Throwable throwable,
+                         EventFields fields) {
+        this(logger, LogEventBuilder.class.getName(), level, message, marker, throwable,
+                0, (byte) 0, 0L, (byte) 0, 0L, fields);
+    }
+
+    private ExtendedLoggingEvent(Logger logger, String callerBoundary, Level level, String message, Marker marker,
+                                 Throwable throwable, int argumentCount, byte kind1, long bits1, byte kind2, long bits2,
+                                 EventFields fields) {
+        this.logger = logger;
+        this.callerBoundary = callerBoundary;
+        this.level = level;
+        this.message = message;
+        this.marker = marker;
+        this.throwableProxy = throwable != null ? proxyOf(logger, throwable) : null;
+        this.timeStamp = System.currentTimeMillis();
+        this.threadName = Thread.currentThread().getName();
+        this.mdcPropertyMap = currentMdc();
+        this.argumentCount = argumentCount;
+        this.kind1 = kind1;
+        this.bits1 = bits1;
+        this.kind2 = kind2;
+        this.bits2 = bits2;
+        this.fields = fields;
+        this.fieldsGeneration = fields != null ? fields.generation() : 0;
+    }
+
+    /**
+     * Creates a copy of an event with a different message and neither arguments nor fields.
+     */
+    private ExtendedLoggingEvent(ExtendedLoggingEvent source, String message) {
+        this.logger = source.logger;
+        this.callerBoundary = source.callerBoundary;
+        this.level = source.level;
+        this.message = message;
+        this.marker = source.marker;
+        this.throwableProxy = source.throwableProxy;
+        this.timeStamp = source.timeStamp;
+        this.threadName = source.threadName;
+        this.mdcPropertyMap = source.mdcPropertyMap;
+        this.argumentCount = 0;
+        this.kind1 = 0;
+        this.bits1 = 0L;
+        this.kind2 = 0;
+        this.bits2 = 0L;
+        this.fieldsGeneration = 0;
+        this.callerData = source.callerData;
+    }
+
+    private static IThrowableProxy proxyOf(Logger logger, Throwable throwable) {
+        ThrowableProxy proxy = new ThrowableProxy(throwable);
+        if (logger.getLoggerContext().isPackagingDataEnabled()) {
+            proxy.calculatePackagingData();
+        }
+        return proxy;
+    }
+
+    /**
+     * Returns the MDC of the calling thread. The logback adapter hands out its current map, which it never
+     * modifies, so this does not copy.
+     */
+    private static Map<String, String> currentMdc() {
+        MDCAdapter adapter = MDC.getMDCAdapter();
+        Map<String, String> map = adapter instanceof LogbackMDCAdapter
+                ? ((LogbackMDCAdapter) adapter).getPropertyMap()
+                : adapter.getCopyOfContextMap();
+        return map != null ? map : Collections.<String, String>emptyMap();
+    }
+
+    /**
+     * Appends the formatted message to a builder, following the placeholder and escaping rules of SLF4J.
+     * Appending primitives to a StringBuilder does not allocate.
+     *
+     * @param builder the builder to append to
+     * @return the same builder
+     */
+    StringBuilder formatMessageTo(StringBuilder builder) {
+        if (message == null) {
+            builder.append((String) null);
+            return appendFields(builder);
+        }
+        int start = 0;
+        int argumentIndex = 0;
+        while (argumentIndex < argumentCount) {
+            int delimiter = message.indexOf(DELIMITER, start);
+            if (delimiter < 0) {
+                break;
+            }
+            if (isEscaped(delimiter)) {
+                if (isEscaped(delimiter - 1)) {
+                    // A double escape is a literal backslash followed by a placeholder
+                    builder.append(message, start, delimiter - 1);
+                    appendArgument(builder, argumentIndex++);
+                } else {
+                    builder.append(message, start, delimiter - 1).append('{');
+                    start = delimiter + 1;
+                    continue;
+                }
+            } else {
+                builder.append(message, start, delimiter);
+                appendArgument(builder, argumentIndex++);
+            }
+            start = delimiter + DELIMITER.length();
+        }
+        builder.append(message, start, message.length());
+        return appendFields(builder);
+    }
+
+    private StringBuilder appendFields(StringBuilder builder) {
+        EventFields eventFields = fields;
+        if (eventFields != null && eventFields.generation() == fieldsGeneration) {
+            eventFields.appendTo(builder, message != null && !message.isEmpty());
+        }
+        return builder;
+    }
+
+    /**
+     * Returns this event in a form that survives serialization through {@link ch.qos.logback.classic.spi.LoggingEventVO}, which keeps only
+     * the message pattern and the arguments: events with fields are copied with their formatted message as the
+     * message.
+     *
+     * @return this event, or a copy with the fields formatted into the message
+     */
+    ILoggingEvent flattened() {
+        EventFields eventFields = fields;
+        if (eventFields == null || eventFields.isEmpty()) {
+            return this;
+        }
+        return new ExtendedLoggingEvent(this, getFormattedMessage());
+    }
+
+    private boolean isEscaped(int index) {
+        return index > 0 && message.charAt(index - 1) == ESCAPE_CHAR;
+    }
+
+    private void appendArgument(StringBuilder builder, int index) {
+        if (index == 0) {
+            appendValue(builder, kind1, bits1);
+        } else {
+            appendValue(builder, kind2, bits2);
+        }
+    }
+
+    /**
+     * Appends one value given as its kind and bits.
+     *
+     * @param builder the builder to append to
+     * @param kind    the kind of the value
+     * @param bits    the bits of the value
+     */
+    static void appendValue(StringBuilder builder, byte kind, long bits) {
+        switch (kind) {
+            case DOUBLE:
+                builder.append(Double.longBitsToDouble(bits));
+                break;
+            case FLOAT:
+                builder.append(Float.intBitsToFloat((int) bits));
+                break;
+            case CHAR:
+                builder.append((char) bits);
+                break;
+            case LONG:
+            default:
+                builder.append(bits);
+                break;
+        }
+    }
+
+    /**
+     * Boxes one argument given as its kind and bits.
+     *
+     * @param kind the kind of the argument
+     * @param bits the bits of the argument
+     * @return the boxed argument
+     */
+    static Object box(byte kind, long bits) {
+        switch (kind) {
+            case DOUBLE:
+                return Double.longBitsToDouble(bits);
+            case FLOAT:
+                return Float.intBitsToFloat((int) bits);
+            case CHAR:
+                return (char) bits;
+            case LONG:
+            default:
+                return bits;
+        }
+    }
+
+    @Override
+    public String getThreadName() {
+        return threadName;
+    }
+
+    @Override
+    public Level getLevel() {
+        return level;
+    }
+
+    @Override
+    public String getMessage() {
+        return message;
+    }
+
+    @Override
+    public Object[] getArgumentArray() {
+        if (argumentArray == null && argumentCount > 0) {
+            argumentArray = argumentCount == 1
+                    ? new Object[]{box(kind1, bits1)}
+                    : new Object[]{box(kind1, bits1), box(kind2, bits2)};
+        }
+        return argumentArray;
+    }
+
+    @Override
+    public String getFormattedMessage() {
+        if (formattedMessage == null) {
+            formattedMessage = formatMessageTo(new StringBuilder(message != null ? message.length() + 32 : 4)).toString();
+        }
+        return formattedMessage;
+    }
+
+    @Override
+    public String getLoggerName() {
+        return logger.getName();
+    }
+
+    @Override
+    public LoggerContextVO getLoggerContextVO() {
+        return logger.getLoggerContext().getLoggerContextRemoteView();
+    }
+
+    @Override
+    public IThrowableProxy getThrowableProxy() {
+        return throwableProxy;
+    }
+
+    @Override
+    public StackTraceElement[] getCallerData() {
+        if (callerData == null) {
+            LoggerContext context = logger.getLoggerContext();
+            callerData = CallerData.extract(new Throwable(), callerBoundary,
+                    context.getMaxCallerDataDepth(), context.getFrameworkPackages());
+        }
+        return callerData;
+    }
+
+    @Override
+    public boolean hasCallerData() {
+        return callerData != null;
+    }
+
+    @Override
+    public Marker getMarker() {
+        return marker;
+    }
+
+    @Override
+    public Map<String, String> getMDCPropertyMap() {
+        return mdcPropertyMap;
+    }
+
+    /**
+     * @deprecated Replaced by {@link #getMDCPropertyMap()}
+     */
+    @Override
+    @Deprecated
+    public Map<String, String> getMdc() {
+        return mdcPropertyMap;
+    }
+
+    @Override
+    public long getTimeStamp() {
+        return timeStamp;
+    }
+
+    /**
+     * Does nothing: the thread name and MDC are captured when the event is created, and the arguments
+     * stay unboxed while the event waits in the asynchronous queue. Fields are copied by {@link #detachFields()}.
+     */
+    @Override
+    public void prepareForDeferredProcessing() {
+    }
+
+    /**
+     * Copies the fields away from the builder that created the event, so that the event can be processed after
+     * the builder is reused. Must be called on the logging thread.
+     */
+    void detachFields() {
+        EventFields eventFields = fields;
+        if (eventFields != null && !eventFields.isEmpty()) {
+            fields = eventFields.generation() == fieldsGeneration ? eventFields.copy() : null;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "[" + level + "] " + getFormattedMessage();
+    }
+}
@@ -0,0 +1,21 @@
+package com.atanu.logging;
+
+/**
+ * How DynamicAppender writes the per-application, per-level log files.
+ */
+public enum FileSinkType {
+    /**
+     * Logback's RollingFileAppender, writing and flushing an OutputStream once per event.
+     */
+    STREAM,
+
+    /**
+     * BatchingFileAppender, collecting events in a direct buffer and writing each batch with one FileChannel write.
+     */
+    BATCHED_CHANNEL,
+
+    /**
+     * MappedSegmentAppender, copying events into pre-mapped file segments of the maximum file size without locking.
+     */
+    MEMORY_MAPPED
+}
@@ -0,0 +1,115 @@
+package com.atanu.logging;
+
+import ch.qos.logback.core.spi.ContextAware;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Tracks how much of one log file has been forced to disk and runs the forces for the configured durability mode.
+ * <p>
+ * Every write takes a ticket. A writer waiting for its ticket to become durable either finds a force already
+ * covering it, or becomes the leader and forces everything written so far, so concurrent writers share one force
+ * instead of queueing up for their own.
+ */
+class FileSyncer {
+    private final ContextAware owner;
+    private final SyncableAppender appender;
+    private final String appName;
+    private final DurabilityMode durabilityMode;
+    private final AtomicLong written = new AtomicLong(0);
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition syncDone = lock.newCondition();
+    private volatile long synced;
+    private boolean syncing;
+
+    /**
+     * Creates a syncer for one log file.
+     *
+     * @param owner          the component that owns the syncer, used for status reporting
+     * @param appender       the appender writing the file
+     * @param appName        the application the file belongs to, used for metrics
+     * @param durabilityMode the durability mode the forces are reported under
+     */
+    FileSyncer(ContextAware owner, SyncableAppender appender, String appName, DurabilityMode durabilityMode) {
+        this.owner = owner;
+        this.appender = appender;
+        this.appName = appName;
+        this.durabilityMode = durabilityMode;
+    }
+
+    /**
+     * Returns the durability mode of the file.
+     *
+     * @return the durability mode
+     */
+    DurabilityMode getDurabilityMode() {
+        return durabilityMode;
+    }
+
+    /**
+     * Records a completed write.
+     *
+     * @return the ticket of the write, to pass to {@link #awaitSynced(long)}
+     */
+    long markWritten() {
+        return written.incrementAndGet();
+    }
+
+    /**
+     * Blocks until the write with the given ticket has been forced to disk, forcing the file if no other
+     * thread is already doing so.
+     *
+     * @param ticket the ticket returned by {@link #markWritten()}
+     */
+    void awaitSynced(long ticket) {
+        if (synced >= ticket) {
+            return;
+        }
+        lock.lock();
+        try {
+            while (synced < ticket) {
+                if (syncing) {
+                    syncDone.awaitUninterruptibly();
+                    continue;
+                }
+                syncing = true;
+                long target = written.get();
+                lock.unlock();
+                try {
+                    sync();
+                } finally {
+                    lock.lock();
+                    syncing = false;
+                    // A failed force is reported, not retried, so that waiting writers are never stuck
+                    synced = Math.max(synced, target);
+                    syncDone.signalAll();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Forces the file to disk if anything was written since the last force.
+     */
+    void syncIfDirty() {
+        long target = written.get();
+        if (synced < target) {
+            awaitSynced(target);
+        }
+    }
+
+    private void sync() {
+        long start = System.nanoTime();
+        try {
+            appender.sync();
+            LoggerMonitor.trackSync(appName, durabilityMode, System.nanoTime() - start);
+        } catch (IOException | RuntimeException e) {
+            owner.addError("FileSyncer: Failed to force log file of " + appName + " to disk", e);
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.atanu.logging;
+
+import ch.qos.logback.core.Context;
+import ch.qos.logback.core.rolling.helper.FileNamePattern;
+import ch.qos.logback.core.spi.ContextAware;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * GZIP-compresses rolled log files on dedicated low-priority background threads.
+ * <p>
+ * Compression jobs are queued without bound, so the thread that rolled the file never waits for them.
+ * A file is compressed into a temporary file which is then renamed to {@code <file>.gz}, so retention
+ * never sees a half-written archive, and the uncompressed file is deleted afterwards. Files a previous run left
+ * uncompressed are compressed synchronously when the rolling policy starts.
+ */
+class LogCompressor {
+    static final String GZ_SUFFIX = ".gz";
+
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    private final ContextAware owner;
+    private final int compressionLevel;
+    private final int threads;
+    private ExecutorService executor;
+
+    /**
+     * Creates a compressor; call {@link #start()} before submitting files.
+     *
+     * @param owner            the component that owns the compressor, used for status reporting
+     * @param compressionLevel the Deflater compression level, from 0 to 9, or -1 for the default level
+     * @param threads          the number of background compression threads
+     */
+    LogCompressor(ContextAware owner, int compressionLevel, int threads) {
+        this.owner = owner;
+        this.compressionLevel = compressionLevel;
+        this.threads = Math.max(1, threads);
+    }
+
+    /**
+     * Starts the background compression threads.
+     */
+    void start() {
+        AtomicInteger threadCount = new AtomicInteger(0);
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "DynamicAppender-compress-" + threadCount.getAndIncrement());
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+    }
+
+    /**
+     * Stops accepting files and waits for the queued compressions to finish.
+     *
+     * @param timeoutMillis how long to wait for the queued compressions
+     */
+    void stop(long timeoutMillis) {
+        if (executor == null) {
+            return;
+        }
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                owner.addWarn("LogCompressor: Compression of rolled log files still running after " + timeoutMillis + "ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        executor = null;
+    }
+
+    /**
+     * Queues a rolled log file for compression.
+     *
+     * @param file the rolled log file
+     */
+    void compressAsync(File file) {
+        ExecutorService compressionExecutor = executor;
+        if (compressionExecutor == null) {
+            owner.addWarn("LogCompressor: Not started; leaving " + file + " uncompressed");
+            return;
+        }
+        try {
+            compressionExecutor.execute(() -> compress(file));
+        } catch (RejectedExecutionException e) {
+            owner.addWarn("LogCompressor: Stopped; leaving " + file + " uncompressed");
+        }
+    }
+
+    /**
+     * Compresses the rolled files that a previous run did not get to compress, on the calling thread.
+     * <p>
+     * This must finish before the rolling policy starts: SizeAndTimeBasedFNATP picks the next file index from the
+     * compressed archives only, so an uncompressed leftover would otherwise have its index handed out again, and
+     * the next rollover would rename the active file over it.
+     *
+     * @param uncompressedPattern the rolled file name pattern without the compression suffix
+     * @param context             the context used to parse the pattern
+     */
+    void compressLeftovers(String uncompressedPattern, Context context) {
+        File patternFile = new File(uncompressedPattern);
+        File folder = patternFile.getAbsoluteFile().getParentFile();
+        File[] files = folder != null ? folder.listFiles() : null;
+        if (files == null) {
+            return;
+        }
+        Pattern rolledName = Pattern.compile(new FileNamePattern(patternFile.getName(), context).toRegex());
+        for (File file : files) {
+            if (file.isFile() && rolledName.matcher(file.getName()).matches()) {
+                compress(file);
+            }
+        }
+    }
+
+    private void compress(File file) {
+        if (!file.isFile()) {
+            return;
+        }
+        File target = new File(file.getPath() + GZ_SUFFIX);
+        File temporary = new File(file.getPath() + GZ_SUFFIX + ".tmp");
+        try {
+            try (InputStream in = new FileInputStream(file);
+                 OutputStream out = new LeveledGZIPOutputStream(new FileOutputStream(temporary), compressionLevel)) {
+                byte[] buffer = new byte[COPY_BUFFER_SIZE];
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    out.write(buffer, 0, read);
+                }
+            }
+            if (!temporary.renameTo(target)) {
+                throw new IOException("Failed to rename " + temporary + " to " + target);
+            }
+            if (!file.delete()) {
+                owner.addWarn("LogCompressor: Failed to delete " + file + " after compressing it");
+            }
+        } catch (IOException e) {
+            owner.addError("LogCompressor: Failed to compress " + file, e);
+            temporary.delete();
+        }
+    }
+
+    /**
+     * GZIPOutputStream with a configurable Deflater level.
+     */
+    private static final class LeveledGZIPOutputStream extends GZIPOutputStream {
+        LeveledGZIPOutputStream(OutputStream out, int level) throws IOException {
+            super(out, COPY_BUFFER_SIZE);
+            def.setLevel(level);
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package com.atanu.logging;
+
+import ch.qos.logback.classic.Level;
+import org.slf4j.Marker;
+
+/**
+ * Fluent builder for a logging event with structured fields, obtained from {@link ExtendedLogger#atInfo()} and
+ * the other {@code at} methods:
+ * <pre>
+ * logger.atInfo().add("orderId", orderId).add("latencyMillis", millis).withMarker(LogMarkers.EMAIL).log("Order placed");
+ * </pre>
+ * Each thread reuses one builder, and the fields are kept in arrays rather than a Map, so building an event
+ * does not allocate beyond the event itself. Primitive values are not boxed. When the level is disabled, the
+ * {@code at} methods return a shared builder that ignores every call.
+ * <p>
+ * A builder is only valid until {@link #log(String)} or {@link #log()} is called, and must not be kept or passed
+ * to another thread. Appenders outside this library that keep events after appending them see the message
+ * without its fields.
+ */
+public final class LogEventBuilder {
+    static final LogEventBuilder DISABLED = new LogEventBuilder();
+
+    private static final ThreadLocal<LogEventBuilder> BUILDERS = ThreadLocal.withInitial(LogEventBuilder::new);
+
+    private final EventFields fields = new EventFields();
+    // The logger the event is built for; null while the builder is idle, and always for the disabled builder
+    private ExtendedLogger logger;
+    private Level level;
+    private Marker marker;
+    private Throwable throwable;
+
+    private LogEventBuilder() {
+    }
+
+    /**
+     * Returns the builder of the calling thread, prepared for a new event. If that builder is still in use,
+     * because an event is being built further up the stack or a builder was abandoned without logging,
+     * a new builder replaces it.
+     *
+     * @param logger the logger the event is built for
+     * @param level  the level of the event
+     * @return the builder
+     */
+    static LogEventBuilder acquire(ExtendedLogger logger, Level level) {
+        LogEventBuilder builder = BUILDERS.get();
+        if (builder.logger != null) {
+            builder = new LogEventBuilder();
+            BUILDERS.set(builder);
+        }
+        builder.logger = logger;
+        builder.level = level;
+        return builder;
+    }
+
+    /**
+     * Adds a field.
+     *
+     * @param key   the name of the field
+     * @param value the value of the field, may be null
+     * @return this builder
+     */
+    public LogEventBuilder add(String key, Object value) {
+        if (logger != null) {
+            fields.add(key, value);
+        }
+        return this;
+    }
+
+    /**
+     * Adds a field with a long value, without boxing it.
+     *
+     * @param key   the name of the field
+     * @param value the value of the field
+     * @return this builder
+     */
+    public LogEventBuilder add(String key, long value) {
+        if (logger != null) {
+            fields.add(key, ExtendedLoggingEvent.LONG, value);
+        }
+        return this;
+    }
+
+    /**
+     * Adds a field with a double value, without boxing it.
+     *
+     * @param key   the name of the field
+     * @param value the value of the field
+     * @return this builder
+     */
+    public LogEventBuilder add(String key, double value) {
+        if (logger != null) {
+            fields.add(key, ExtendedLoggingEvent.DOUBLE, Double.doubleToRawLongBits(value));
+        }
+        return this;
+    }
+
+    /**
+     * Adds a field with a float value, without boxing it.
+     *
+     * @param key   the name of the field
+     * @param value the value of the field
+     * @return this builder
+     */
+    public LogEventBuilder add(String key, float value) {
+        if (logger != null) {
+            fields.add(key, ExtendedLoggingEvent.FLOAT, Float.floatToRawIntBits(value));
+        }
+        return this;
+    }
+
+    /**
+     * Adds a field with a char value, without boxing it.
+     *
+     * @param key   the name of the field
+     * @param value the value of the field
+     * @return this builder
+     */
+    public LogEventBuilder add(String key, char value) {
+        if (logger != null) {
+            fields.add(key, ExtendedLoggingEvent.CHAR, value);
+        }
+        return this;
+    }
+
+    /**
+     * Adds a field with a boolean value.
+     *
+     * @param key   the name of the field
+     * @param value the value of the field
+     * @return this builder
+     */
+    public LogEventBuilder add(String key, boolean value) {
+        if (logger != null) {
+            fields.add(key, Boolean.valueOf(value));
+        }
+        return this;
+    }
+
+    /**
+     * Sets the marker of the event, such as {@link LogMarkers#EMAIL}. If called more than once, the last marker
+     * is used.
+     *
+     * @param marker the marker
+     * @return this builder
+     */
+    public LogEventBuilder withMarker(Marker marker) {
+        if (logger != null) {
+            this.marker = marker;
+        }
+        return this;
+    }
+
+    /**
+     * Sets the throwable of the event.
+     *
+     * @param throwable the throwable
+     * @return this builder
+     */
+    public LogEventBuilder withThrowable(Throwable throwable) {
+        if (logger != null) {
+            this.throwable = throwable;
+        }
+        return this;
+    }
+
+    /**
+     * Logs the event with a message. The message is logged as is, followed by the fields as
+     * {@code key=value} pairs. The builder must not be used afterwards.
+     *
+     * @param message the message
+     */
+    public void log(String message) {
+        ExtendedLogger owner = logger;
+        if (owner == null) {
+            return;
+        }
+        try {
+            owner.logEvent(level, marker, message, throwable, fields);
+        } finally {
+            marker = null;
+            throwable = null;
+            level = null;
+            fields.clear();
+            logger = null;
+        }
+    }
+
+    /**
+     * Logs the event with only its fields. The builder must not be used afterwards.
+     */
+    public void log() {
+        log("");
+    }
+}
@@ -0,0 +1,186 @@
+package com.atanu.logging;
+
+import ch.qos.logback.classic.net.server.HardenedLoggingEventInputStream;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEventVO;
+import ch.qos.logback.core.spi.ContextAware;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Overflow area for the asynchronous logging queue.
+ * <p>
+ * Events that do not fit into the ring buffer are serialized into a spill file. Once the queue has drained,
+ * a consumer thread swaps the file out and replays its events into the regular write path.
+ * <p>
+ * Spill files found in the directory that no spill area of this JVM owns were left behind by a crash. They are
+ * replayed first, oldest first, and new spill files are numbered after them, so they are never overwritten.
+ * Since anyone able to write to the log directory can place files there, spill files are read with logback's
+ * hardened stream, which only deserializes logging event classes; a file that cannot be read is skipped with a
+ * warning.
+ */
+class LogSpillFile {
+    private static final Pattern SPILL_FILE_NAME = Pattern.compile("spill-(\\d{1,9})\\.dat");
+    // Spill files of every spill area in this JVM, from their creation until they are replayed
+    private static final Set<File> OWNED_FILES = ConcurrentHashMap.newKeySet();
+
+    private final ContextAware owner;
+    private final File directory;
+    private final Object lock = new Object();
+    private final Deque<File> leftoverFiles = new ArrayDeque<>();
+    private ObjectOutputStream output;
+    private File activeFile;
+    private int generation = 0;
+    private volatile long pendingEvents = 0;
+    private volatile boolean leftoversPending;
+
+    /**
+     * Creates a spill file area in the given directory, taking over the spill files a crash left there.
+     *
+     * @param owner     the component that owns the spill area, used for status reporting
+     * @param directory the directory holding spill files
+     */
+    LogSpillFile(ContextAware owner, File directory) {
+        this.owner = owner;
+        this.directory = directory.getAbsoluteFile();
+        File[] files = this.directory.listFiles((dir, name) -> SPILL_FILE_NAME.matcher(name).matches());
+        if (files != null) {
+            Arrays.sort(files, Comparator.comparingInt(LogSpillFile::generationOf));
+            for (File file : files) {
+                generation = Math.max(generation, generationOf(file) + 1);
+                // Files of a spill area that is still running, such as the one being replaced, stay with it
+                if (OWNED_FILES.add(file)) {
+                    leftoverFiles.add(file);
+                }
+            }
+            leftoversPending = !leftoverFiles.isEmpty();
+        }
+    }
+
+    /**
+     * Serializes an event into the active spill file.
+     *
+     * @param event the logging event
+     * @throws IOException if the event cannot be written
+     */
+    void write(ILoggingEvent event) throws IOException {
+        LoggingEventVO eventVO = LoggingEventVO.build(event instanceof ExtendedLoggingEvent
+                ? ((ExtendedLoggingEvent) event).flattened()
+                : event);
+        synchronized (lock) {
+            if (output == null) {
+                if (!directory.exists() && !directory.mkdirs()) {
+                    throw new IOException("Failed to create spill directory " + directory);
+                }
+                do {
+                    activeFile = new File(directory, "spill-" + (generation++) + ".dat");
+                } while (!OWNED_FILES.add(activeFile));
+                output = new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(activeFile)));
+            }
+            output.writeObject(eventVO);
+            // Drop back-references so the stream does not retain every spilled event
+            output.reset();
+            pendingEvents++;
+        }
+    }
+
+    /**
+     * Checks whether spilled events are waiting to be replayed.
+     *
+     * @return true if the spill file holds events
+     */
+    boolean hasPendingEvents() {
+        return pendingEvents > 0 || leftoversPending;
+    }
+
+    /**
+     * Replays the spill files left by a crash, then detaches the active spill file and replays its events,
+     * oldest first. Events spilled while the replay runs go to a fresh file.
+     *
+     * @param sink the callback receiving every replayed event
+     * @return the number of events replayed
+     * @throws IOException if the active spill file cannot be closed
+     */
+    long replay(Consumer<ILoggingEvent> sink) throws IOException {
+        long replayed = 0;
+        File replayFile;
+        while ((replayFile = nextLeftoverFile()) != null) {
+            replayed += replay(replayFile, sink);
+        }
+        synchronized (lock) {
+            if (output == null) {
+                return replayed;
+            }
+            output.close();
+            output = null;
+            replayFile = activeFile;
+            activeFile = null;
+            pendingEvents = 0;
+        }
+        return replayed + replay(replayFile, sink);
+    }
+
+    private File nextLeftoverFile() {
+        if (!leftoversPending) {
+            return null;
+        }
+        synchronized (lock) {
+            File file = leftoverFiles.poll();
+            leftoversPending = !leftoverFiles.isEmpty();
+            return file;
+        }
+    }
+
+    /**
+     * Replays the events of a spill file and deletes it. A damaged or foreign file is replayed up to the first
+     * event that cannot be read.
+     *
+     * @param replayFile the spill file, no longer written to
+     * @param sink       the callback receiving every replayed event
+     * @return the number of events replayed
+     */
+    private long replay(File replayFile, Consumer<ILoggingEvent> sink) {
+        long replayed = 0;
+        try (HardenedLoggingEventInputStream input = new HardenedLoggingEventInputStream(
+                new BufferedInputStream(new FileInputStream(replayFile)))) {
+            while (true) {
+                sink.accept((ILoggingEvent) input.readObject());
+                replayed++;
+            }
+        } catch (EOFException e) {
+            // The end of the file, or a file a crash left without its stream header
+        } catch (IOException | ClassNotFoundException | ClassCastException e) {
+            owner.addWarn("LogSpillFile: Skipped the rest of spill file " + replayFile + " after " + replayed
+                    + " events", e);
+        } finally {
+            if (replayFile.delete()) {
+                OWNED_FILES.remove(replayFile);
+            } else {
+                // Stays owned, so that no spill area replays it again
+                replayFile.deleteOnExit();
+            }
+        }
+        return replayed;
+    }
+
+    private static int generationOf(File file) {
+        Matcher matcher = SPILL_FILE_NAME.matcher(file.getName());
+        return matcher.matches() ? Integer.parseInt(matcher.group(1)) : -1;
+    }
+}
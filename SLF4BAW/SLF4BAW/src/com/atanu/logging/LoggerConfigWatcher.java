@@ -0,0 +1,478 @@
+package com.atanu.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.core.util.FileSize;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+/**
+ * Reconfigures applications from per-application configuration files while they run.
+ * <p>
+ * A configuration file is a properties file, or a JSON object when its name ends in {@code .json}. Its keys are the
+ * names of the {@link LoggerOptions.Builder} methods, for example {@code logPath}, {@code maxFileSize} or
+ * {@code logPattern}. The files are watched with a {@link WatchService}; changes are debounced, so that an editor
+ * saving a file in several steps causes a single reload, and only the settings whose value changed are applied
+ * through the hot-reload path of {@link ApplicationLoggerFactory}. Removing a setting from the file restores the
+ * value the application had when watching started.
+ * <p>
+ * When the {@code LOG_CONFIG_DIR} system property is set, every application is watched automatically, using
+ * {@code <appName>.properties} in that directory if it exists and {@code <appName>.json} otherwise.
+ * Reload latency and failures are reported by {@link LoggerMonitor}.
+ */
+public class LoggerConfigWatcher {
+    private static final Logger logger = LoggerFactory.getLogger(LoggerConfigWatcher.class);
+    private static final String CONFIG_DIR_PROPERTY = "LOG_CONFIG_DIR";
+    private static final long DEFAULT_DEBOUNCE_MILLIS = 500;
+    private static final Map<String, Setting> SETTINGS = new LinkedHashMap<>();
+    private static final Map<Path, WatchedFile> WATCHED_FILES = new ConcurrentHashMap<>();
+    private static final Map<String, WatchedFile> WATCHED_APPS = new ConcurrentHashMap<>();
+    // Guarded by the class monitor, like the watch service and its thread
+    private static final Map<Path, WatchKey> WATCHED_DIRECTORIES = new HashMap<>();
+    private static WatchService watchService;
+    private static volatile long debounceMillis = DEFAULT_DEBOUNCE_MILLIS;
+
+    static {
+        setting("logPath", LoggerOptions.Builder::logPath, (b, o) -> b.logPath(o.getLogPath()));
+        setting("maxFileSize", (b, v) -> b.maxFileSize(parseFileSize(v)), (b, o) -> b.maxFileSize(o.getMaxFileSize()));
+        setting("totalSizeCap", (b, v) -> b.totalSizeCap(parseFileSize(v)), (b, o) -> b.totalSizeCap(o.getTotalSizeCap()));
+        setting("logPattern", LoggerOptions.Builder::logPattern, (b, o) -> b.logPattern(o.getLogPattern()));
+        setting("level", (b, v) -> b.level(parseLevel(v)), (b, o) -> b.level(o.getLevel()));
+        setting("garbageFreeEncoding", (b, v) -> b.garbageFreeEncoding(parseBoolean(v)),
+                (b, o) -> b.garbageFreeEncoding(o.isGarbageFreeEncoding()));
+        setting("fileSinkType", (b, v) -> b.fileSinkType(parseEnum(FileSinkType.class, v)),
+                (b, o) -> b.fileSinkType(o.getFileSinkType()));
+        setting("batchSize", (b, v) -> b.batchSize(Integer.parseInt(v)), (b, o) -> b.batchSize(o.getBatchSize()));
+        setting("flushIntervalMillis", (b, v) -> b.flushIntervalMillis(Long.parseLong(v)),
+                (b, o) -> b.flushIntervalMillis(o.getFlushIntervalMillis()));
+        setting("durabilityMode", (b, v) -> b.durabilityMode(parseEnum(DurabilityMode.class, v)),
+                (b, o) -> b.durabilityMode(o.getDurabilityMode()));
+        setting("durabilityIntervalMillis", (b, v) -> b.durabilityIntervalMillis(Long.parseLong(v)),
+                (b, o) -> b.durabilityIntervalMillis(o.getDurabilityIntervalMillis()));
+        setting("compressRolledFiles", (b, v) -> b.compressRolledFiles(parseBoolean(v)),
+                (b, o) -> b.compressRolledFiles(o.isCompressionEnabled()));
+        setting("compressionLevel", (b, v) -> b.compressionLevel(Integer.parseInt(v)),
+                (b, o) -> b.compressionLevel(o.getCompressionLevel()));
+        setting("compressionThreads", (b, v) -> b.compressionThreads(Integer.parseInt(v)),
+                (b, o) -> b.compressionThreads(o.getCompressionThreads()));
+        setting("enableAsync", (b, v) -> b.enableAsync(parseBoolean(v)), (b, o) -> b.enableAsync(o.isAsyncEnabled()));
+        setting("asyncQueueSize", (b, v) -> b.asyncQueueSize(Integer.parseInt(v)),
+                (b, o) -> b.asyncQueueSize(o.getAsyncQueueSize()));
+        setting("asyncConsumerThreads", (b, v) -> b.asyncConsumerThreads(Integer.parseInt(v)),
+                (b, o) -> b.asyncConsumerThreads(o.getAsyncConsumerThreads()));
+        setting("overflowPolicy", (b, v) -> b.overflowPolicy(parseEnum(OverflowPolicy.class, v)),
+                (b, o) -> b.overflowPolicy(o.getOverflowPolicy()));
+        setting("enableEmail", (b, v) -> b.enableEmail(parseBoolean(v)), (b, o) -> b.enableEmail(o.isEmailEnabled()));
+        setting("smtpHost", LoggerOptions.Builder::smtpHost, (b, o) -> b.smtpHost(o.getSmtpHost()));
+        setting("smtpPort", (b, v) -> b.smtpPort(Integer.parseInt(v)), (b, o) -> b.smtpPort(o.getSmtpPort()));
+        setting("smtpUsername", LoggerOptions.Builder::smtpUsername, (b, o) -> b.smtpUsername(o.getSmtpUsername()));
+        setting("smtpPassword", LoggerOptions.Builder::smtpPassword, (b, o) -> b.smtpPassword(o.getSmtpPassword()));
+        setting("emailFrom", LoggerOptions.Builder::emailFrom, (b, o) -> b.emailFrom(o.getEmailFrom()));
+        setting("emailTo", LoggerOptions.Builder::emailTo, (b, o) -> b.emailTo(o.getEmailTo()));
+        setting("emailSubject", LoggerOptions.Builder::emailSubject, (b, o) -> b.emailSubject(o.getEmailSubject()));
+        setting("emailQueueSize", (b, v) -> b.emailQueueSize(Integer.parseInt(v)),
+                (b, o) -> b.emailQueueSize(o.getEmailQueueSize()));
+        setting("emailWorkerThreads", (b, v) -> b.emailWorkerThreads(Integer.parseInt(v)),
+                (b, o) -> b.emailWorkerThreads(o.getEmailWorkerThreads()));
+        setting("emailSendTimeoutMillis", (b, v) -> b.emailSendTimeoutMillis(Long.parseLong(v)),
+                (b, o) -> b.emailSendTimeoutMillis(o.getEmailSendTimeoutMillis()));
+        setting("emailDigestWindowMillis", (b, v) -> b.emailDigestWindowMillis(Long.parseLong(v)),
+                (b, o) -> b.emailDigestWindowMillis(o.getEmailDigestWindowMillis()));
+        setting("emailDigestMaxSamples", (b, v) -> b.emailDigestMaxSamples(Integer.parseInt(v)),
+                (b, o) -> b.emailDigestMaxSamples(o.getEmailDigestMaxSamples()));
+        setting("emailDedupTtlMillis", (b, v) -> b.emailDedupTtlMillis(Long.parseLong(v)),
+                (b, o) -> b.emailDedupTtlMillis(o.getEmailDedupTtlMillis()));
+        setting("emailDedupCapacity", (b, v) -> b.emailDedupCapacity(Integer.parseInt(v)),
+                (b, o) -> b.emailDedupCapacity(o.getEmailDedupCapacity()));
+        setting("emailRateLimitPerMinute", (b, v) -> b.emailRateLimitPerMinute(Integer.parseInt(v)),
+                (b, o) -> b.emailRateLimitPerMinute(o.getEmailRateLimitPerMinute()));
+        setting("emailRateLimitBurst", (b, v) -> b.emailRateLimitBurst(Integer.parseInt(v)),
+                (b, o) -> b.emailRateLimitBurst(o.getEmailRateLimitBurst()));
+        setting("emailBreakerFailureThreshold", (b, v) -> b.emailBreakerFailureThreshold(Integer.parseInt(v)),
+                (b, o) -> b.emailBreakerFailureThreshold(o.getEmailBreakerFailureThreshold()));
+        setting("emailBreakerOpenMillis", (b, v) -> b.emailBreakerOpenMillis(Long.parseLong(v)),
+                (b, o) -> b.emailBreakerOpenMillis(o.getEmailBreakerOpenMillis()));
+    }
+
+    /**
+     * One setting that can be read from a configuration file.
+     */
+    private static final class Setting {
+        private final BiConsumer<LoggerOptions.Builder, String> parser;
+        private final BiConsumer<LoggerOptions.Builder, LoggerOptions> restorer;
+
+        private Setting(BiConsumer<LoggerOptions.Builder, String> parser,
+                        BiConsumer<LoggerOptions.Builder, LoggerOptions> restorer) {
+            this.parser = parser;
+            this.restorer = restorer;
+        }
+    }
+
+    /**
+     * The configuration file of one application and the settings last applied from it.
+     */
+    private static final class WatchedFile {
+        private final String appName;
+        private final Path file;
+        // The options the application had when watching started, restored for settings removed from the file
+        private final LoggerOptions baseOptions;
+        private Map<String, String> appliedSettings = Collections.emptyMap();
+        // Only touched by the watcher thread; 0 when no change is pending
+        private long dueAtNanos;
+        private long firstChangeNanos;
+
+        private WatchedFile(String appName, Path file, LoggerOptions baseOptions) {
+            this.appName = appName;
+            this.file = file;
+            this.baseOptions = baseOptions;
+        }
+    }
+
+    private LoggerConfigWatcher() {
+    }
+
+    /**
+     * Applies the configuration file of an application and keeps watching it for changes.
+     * The file does not have to exist yet; it is applied as soon as it is created.
+     *
+     * @param appName    the name of the application
+     * @param configFile the path of the properties or JSON configuration file
+     */
+    public static void watch(String appName, String configFile) {
+        if (appName == null || appName.trim().isEmpty()) {
+            throw new IllegalArgumentException("Application name cannot be null or empty");
+        }
+        if (configFile == null || configFile.trim().isEmpty()) {
+            throw new IllegalArgumentException("Configuration file cannot be null or empty");
+        }
+        Path file = Paths.get(configFile).toAbsolutePath().normalize();
+        LoggerOptions baseOptions = ApplicationLoggerFactory.getOptions(appName);
+        WatchedFile watchedFile = new WatchedFile(appName, file,
+                baseOptions != null ? baseOptions : new LoggerOptions.Builder(appName).build());
+        if (WATCHED_APPS.putIfAbsent(appName, watchedFile) != null) {
+            logger.warn("Configuration of app={} is already watched; ignoring {}", appName, file);
+            return;
+        }
+        try {
+            registerDirectory(file.getParent());
+        } catch (IOException e) {
+            WATCHED_APPS.remove(appName);
+            throw new RuntimeException("Failed to watch configuration file: " + file, e);
+        }
+        WATCHED_FILES.put(file, watchedFile);
+        logger.info("Watching configuration file {} for app={}", file, appName);
+        apply(watchedFile, System.nanoTime());
+    }
+
+    /**
+     * Stops watching the configuration file of an application. The application keeps its current configuration.
+     *
+     * @param appName the name of the application
+     */
+    public static void unwatch(String appName) {
+        WatchedFile watchedFile = WATCHED_APPS.remove(appName);
+        if (watchedFile == null) {
+            return;
+        }
+        WATCHED_FILES.remove(watchedFile.file);
+        Path directory = watchedFile.file.getParent();
+        synchronized (LoggerConfigWatcher.class) {
+            boolean directoryInUse = WATCHED_FILES.keySet().stream().anyMatch(f -> directory.equals(f.getParent()));
+            if (!directoryInUse) {
+                WatchKey key = WATCHED_DIRECTORIES.remove(directory);
+                if (key != null) {
+                    key.cancel();
+                }
+            }
+        }
+        logger.info("Stopped watching configuration file {} for app={}", watchedFile.file, appName);
+    }
+
+    /**
+     * Sets how long a configuration file has to stay unchanged before it is applied.
+     *
+     * @param millis the debounce interval in milliseconds
+     */
+    public static void setDebounceMillis(long millis) {
+        if (millis < 0) {
+            throw new IllegalArgumentException("Debounce interval cannot be negative");
+        }
+        debounceMillis = millis;
+    }
+
+    /**
+     * Watches the configuration file of an application in the directory named by the {@code LOG_CONFIG_DIR}
+     * system property. Does nothing when the property is not set or the application is already watched.
+     *
+     * @param appName the name of the application
+     */
+    static void watchConfigDirectory(String appName) {
+        String configDir = System.getProperty(CONFIG_DIR_PROPERTY);
+        if (configDir == null || configDir.isEmpty() || WATCHED_APPS.containsKey(appName)) {
+            return;
+        }
+        Path propertiesFile = Paths.get(configDir, appName + ".properties");
+        Path configFile = Files.exists(propertiesFile) ? propertiesFile : Paths.get(configDir, appName + ".json");
+        try {
+            watch(appName, configFile.toString());
+        } catch (RuntimeException e) {
+            logger.warn("Failed to watch configuration file {} for app={}", configFile, appName, e);
+        }
+    }
+
+    /**
+     * Registers a directory with the watch service, starting the watcher thread on first use.
+     *
+     * @param directory the directory holding configuration files
+     * @throws IOException if the directory cannot be watched
+     */
+    private static synchronized void registerDirectory(Path directory) throws IOException {
+        if (WATCHED_DIRECTORIES.containsKey(directory)) {
+            return;
+        }
+        Files.createDirectories(directory);
+        if (watchService == null) {
+            watchService = FileSystems.getDefault().newWatchService();
+            Thread watcherThread = new Thread(LoggerConfigWatcher::watchLoop, "LoggerConfigWatcher");
+            watcherThread.setDaemon(true);
+            watcherThread.start();
+        }
+        WatchKey key = directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+        WATCHED_DIRECTORIES.put(directory, key);
+    }
+
+    /**
+     * Runs on the watcher thread: collects change events, and applies each changed file once it has been
+     * quiet for the debounce interval.
+     */
+    private static void watchLoop() {
+        WatchService service;
+        synchronized (LoggerConfigWatcher.class) {
+            service = watchService;
+        }
+        try {
+            while (true) {
+                long waitNanos = nanosUntilNextDue();
+                WatchKey key = waitNanos < 0
+                        ? service.take()
+                        : service.poll(waitNanos, TimeUnit.NANOSECONDS);
+                if (key != null) {
+                    collectEvents(key);
+                }
+                applyDueFiles();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e) {
+            // Nothing left to watch
+        }
+    }
+
+    /**
+     * Marks the configuration files touched by the events of a watch key as changed.
+     *
+     * @param key the signalled watch key
+     */
+    private static void collectEvents(WatchKey key) {
+        Path directory = (Path) key.watchable();
+        long now = System.nanoTime();
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                // Events were lost, so every file of the directory may have changed
+                WATCHED_FILES.values().stream()
+                        .filter(w -> directory.equals(w.file.getParent()))
+                        .forEach(w -> markChanged(w, now));
+                continue;
+            }
+            WatchedFile watchedFile = WATCHED_FILES.get(directory.resolve((Path) event.context()));
+            if (watchedFile != null) {
+                markChanged(watchedFile, now);
+            }
+        }
+        key.reset();
+    }
+
+    private static void markChanged(WatchedFile watchedFile, long now) {
+        if (watchedFile.dueAtNanos == 0) {
+            watchedFile.firstChangeNanos = now;
+        }
+        watchedFile.dueAtNanos = now + TimeUnit.MILLISECONDS.toNanos(debounceMillis);
+    }
+
+    /**
+     * Returns how long the watcher thread may wait for the next event before a pending change is due.
+     *
+     * @return the time in nanoseconds, 0 if a change is due, or -1 if no change is pending
+     */
+    private static long nanosUntilNextDue() {
+        long now = System.nanoTime();
+        long wait = -1;
+        for (WatchedFile watchedFile : WATCHED_FILES.values()) {
+            if (watchedFile.dueAtNanos != 0) {
+                long remaining = Math.max(0, watchedFile.dueAtNanos - now);
+                wait = wait < 0 ? remaining : Math.min(wait, remaining);
+            }
+        }
+        return wait;
+    }
+
+    private static void applyDueFiles() {
+        long now = System.nanoTime();
+        for (WatchedFile watchedFile : WATCHED_FILES.values()) {
+            if (watchedFile.dueAtNanos != 0 && watchedFile.dueAtNanos - now <= 0) {
+                watchedFile.dueAtNanos = 0;
+                apply(watchedFile, watchedFile.firstChangeNanos);
+            }
+        }
+    }
+
+    /**
+     * Reads a configuration file and applies the settings that changed since it was last applied.
+     * Invalid files are rejected as a whole, leaving the application's configuration as it was.
+     *
+     * @param watchedFile  the configuration file
+     * @param changedNanos when the change was first seen, used to report the reload latency
+     */
+    private static void apply(WatchedFile watchedFile, long changedNanos) {
+        synchronized (watchedFile) {
+            try {
+                Map<String, String> settings = readSettings(watchedFile.file);
+                Map<String, String> changedSettings = new LinkedHashMap<>();
+                settings.forEach((key, value) -> {
+                    if (!value.equals(watchedFile.appliedSettings.get(key))) {
+                        changedSettings.put(key, value);
+                    }
+                });
+                watchedFile.appliedSettings.keySet().forEach(key -> {
+                    if (!settings.containsKey(key)) {
+                        changedSettings.put(key, null);
+                    }
+                });
+                if (changedSettings.isEmpty()) {
+                    return;
+                }
+
+                ApplicationLoggerFactory.reconfigure(watchedFile.appName, current -> {
+                    LoggerOptions.Builder builder = new LoggerOptions.Builder(current);
+                    changedSettings.forEach((key, value) -> {
+                        Setting setting = SETTINGS.get(key);
+                        if (value != null) {
+                            setting.parser.accept(builder, value);
+                        } else {
+                            setting.restorer.accept(builder, watchedFile.baseOptions);
+                        }
+                    });
+                    return builder.build();
+                });
+                watchedFile.appliedSettings = settings;
+                LoggerMonitor.trackConfigReload(watchedFile.appName, System.nanoTime() - changedNanos);
+                logger.info("Applied changed settings {} from {} to app={}",
+                        changedSettings.keySet(), watchedFile.file, watchedFile.appName);
+            } catch (IOException | RuntimeException e) {
+                LoggerMonitor.trackConfigReloadFailure(watchedFile.appName, e.toString());
+                logger.warn("Failed to apply configuration file {} to app={}; keeping the current configuration",
+                        watchedFile.file, watchedFile.appName, e);
+            }
+        }
+    }
+
+    /**
+     * Reads the settings of a configuration file. A missing file has no settings.
+     *
+     * @param file the properties or JSON configuration file
+     * @return the settings by name, never containing null values
+     * @throws IOException if the file cannot be read
+     */
+    private static Map<String, String> readSettings(Path file) throws IOException {
+        Map<String, String> settings = new LinkedHashMap<>();
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            if (file.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".json")) {
+                JsonElement root = JsonParser.parseReader(reader);
+                if (!root.isJsonObject()) {
+                    throw new IllegalArgumentException("Configuration file must contain a JSON object: " + file);
+                }
+                for (Map.Entry<String, JsonElement> entry : ((JsonObject) root).entrySet()) {
+                    JsonElement value = entry.getValue();
+                    if (value.isJsonNull()) {
+                        continue;
+                    }
+                    if (!value.isJsonPrimitive()) {
+                        throw new IllegalArgumentException("Setting '" + entry.getKey() + "' must be a plain value");
+                    }
+                    settings.put(entry.getKey(), value.getAsString().trim());
+                }
+            } else {
+                Properties properties = new Properties();
+                properties.load(reader);
+                properties.stringPropertyNames().forEach(key -> settings.put(key, properties.getProperty(key).trim()));
+            }
+        } catch (NoSuchFileException e) {
+            return Collections.emptyMap();
+        }
+        for (String key : settings.keySet()) {
+            if (!SETTINGS.containsKey(key)) {
+                throw new IllegalArgumentException("Unknown setting '" + key + "' in " + file);
+            }
+        }
+        return settings;
+    }
+
+    private static void setting(String key, BiConsumer<LoggerOptions.Builder, String> parser,
+                                BiConsumer<LoggerOptions.Builder, LoggerOptions> restorer) {
+        SETTINGS.put(key, new Setting(parser, restorer));
+    }
+
+    private static String parseFileSize(String value) {
+        // Fails here rather than when the next log file is opened
+        FileSize.valueOf(value);
+        return value;
+    }
+
+    private static Level parseLevel(String value) {
+        Level level = Level.toLevel(value, null);
+        if (level == null) {
+            throw new IllegalArgumentException("Unknown log level '" + value + "'");
+        }
+        return level;
+    }
+
+    private static boolean parseBoolean(String value) {
+        if ("true".equalsIgnoreCase(value)) {
+            return true;
+        }
+        if ("false".equalsIgnoreCase(value)) {
+            return false;
+        }
+        throw new IllegalArgumentException("Expected true or false but found '" + value + "'");
+    }
+
+    private static <E extends Enum<E>> E parseEnum(Class<E> type, String value) {
+        return Enum.valueOf(type, value.toUpperCase(Locale.ROOT));
+    }
+}
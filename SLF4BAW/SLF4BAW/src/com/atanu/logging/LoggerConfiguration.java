@@ -2,11 +2,19 @@ package com.atanu.logging;
 
 import ch.qos.logback.classic.LoggerContext;
 import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.CoreConstants;
 import org.slf4j.LoggerFactory;
 import org.slf4j.Logger;
 
 import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
  * Handles the configuration of the logging context, including encoder and appender initialization.
@@ -17,60 +25,229 @@ class LoggerConfiguration {
     private static final String DEFAULT_PATTERN = "[%d{M/d/yy HH:mm:ss:SSS z}] " +
             ManagementFactory.getRuntimeMXBean().getName() +
             " %thread %-5level %logger{36} - %msg%n";
+    private static final String DYNAMIC_APPENDER_NAME = "DYNAMIC";
+    private static final String EMAIL_APPENDER_NAME = "EMAIL";
+
+    // Applications register under the read lock and run concurrently; installing the shared appender takes the write lock
+    private static final ReadWriteLock BASE_LOCK = new ReentrantReadWriteLock();
+    private static final Map<String, LoggerOptions> APP_OPTIONS = new ConcurrentHashMap<>();
+    private static PatternEncoderFactory encoderFactory;
+    private static DynamicAppender dynamicAppender;
+    private static LoggerOptions sharedOptions;
 
     /**
      * Configures the base logging context with default settings.
      */
     static void configureBase() {
-        logger.info("Configuring base logger with default settings.");
+        BASE_LOCK.writeLock().lock();
+        try {
+            logger.info("Configuring base logger with default settings.");
+            LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+            context.reset();
+            registerTimestampConverter(context);
+
+            String logPath = System.getProperty("LOG_PATH", DEFAULT_LOG_PATH);
+            APP_OPTIONS.clear();
+            encoderFactory = createEncoderFactory(DEFAULT_PATTERN);
+            dynamicAppender = createDynamicAppender(context, encoderFactory, logPath, "10MB", "4GB", null);
+            dynamicAppender.setName(DYNAMIC_APPENDER_NAME);
+            sharedOptions = null;
+            context.getLogger("ROOT").addAppender(dynamicAppender);
+            logger.info("Base logger configured with logPath={}", logPath);
+        } finally {
+            BASE_LOCK.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Configures logging for one application.
+     * <p>
+     * The first application installs the shared DynamicAppender on ROOT, unless {@link #configureBase(LoggerOptions)}
+     * did so already. Later applications only register their own settings with it, which replaces that application's
+     * files and leaves every other application's files open. The settings shared by all applications, the
+     * asynchronous queue, the periodic durability interval and the compression of rolled files, are only changed
+     * through {@link #configureBase(LoggerOptions)}; an application asking for different ones is logged with a
+     * warning and gets the installed ones.
+     * <p>
+     * Different applications can be configured concurrently; callers must not configure the same application
+     * from several threads at once.
+     *
+     * @param options the LoggerOptions containing configuration details
+     */
+    static void configureApp(LoggerOptions options) {
         LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
-        context.reset();
-
-        String logPath = System.getProperty("LOG_PATH", DEFAULT_LOG_PATH);
-        PatternLayoutEncoder encoder = createEncoder(context, DEFAULT_PATTERN);
-        DynamicAppender dynamicAppender = createDynamicAppender(
-                context, encoder, logPath, "10MB", "4GB");
-        context.getLogger("ROOT").addAppender(dynamicAppender);
-        logger.info("Base logger configured with logPath={}", logPath);
+        BASE_LOCK.readLock().lock();
+        try {
+            if (isBaseInstalled(context)) {
+                registerApp(context, options);
+                return;
+            }
+        } finally {
+            BASE_LOCK.readLock().unlock();
+        }
+
+        BASE_LOCK.writeLock().lock();
+        try {
+            if (!isBaseInstalled(context)) {
+                installBase(context, options);
+            }
+            registerApp(context, options);
+        } finally {
+            BASE_LOCK.writeLock().unlock();
+        }
     }
 
     /**
-     * Configures the base logging context based on provided LoggerOptions, including optional email appender.
+     * Installs a DynamicAppender carrying the shared settings of the provided LoggerOptions on ROOT, for all
+     * applications. The logging context is only reset for the first installation; a later installation replaces the
+     * previous appender and registers every configured application with the new one, which opens no file until the
+     * previous appender has closed its files.
      *
      * @param options the LoggerOptions containing configuration details
      */
     static void configureBase(LoggerOptions options) {
+        BASE_LOCK.writeLock().lock();
+        try {
+            installBase((LoggerContext) LoggerFactory.getILoggerFactory(), options);
+        } finally {
+            BASE_LOCK.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Installs the shared DynamicAppender. Must be called while holding the write lock.
+     */
+    private static void installBase(LoggerContext context, LoggerOptions options) {
         logger.info("Configuring base logger with options: {}", options);
-        LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
-        context.reset();
+        DynamicAppender previousAppender = isBaseInstalled(context) ? dynamicAppender : null;
+        if (previousAppender == null) {
+            context.reset();
+            registerTimestampConverter(context);
+            APP_OPTIONS.clear();
+            encoderFactory = createEncoderFactory(DEFAULT_PATTERN);
+        }
 
         String logPath = Optional.ofNullable(options.getLogPath())
                 .orElse(System.getProperty("LOG_PATH", DEFAULT_LOG_PATH));
-        String patternToUse = Optional.ofNullable(options.getLogPattern())
-                .filter(p -> !p.isEmpty())
-                .orElse(DEFAULT_PATTERN);
         String maxFileSize = Optional.ofNullable(options.getMaxFileSize())
                 .orElse("10MB");
         String totalSizeCap = Optional.ofNullable(options.getTotalSizeCap())
                 .orElse("4GB");
 
-        PatternLayoutEncoder encoder = createEncoder(context, patternToUse);
-        DynamicAppender dynamicAppender = createDynamicAppender(context, encoder, logPath, maxFileSize, totalSizeCap);
-        context.getLogger("ROOT").addAppender(dynamicAppender);
+        DynamicAppender newAppender = createDynamicAppender(context, encoderFactory, logPath, maxFileSize, totalSizeCap, options);
+        newAppender.setName(DYNAMIC_APPENDER_NAME);
+        APP_OPTIONS.values().forEach(newAppender::configureApp);
+        if (previousAppender != null) {
+            newAppender.takeOver(previousAppender);
+        }
+        ch.qos.logback.classic.Logger rootLogger = context.getLogger("ROOT");
+        rootLogger.addAppender(newAppender);
+        dynamicAppender = newAppender;
+        sharedOptions = options;
 
-        // Initialize EmailAppender if email is enabled
+        if (previousAppender != null) {
+            // Retired after the new appender is attached, so that no event finds ROOT without one
+            rootLogger.detachAppender(previousAppender);
+            previousAppender.stop();
+        }
+
+        logger.info("Base logger configured with logPath={}, maxFileSize={}, totalSizeCap={}",
+                logPath, maxFileSize, totalSizeCap);
+    }
+
+    /**
+     * Registers the pattern, file settings and email appender of one application.
+     *
+     * @param context the LoggerContext
+     * @param options the LoggerOptions of the application
+     */
+    private static void registerApp(LoggerContext context, LoggerOptions options) {
+        String appName = options.getAppName();
+        String patternToUse = Optional.ofNullable(options.getLogPattern())
+                .filter(p -> !p.isEmpty())
+                .orElse(DEFAULT_PATTERN);
+        encoderFactory.setAppPattern(appName, patternToUse);
+        boolean garbageFree = options.isGarbageFreeEncoding() && DEFAULT_PATTERN.equals(patternToUse);
+        if (options.isGarbageFreeEncoding() && !garbageFree) {
+            logger.warn("Garbage-free encoding supports only the default pattern; using PatternLayoutEncoder for app={}",
+                    appName);
+        }
+        encoderFactory.setGarbageFree(appName, garbageFree);
+
+        if (sharedOptions != null && !hasSameSharedSettings(sharedOptions, options)) {
+            logger.warn("Shared settings of application={} differ from the installed ones and are ignored; "
+                    + "they are changed for all applications with ApplicationLoggerFactory.configureBase", appName);
+        }
+        APP_OPTIONS.put(appName, options);
+        dynamicAppender.configureApp(options);
+
+        // The email appender sits on the application's own logger, so it only sees that application's events.
+        // The new one is attached before the previous one is detached, so that no event finds neither.
+        ch.qos.logback.classic.Logger appLogger = context.getLogger(appName);
+        appLogger.setLevel(options.getLevel());
+        Appender<ILoggingEvent> previousEmailAppender = appLogger.getAppender(EMAIL_APPENDER_NAME);
         if (options.isEmailEnabled()) {
             EmailAppender emailAppender = createEmailAppender(context, options);
             if (emailAppender != null) {
-                context.getLogger("ROOT").addAppender(emailAppender);
-                logger.info("EmailAppender configured and added for application={}", options.getAppName());
+                emailAppender.setName(EMAIL_APPENDER_NAME);
+                appLogger.addAppender(emailAppender);
+                logger.info("EmailAppender configured and added for application={}", appName);
             } else {
                 logger.warn("EmailAppender was not configured due to missing configurations.");
             }
         }
+        if (previousEmailAppender != null) {
+            appLogger.detachAppender(previousEmailAppender);
+            previousEmailAppender.stop();
+        }
+        logger.info("Registered application={} with the shared DynamicAppender", appName);
+    }
 
-        logger.info("Base logger configured with logPath={}, maxFileSize={}, totalSizeCap={}",
-                logPath, maxFileSize, totalSizeCap);
+    /**
+     * Changes the level of a configured application without touching its files or email appender.
+     *
+     * @param options the LoggerOptions of the application, differing from its registered options only in the level
+     */
+    static void setAppLevel(LoggerOptions options) {
+        LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        BASE_LOCK.readLock().lock();
+        try {
+            APP_OPTIONS.put(options.getAppName(), options);
+            context.getLogger(options.getAppName()).setLevel(options.getLevel());
+        } finally {
+            BASE_LOCK.readLock().unlock();
+        }
+        logger.info("Set level of application={} to {}", options.getAppName(), options.getLevel());
+    }
+
+    /**
+     * Checks whether the DynamicAppender installed by this class is still attached to ROOT.
+     * It is not after the first configuration, or when something else reset the logging context.
+     *
+     * @param context the LoggerContext
+     * @return true if the shared DynamicAppender is installed
+     */
+    private static boolean isBaseInstalled(LoggerContext context) {
+        return dynamicAppender != null && dynamicAppender.isStarted()
+                && context.getLogger("ROOT").isAttached(dynamicAppender);
+    }
+
+    /**
+     * Checks whether two LoggerOptions agree on the settings shared by all applications.
+     *
+     * @param installed the options the shared DynamicAppender was built from
+     * @param requested the options of the application being configured
+     * @return true if the shared DynamicAppender serves the requested options as they are
+     */
+    private static boolean hasSameSharedSettings(LoggerOptions installed, LoggerOptions requested) {
+        return installed.isAsyncEnabled() == requested.isAsyncEnabled()
+                && installed.getAsyncQueueSize() == requested.getAsyncQueueSize()
+                && installed.getAsyncConsumerThreads() == requested.getAsyncConsumerThreads()
+                && installed.getOverflowPolicy() == requested.getOverflowPolicy()
+                && installed.getDurabilityIntervalMillis() == requested.getDurabilityIntervalMillis()
+                && installed.isCompressionEnabled() == requested.isCompressionEnabled()
+                && installed.getCompressionLevel() == requested.getCompressionLevel()
+                && installed.getCompressionThreads() == requested.getCompressionThreads();
     }
 
     /**
@@ -84,42 +261,73 @@ class LoggerConfiguration {
     }
 
     /**
-     * Creates a PatternLayoutEncoder with the specified pattern.
+     * Registers CachedDateConverter for %d and %date in the context, so that every PatternLayout created
+     * afterwards formats timestamps through the shared TimestampCache.
      *
      * @param context the LoggerContext
-     * @param pattern the log pattern
-     * @return the configured PatternLayoutEncoder
      */
-    private static PatternLayoutEncoder createEncoder(LoggerContext context, String pattern) {
-        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
-        encoder.setContext(context);
-        encoder.setPattern(pattern);
-        encoder.start();
-        logger.debug("PatternLayoutEncoder created with pattern: {}", pattern);
-        return encoder;
+    @SuppressWarnings("unchecked")
+    private static void registerTimestampConverter(LoggerContext context) {
+        Map<String, String> ruleRegistry = (Map<String, String>) context.getObject(CoreConstants.PATTERN_RULE_REGISTRY);
+        if (ruleRegistry == null) {
+            ruleRegistry = new HashMap<>();
+            context.putObject(CoreConstants.PATTERN_RULE_REGISTRY, ruleRegistry);
+        }
+        ruleRegistry.put("d", CachedDateConverter.class.getName());
+        ruleRegistry.put("date", CachedDateConverter.class.getName());
+    }
+
+    /**
+     * Creates a PatternEncoderFactory that builds one PatternLayoutEncoder per log file.
+     *
+     * @param defaultPattern the pattern used for applications without their own pattern
+     * @return the configured PatternEncoderFactory
+     */
+    private static PatternEncoderFactory createEncoderFactory(String defaultPattern) {
+        PatternEncoderFactory encoderFactory = new PatternEncoderFactory(defaultPattern);
+        logger.debug("PatternEncoderFactory created with default pattern: {}", defaultPattern);
+        return encoderFactory;
     }
 
     /**
      * Creates and starts a DynamicAppender with the specified configurations.
      *
-     * @param context      the LoggerContext
-     * @param encoder      the Encoder for formatting log messages
-     * @param logPath      the path where logs should be stored
-     * @param maxFileSize  the maximum size of a log file before rolling over
-     * @param totalSizeCap the total size cap for all log files
+     * @param context        the LoggerContext
+     * @param encoderFactory the factory creating an Encoder for every log file
+     * @param logPath        the path where logs should be stored
+     * @param maxFileSize    the maximum size of a log file before rolling over
+     * @param totalSizeCap   the total size cap for all log files
+     * @param options        the LoggerOptions carrying the sink, durability, compression and asynchronous settings, or null for the defaults
      * @return the started DynamicAppender
      */
     private static DynamicAppender createDynamicAppender(LoggerContext context,
-                                                         PatternLayoutEncoder encoder,
+                                                         EncoderFactory encoderFactory,
                                                          String logPath,
                                                          String maxFileSize,
-                                                         String totalSizeCap) {
+                                                         String totalSizeCap,
+                                                         LoggerOptions options) {
         DynamicAppender dynamicAppender = new DynamicAppender();
         dynamicAppender.setContext(context);
-        dynamicAppender.setEncoder(encoder);
+        dynamicAppender.setEncoderFactory(encoderFactory);
         dynamicAppender.setLogPath(logPath);
         dynamicAppender.setMaxFileSize(maxFileSize);
         dynamicAppender.setTotalSizeCap(totalSizeCap);
+        if (options != null) {
+            dynamicAppender.setFileSinkType(options.getFileSinkType());
+            dynamicAppender.setBatchSize(options.getBatchSize());
+            dynamicAppender.setFlushIntervalMillis(options.getFlushIntervalMillis());
+            dynamicAppender.setDurabilityMode(options.getDurabilityMode());
+            dynamicAppender.setDurabilityIntervalMillis(options.getDurabilityIntervalMillis());
+            dynamicAppender.setCompressionEnabled(options.isCompressionEnabled());
+            dynamicAppender.setCompressionLevel(options.getCompressionLevel());
+            dynamicAppender.setCompressionThreads(options.getCompressionThreads());
+        }
+        if (options != null && options.isAsyncEnabled()) {
+            dynamicAppender.setAsyncEnabled(true);
+            dynamicAppender.setAsyncQueueSize(options.getAsyncQueueSize());
+            dynamicAppender.setAsyncConsumerThreads(options.getAsyncConsumerThreads());
+            dynamicAppender.setOverflowPolicy(options.getOverflowPolicy());
+        }
         dynamicAppender.start();
         logger.debug("DynamicAppender created and started with logPath={}, maxFileSize={}, totalSizeCap={}",
                 logPath, maxFileSize, totalSizeCap);
@@ -151,6 +359,18 @@ class LoggerConfiguration {
             emailAppender.setEmailFrom(options.getEmailFrom());
             emailAppender.setEmailTo(options.getEmailTo());
             emailAppender.setEmailSubject(options.getEmailSubject());
+            emailAppender.setAppName(options.getAppName());
+            emailAppender.setQueueSize(options.getEmailQueueSize());
+            emailAppender.setWorkerThreads(options.getEmailWorkerThreads());
+            emailAppender.setSendTimeoutMillis(options.getEmailSendTimeoutMillis());
+            emailAppender.setDigestWindowMillis(options.getEmailDigestWindowMillis());
+            emailAppender.setDigestMaxSamples(options.getEmailDigestMaxSamples());
+            emailAppender.setDedupTtlMillis(options.getEmailDedupTtlMillis());
+            emailAppender.setDedupCapacity(options.getEmailDedupCapacity());
+            emailAppender.setRateLimitPerMinute(options.getEmailRateLimitPerMinute());
+            emailAppender.setRateLimitBurst(options.getEmailRateLimitBurst());
+            emailAppender.setBreakerFailureThreshold(options.getEmailBreakerFailureThreshold());
+            emailAppender.setBreakerOpenMillis(options.getEmailBreakerOpenMillis());
             emailAppender.start();
 
             logger.debug("EmailAppender created with SMTP host={}, port={}", options.getSmtpHost(), options.getSmtpPort());
@@ -2,10 +2,12 @@ package com.atanu.logging;
 
 import com.google.gson.Gson;
 
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.stream.Collectors;
 
 /**
@@ -14,6 +16,50 @@ import java.util.stream.Collectors;
 public class LoggerMonitor {
     private static final Map<String, LoggerMetrics> LOGGER_METRICS = new ConcurrentHashMap<>();
     private static final Gson gson = new Gson();
+    private static final Map<OverflowPolicy, AtomicLong> DISCARDED_BY_POLICY = new EnumMap<>(OverflowPolicy.class);
+    private static final Map<DurabilityMode, SyncMetrics> SYNCS_BY_MODE = new EnumMap<>(DurabilityMode.class);
+    private static final AtomicLong GLOBAL_EMAILS_RATE_LIMITED = new AtomicLong(0);
+
+    static {
+        for (OverflowPolicy policy : OverflowPolicy.values()) {
+            DISCARDED_BY_POLICY.put(policy, new AtomicLong(0));
+        }
+        for (DurabilityMode mode : DurabilityMode.values()) {
+            SYNCS_BY_MODE.put(mode, new SyncMetrics());
+        }
+    }
+
+    /**
+     * Count and latency of the forces to disk made under one durability mode.
+     */
+    public static class SyncMetrics {
+        private final LongAdder syncCount = new LongAdder();
+        private final LongAdder totalSyncNanos = new LongAdder();
+        private final AtomicLong maxSyncNanos = new AtomicLong(0);
+
+        /**
+         * Records one force to disk.
+         *
+         * @param nanos how long the force took in nanoseconds
+         */
+        public void recordSync(long nanos) {
+            syncCount.increment();
+            totalSyncNanos.add(nanos);
+            maxSyncNanos.accumulateAndGet(nanos, Math::max);
+        }
+
+        public long getSyncCount() {
+            return syncCount.sum();
+        }
+
+        public long getTotalSyncNanos() {
+            return totalSyncNanos.sum();
+        }
+
+        public long getMaxSyncNanos() {
+            return maxSyncNanos.get();
+        }
+    }
 
     /**
      * Inner class representing metrics for a specific logger.
@@ -21,8 +67,31 @@ public class LoggerMonitor {
     public static class LoggerMetrics {
         private final String appName;
         private final long creationTimestamp;
-        private final AtomicLong totalLogEvents = new AtomicLong(0);
-        private final AtomicLong totalLogBytes = new AtomicLong(0);
+        // LongAdder keeps concurrent writers of the same application from contending on one counter
+        private final LongAdder totalLogEvents = new LongAdder();
+        private final LongAdder totalLogBytes = new LongAdder();
+        private final AtomicLong discardedEvents = new AtomicLong(0);
+        private final AtomicLong spilledEvents = new AtomicLong(0);
+        private final SyncMetrics syncMetrics = new SyncMetrics();
+        private final AtomicLong reloads = new AtomicLong(0);
+        private final AtomicLong carriedOverEvents = new AtomicLong(0);
+        private final AtomicLong configReloads = new AtomicLong(0);
+        private final AtomicLong totalConfigReloadNanos = new AtomicLong(0);
+        private final AtomicLong maxConfigReloadNanos = new AtomicLong(0);
+        private final AtomicLong configReloadFailures = new AtomicLong(0);
+        private volatile String lastConfigReloadError;
+        private final AtomicLong emailsSent = new AtomicLong(0);
+        private final AtomicLong totalEmailSendNanos = new AtomicLong(0);
+        private final AtomicLong maxEmailSendNanos = new AtomicLong(0);
+        private final AtomicLong emailsFailed = new AtomicLong(0);
+        private final AtomicLong emailsDropped = new AtomicLong(0);
+        private final AtomicLong alertsDigested = new AtomicLong(0);
+        private final AtomicLong emailsSuppressed = new AtomicLong(0);
+        private final AtomicLong emailsRateLimited = new AtomicLong(0);
+        private final AtomicLong emailsShortCircuited = new AtomicLong(0);
+        private final AtomicLong emailBreakerOpens = new AtomicLong(0);
+        private volatile String emailBreakerState;
+        private volatile EmailRateLimiter emailRateLimiter;
 
         /**
          * Initializes LoggerMetrics for the specified application.
@@ -40,8 +109,139 @@ public class LoggerMonitor {
          * @param logSize the size of the log event in bytes
          */
         public void incrementLogEvent(int logSize) {
-            totalLogEvents.incrementAndGet();
-            totalLogBytes.addAndGet(logSize);
+            totalLogEvents.increment();
+            totalLogBytes.add(logSize);
+        }
+
+        /**
+         * Increments the count of events discarded by the asynchronous queue's overflow policy.
+         */
+        public void incrementDiscardedEvent() {
+            discardedEvents.incrementAndGet();
+        }
+
+        /**
+         * Increments the count of events spilled to disk by the asynchronous queue.
+         */
+        public void incrementSpilledEvent() {
+            spilledEvents.incrementAndGet();
+        }
+
+        /**
+         * Records one force of the application's log files to disk.
+         *
+         * @param nanos how long the force took in nanoseconds
+         */
+        public void recordSync(long nanos) {
+            syncMetrics.recordSync(nanos);
+        }
+
+        /**
+         * Records one replacement of the application's log files.
+         *
+         * @param carriedOver the number of in-flight events written to the previous files after the replacement
+         */
+        public void recordReload(int carriedOver) {
+            reloads.incrementAndGet();
+            carriedOverEvents.addAndGet(carriedOver);
+        }
+
+        /**
+         * Records a configuration change applied from the application's configuration file.
+         *
+         * @param nanos how long it took from the change of the file until it was applied, in nanoseconds
+         */
+        public void recordConfigReload(long nanos) {
+            configReloads.incrementAndGet();
+            totalConfigReloadNanos.addAndGet(nanos);
+            maxConfigReloadNanos.accumulateAndGet(nanos, Math::max);
+        }
+
+        /**
+         * Records a configuration file that could not be applied.
+         *
+         * @param error a description of the error
+         */
+        public void recordConfigReloadFailure(String error) {
+            configReloadFailures.incrementAndGet();
+            lastConfigReloadError = error;
+        }
+
+        /**
+         * Records an email sent for the application.
+         *
+         * @param nanos how long sending took in nanoseconds
+         */
+        public void recordEmailSent(long nanos) {
+            emailsSent.incrementAndGet();
+            totalEmailSendNanos.addAndGet(nanos);
+            maxEmailSendNanos.accumulateAndGet(nanos, Math::max);
+        }
+
+        /**
+         * Increments the count of emails the SMTP server did not accept.
+         */
+        public void incrementEmailFailed() {
+            emailsFailed.incrementAndGet();
+        }
+
+        /**
+         * Increments the count of emails dropped because the email queue was full.
+         */
+        public void incrementEmailDropped() {
+            emailsDropped.incrementAndGet();
+        }
+
+        /**
+         * Records alerts gathered into one digest email instead of being sent on their own.
+         *
+         * @param count the number of alerts in the digest
+         */
+        public void recordAlertsDigested(long count) {
+            alertsDigested.addAndGet(count);
+        }
+
+        /**
+         * Increments the count of alerts suppressed because an identical alert was sent recently.
+         */
+        public void incrementEmailSuppressed() {
+            emailsSuppressed.incrementAndGet();
+        }
+
+        /**
+         * Increments the count of emails dropped by a rate limit.
+         */
+        public void incrementEmailRateLimited() {
+            emailsRateLimited.incrementAndGet();
+        }
+
+        /**
+         * Increments the count of emails dropped because the email circuit breaker was open.
+         */
+        public void incrementEmailShortCircuited() {
+            emailsShortCircuited.incrementAndGet();
+        }
+
+        /**
+         * Records a state change of the email circuit breaker.
+         *
+         * @param state  the new state
+         * @param opened whether the breaker opened
+         */
+        public void recordEmailBreakerState(String state, boolean opened) {
+            emailBreakerState = state;
+            if (opened) {
+                emailBreakerOpens.incrementAndGet();
+            }
+        }
+
+        /**
+         * Records the rate limiter of the application's emails, so that its state can be reported.
+         *
+         * @param rateLimiter the rate limiter, or null if the application's emails are not limited
+         */
+        void recordEmailRateLimiter(EmailRateLimiter rateLimiter) {
+            emailRateLimiter = rateLimiter;
         }
 
         public String getAppName() {
@@ -53,11 +253,103 @@ public class LoggerMonitor {
         }
 
         public long getTotalLogEvents() {
-            return totalLogEvents.get();
+            return totalLogEvents.sum();
         }
 
         public long getTotalLogBytes() {
-            return totalLogBytes.get();
+            return totalLogBytes.sum();
+        }
+
+        public long getDiscardedEvents() {
+            return discardedEvents.get();
+        }
+
+        public long getSpilledEvents() {
+            return spilledEvents.get();
+        }
+
+        public long getSyncCount() {
+            return syncMetrics.getSyncCount();
+        }
+
+        public long getTotalSyncNanos() {
+            return syncMetrics.getTotalSyncNanos();
+        }
+
+        public long getReloads() {
+            return reloads.get();
+        }
+
+        public long getCarriedOverEvents() {
+            return carriedOverEvents.get();
+        }
+
+        public long getConfigReloads() {
+            return configReloads.get();
+        }
+
+        public long getTotalConfigReloadNanos() {
+            return totalConfigReloadNanos.get();
+        }
+
+        public long getMaxConfigReloadNanos() {
+            return maxConfigReloadNanos.get();
+        }
+
+        public long getConfigReloadFailures() {
+            return configReloadFailures.get();
+        }
+
+        public String getLastConfigReloadError() {
+            return lastConfigReloadError;
+        }
+
+        public long getEmailsSent() {
+            return emailsSent.get();
+        }
+
+        public long getTotalEmailSendNanos() {
+            return totalEmailSendNanos.get();
+        }
+
+        public long getMaxEmailSendNanos() {
+            return maxEmailSendNanos.get();
+        }
+
+        public long getEmailsFailed() {
+            return emailsFailed.get();
+        }
+
+        public long getEmailsDropped() {
+            return emailsDropped.get();
+        }
+
+        public long getAlertsDigested() {
+            return alertsDigested.get();
+        }
+
+        public long getEmailsSuppressed() {
+            return emailsSuppressed.get();
+        }
+
+        public long getEmailsRateLimited() {
+            return emailsRateLimited.get();
+        }
+
+        public long getEmailsShortCircuited() {
+            return emailsShortCircuited.get();
+        }
+
+        public long getEmailBreakerOpens() {
+            return emailBreakerOpens.get();
+        }
+
+        public String getEmailBreakerState() {
+            return emailBreakerState;
+        }
+
+        EmailRateLimiter getEmailRateLimiter() {
+            return emailRateLimiter;
         }
     }
 
@@ -85,6 +377,12 @@ public class LoggerMonitor {
                             metricDetails.put("creationTimestamp", metrics.getCreationTimestamp());
                             metricDetails.put("totalLogEvents", metrics.getTotalLogEvents());
                             metricDetails.put("totalLogBytes", metrics.getTotalLogBytes());
+                            metricDetails.put("discardedEvents", metrics.getDiscardedEvents());
+                            metricDetails.put("spilledEvents", metrics.getSpilledEvents());
+                            metricDetails.put("syncCount", metrics.getSyncCount());
+                            metricDetails.put("totalSyncMillis", metrics.getTotalSyncNanos() / 1_000_000.0);
+                            metricDetails.put("reloads", metrics.getReloads());
+                            metricDetails.put("carriedOverEvents", metrics.getCarriedOverEvents());
                             return metricDetails;
                         }
                 ));
@@ -106,6 +404,12 @@ public class LoggerMonitor {
         metricDetails.put("creationTimestamp", metrics.getCreationTimestamp());
         metricDetails.put("totalLogEvents", metrics.getTotalLogEvents());
         metricDetails.put("totalLogBytes", metrics.getTotalLogBytes());
+        metricDetails.put("discardedEvents", metrics.getDiscardedEvents());
+        metricDetails.put("spilledEvents", metrics.getSpilledEvents());
+        metricDetails.put("syncCount", metrics.getSyncCount());
+        metricDetails.put("totalSyncMillis", metrics.getTotalSyncNanos() / 1_000_000.0);
+        metricDetails.put("reloads", metrics.getReloads());
+        metricDetails.put("carriedOverEvents", metrics.getCarriedOverEvents());
 
         return gson.toJson(metricDetails);
     }
@@ -156,6 +460,282 @@ public class LoggerMonitor {
      * @param logSize the size of the log event in bytes
      */
     public static void trackLogEvent(String appName, int logSize) {
-        LOGGER_METRICS.computeIfAbsent(appName, LoggerMetrics::new).incrementLogEvent(logSize);
+        LoggerMetrics metrics = LOGGER_METRICS.get(appName);
+        if (metrics == null) {
+            metrics = LOGGER_METRICS.computeIfAbsent(appName, LoggerMetrics::new);
+        }
+        metrics.incrementLogEvent(logSize);
+    }
+
+    /**
+     * Retrieves the number of events discarded by each overflow policy of the asynchronous queue in JSON format.
+     *
+     * @return JSON string mapping each overflow policy to its discarded event count
+     */
+    public static String getOverflowMetricsAsJson() {
+        Map<String, Long> overflowMap = new HashMap<>();
+        DISCARDED_BY_POLICY.forEach((policy, counter) -> overflowMap.put(policy.name(), counter.get()));
+        overflowMap.put("totalSpilledEvents", LOGGER_METRICS.values().stream()
+                .mapToLong(LoggerMetrics::getSpilledEvents)
+                .sum());
+        return gson.toJson(overflowMap);
+    }
+
+    /**
+     * Tracks an event discarded by the asynchronous queue's overflow policy.
+     *
+     * @param appName the name of the application
+     * @param policy  the overflow policy that discarded the event
+     */
+    public static void trackDiscardedEvent(String appName, OverflowPolicy policy) {
+        DISCARDED_BY_POLICY.get(policy).incrementAndGet();
+        LOGGER_METRICS.computeIfAbsent(appName, LoggerMetrics::new).incrementDiscardedEvent();
+    }
+
+    /**
+     * Tracks an event written to the spill file by the asynchronous queue.
+     *
+     * @param appName the name of the application
+     */
+    public static void trackSpilledEvent(String appName) {
+        LOGGER_METRICS.computeIfAbsent(appName, LoggerMetrics::new).incrementSpilledEvent();
+    }
+
+    /**
+     * Retrieves the number and latency of forces to disk made under each durability mode in JSON format.
+     *
+     * @return JSON string mapping each durability mode to its sync count, average and maximum latency
+     */
+    public static String getDurabilityMetricsAsJson() {
+        Map<String, Map<String, Object>> durabilityMap = new HashMap<>();
+        SYNCS_BY_MODE.forEach((mode, metrics) -> {
+            long count = metrics.getSyncCount();
+            Map<String, Object> modeDetails = new HashMap<>();
+            modeDetails.put("syncCount", count);
+            modeDetails.put("avgSyncMicros", count == 0 ? 0 : metrics.getTotalSyncNanos() / count / 1000);
+            modeDetails.put("maxSyncMicros", metrics.getMaxSyncNanos() / 1000);
+            durabilityMap.put(mode.name(), modeDetails);
+        });
+        return gson.toJson(durabilityMap);
+    }
+
+    /**
+     * Tracks a force of an application's log file to disk.
+     *
+     * @param appName the name of the application
+     * @param mode    the durability mode that triggered the force
+     * @param nanos   how long the force took in nanoseconds
+     */
+    public static void trackSync(String appName, DurabilityMode mode, long nanos) {
+        SYNCS_BY_MODE.get(mode).recordSync(nanos);
+        LOGGER_METRICS.computeIfAbsent(appName, LoggerMetrics::new).recordSync(nanos);
+    }
+
+    /**
+     * Tracks a replacement of an application's log files by a reload.
+     *
+     * @param appName     the name of the application
+     * @param carriedOver the number of in-flight events written to the previous files after the replacement
+     */
+    public static void trackReload(String appName, int carriedOver) {
+        LOGGER_METRICS.computeIfAbsent(appName, LoggerMetrics::new).recordReload(carriedOver);
+    }
+
+    /**
+     * Retrieves the configuration file reloads of every application with a watched configuration file in JSON format.
+     *
+     * @return JSON string mapping each application to its reload count, average and maximum latency, failure count
+     *         and last error
+     */
+    public static String getConfigReloadMetricsAsJson() {
+        Map<String, Map<String, Object>> reloadMap = new HashMap<>();
+        LOGGER_METRICS.forEach((appName, metrics) -> {
+            long count = metrics.getConfigReloads();
+            if (count == 0 && metrics.getConfigReloadFailures() == 0) {
+                return;
+            }
+            Map<String, Object> reloadDetails = new HashMap<>();
+            reloadDetails.put("configReloads", count);
+            reloadDetails.put("avgReloadMillis", count == 0 ? 0 : metrics.getTotalConfigReloadNanos() / count / 1_000_000.0);
+            reloadDetails.put("maxReloadMillis", metrics.getMaxConfigReloadNanos() / 1_000_000.0);
+            reloadDetails.put("configReloadFailures", metrics.getConfigReloadFailures());
+            reloadDetails.put("lastError", metrics.getLastConfigReloadError());
+            reloadMap.put(appName, reloadDetails);
+        });
+        return gson.toJson(reloadMap);
+    }
+
+    /**
+     * Tracks a configuration change applied from an application's configuration file.
+     *
+     * @param appName the name of the application
+     * @param nanos   how long it took from the change of the file until it was applied, in nanoseconds
+     */
+    public static void trackConfigReload(String appName, long nanos) {
+        LOGGER_METRICS.computeIfAbsent(appName, LoggerMetrics::new).recordConfigReload(nanos);
+    }
+
+    /**
+     * Tracks a configuration file that could not be applied to an application.
+     *
+     * @param appName the name of the application
+     * @param error   a description of the error
+     */
+    public static void trackConfigReloadFailure(String appName, String error) {
+        LOGGER_METRICS.computeIfAbsent(appName, LoggerMetrics::new).recordConfigReloadFailure(error);
+    }
+
+    /**
+     * Retrieves the emails of every application that sent or tried to send email in JSON format.
+     *
+     * @return JSON string mapping each application to its sent count, average and maximum send latency,
+     *         failure count and dropped count
+     */
+    public static String getEmailMetricsAsJson() {
+        Map<String, Map<String, Object>> emailMap = new HashMap<>();
+        LOGGER_METRICS.forEach((appName, metrics) -> {
+            long sent = metrics.getEmailsSent();
+            if (sent == 0 && metrics.getEmailsFailed() == 0 && metrics.getEmailsDropped() == 0) {
+                return;
+            }
+            Map<String, Object> emailDetails = new HashMap<>();
+            emailDetails.put("emailsSent", sent);
+            emailDetails.put("avgSendMillis", sent == 0 ? 0 : metrics.getTotalEmailSendNanos() / sent / 1_000_000.0);
+            emailDetails.put("maxSendMillis", metrics.getMaxEmailSendNanos() / 1_000_000.0);
+            emailDetails.put("emailsFailed", metrics.getEmailsFailed());
+            emailDetails.put("emailsDropped", metrics.getEmailsDropped());
+            emailDetails.put("alertsDigested", metrics.getAlertsDigested());
+            emailDetails.put("emailsSuppressed", metrics.getEmailsSuppressed());
+            emailMap.put(appName, emailDetails);
+        });
+        return gson.toJson(emailMap);
+    }
+
+    /**
+     * Tracks an email sent for an application.
+     *
+     * @param appName the name of the application
+     * @param nanos   how long sending took in nanoseconds
+     */
+    public static void trackEmailSent(String appName, long nanos) {
+        LOGGER_METRICS.computeIfAbsent(appName, LoggerMetrics::new).recordEmailSent(nanos);
+    }
+
+    /**
+     * Tracks an email of an application that could not be sent.
+     *
+     * @param appName the name of the application
+     */
+    public static void trackEmailFailed(String appName) {
+        LOGGER_METRICS.computeIfAbsent(appName, LoggerMetrics::new).incrementEmailFailed();
+    }
+
+    /**
+     * Tracks an email of an application dropped because the email queue was full.
+     *
+     * @param appName the name of the application
+     */
+    public static void trackEmailDropped(String appName) {
+        LOGGER_METRICS.computeIfAbsent(appName, LoggerMetrics::new).incrementEmailDropped();
+    }
+
+    /**
+     * Tracks alerts of an application gathered into one digest email.
+     *
+     * @param appName the name of the application
+     * @param count   the number of alerts in the digest
+     */
+    public static void trackAlertsDigested(String appName, long count) {
+        LOGGER_METRICS.computeIfAbsent(appName, LoggerMetrics::new).recordAlertsDigested(count);
+    }
+
+    /**
+     * Tracks an alert of an application suppressed because an identical alert was sent recently.
+     *
+     * @param appName the name of the application
+     */
+    public static void trackEmailSuppressed(String appName) {
+        LOGGER_METRICS.computeIfAbsent(appName, LoggerMetrics::new).incrementEmailSuppressed();
+    }
+
+    /**
+     * Retrieves the state of the email rate limits and circuit breakers in JSON format.
+     *
+     * @return JSON string with the global rate limit, its available tokens and dropped count under "global", and
+     *         each application's rate limit, available tokens, rate-limited count, breaker state, breaker opens and
+     *         short-circuited count under "apps"
+     */
+    public static String getEmailThrottleMetricsAsJson() {
+        Map<String, Object> globalDetails = new HashMap<>();
+        EmailRateLimiter globalLimiter = EmailRateLimiter.global();
+        globalDetails.put("rateLimitPerMinute", globalLimiter != null ? globalLimiter.getEmailsPerMinute() : 0);
+        globalDetails.put("burst", globalLimiter != null ? globalLimiter.getBurst() : 0);
+        globalDetails.put("availableTokens", globalLimiter != null ? globalLimiter.availableTokens() : 0);
+        globalDetails.put("emailsRateLimited", GLOBAL_EMAILS_RATE_LIMITED.get());
+
+        Map<String, Map<String, Object>> appMap = new HashMap<>();
+        LOGGER_METRICS.forEach((appName, metrics) -> {
+            EmailRateLimiter limiter = metrics.getEmailRateLimiter();
+            if (metrics.getEmailBreakerState() == null && limiter == null && metrics.getEmailsRateLimited() == 0) {
+                return;
+            }
+            Map<String, Object> appDetails = new HashMap<>();
+            appDetails.put("rateLimitPerMinute", limiter != null ? limiter.getEmailsPerMinute() : 0);
+            appDetails.put("burst", limiter != null ? limiter.getBurst() : 0);
+            appDetails.put("availableTokens", limiter != null ? limiter.availableTokens() : 0);
+            appDetails.put("breakerState", metrics.getEmailBreakerState());
+            appDetails.put("breakerOpens", metrics.getEmailBreakerOpens());
+            appDetails.put("emailsShortCircuited", metrics.getEmailsShortCircuited());
+            appDetails.put("emailsRateLimited", metrics.getEmailsRateLimited());
+            appMap.put(appName, appDetails);
+        });
+
+        Map<String, Object> throttleMap = new HashMap<>();
+        throttleMap.put("global", globalDetails);
+        throttleMap.put("apps", appMap);
+        return gson.toJson(throttleMap);
+    }
+
+    /**
+     * Tracks an email of an application dropped by a rate limit.
+     *
+     * @param appName the name of the application
+     * @param global  whether the global limit dropped it, rather than the application's own
+     */
+    public static void trackEmailRateLimited(String appName, boolean global) {
+        if (global) {
+            GLOBAL_EMAILS_RATE_LIMITED.incrementAndGet();
+        }
+        LOGGER_METRICS.computeIfAbsent(appName, LoggerMetrics::new).incrementEmailRateLimited();
+    }
+
+    /**
+     * Tracks the rate limiter of an application's emails, replacing the one of a previous configuration.
+     *
+     * @param appName     the name of the application
+     * @param rateLimiter the rate limiter, or null if the application's emails are not limited
+     */
+    static void trackEmailRateLimiter(String appName, EmailRateLimiter rateLimiter) {
+        LOGGER_METRICS.computeIfAbsent(appName, LoggerMetrics::new).recordEmailRateLimiter(rateLimiter);
+    }
+
+    /**
+     * Tracks an email of an application dropped because its email circuit breaker was open.
+     *
+     * @param appName the name of the application
+     */
+    public static void trackEmailShortCircuited(String appName) {
+        LOGGER_METRICS.computeIfAbsent(appName, LoggerMetrics::new).incrementEmailShortCircuited();
+    }
+
+    /**
+     * Tracks a state change of an application's email circuit breaker.
+     *
+     * @param appName the name of the application
+     * @param state   the new state
+     * @param opened  whether the breaker opened
+     */
+    public static void trackEmailBreakerState(String appName, String state, boolean opened) {
+        LOGGER_METRICS.computeIfAbsent(appName, LoggerMetrics::new).recordEmailBreakerState(state, opened);
     }
 }
@@ -1,14 +1,44 @@
 package com.atanu.logging;
 
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.core.util.FileSize;
+
+import java.util.zip.Deflater;
+
 /**
  * Configuration class that encapsulates various logging options such as application name, log path, file sizes, log patterns, and email settings.
+ * <p>
+ * LoggerOptions is an immutable value type. A 64-bit fingerprint of all fields is computed once when the options
+ * are built, so that two configurations can be told apart with a single long comparison. Null and empty strings
+ * are treated as equal.
  */
 public class LoggerOptions {
+    static final long FINGERPRINT_SEED = 0xCBF29CE484222325L;
+    private static final long FINGERPRINT_MULTIPLIER = 0x100000001B3L;
+
     private final String appName;
     private final String logPath;
     private final String maxFileSize;
     private final String totalSizeCap;
     private final String logPattern;
+    private final boolean garbageFreeEncoding;
+    private final Level level;
+
+    // File sink configurations
+    private final FileSinkType fileSinkType;
+    private final int batchSize;
+    private final long flushIntervalMillis;
+    private final DurabilityMode durabilityMode;
+    private final long durabilityIntervalMillis;
+    private final boolean compressionEnabled;
+    private final int compressionLevel;
+    private final int compressionThreads;
+
+    // Asynchronous logging configurations
+    private final boolean asyncEnabled;
+    private final int asyncQueueSize;
+    private final int asyncConsumerThreads;
+    private final OverflowPolicy overflowPolicy;
 
     // Email configurations
     private final boolean emailEnabled;
@@ -19,6 +49,19 @@ public class LoggerOptions {
     private final String emailFrom;
     private final String emailTo;
     private final String emailSubject;
+    private final int emailQueueSize;
+    private final int emailWorkerThreads;
+    private final long emailSendTimeoutMillis;
+    private final long emailDigestWindowMillis;
+    private final int emailDigestMaxSamples;
+    private final long emailDedupTtlMillis;
+    private final int emailDedupCapacity;
+    private final int emailRateLimitPerMinute;
+    private final int emailRateLimitBurst;
+    private final int emailBreakerFailureThreshold;
+    private final long emailBreakerOpenMillis;
+
+    private final long fingerprint;
 
     private LoggerOptions(Builder builder) {
         this.appName = builder.appName;
@@ -26,6 +69,20 @@ public class LoggerOptions {
         this.maxFileSize = builder.maxFileSize;
         this.totalSizeCap = builder.totalSizeCap;
         this.logPattern = builder.logPattern;
+        this.garbageFreeEncoding = builder.garbageFreeEncoding;
+        this.level = builder.level;
+        this.fileSinkType = builder.fileSinkType;
+        this.batchSize = builder.batchSize;
+        this.flushIntervalMillis = builder.flushIntervalMillis;
+        this.durabilityMode = builder.durabilityMode;
+        this.durabilityIntervalMillis = builder.durabilityIntervalMillis;
+        this.compressionEnabled = builder.compressionEnabled;
+        this.compressionLevel = builder.compressionLevel;
+        this.compressionThreads = builder.compressionThreads;
+        this.asyncEnabled = builder.asyncEnabled;
+        this.asyncQueueSize = builder.asyncQueueSize;
+        this.asyncConsumerThreads = builder.asyncConsumerThreads;
+        this.overflowPolicy = builder.overflowPolicy;
         this.emailEnabled = builder.emailEnabled;
         this.smtpHost = builder.smtpHost;
         this.smtpPort = builder.smtpPort;
@@ -34,6 +91,83 @@ public class LoggerOptions {
         this.emailFrom = builder.emailFrom;
         this.emailTo = builder.emailTo;
         this.emailSubject = builder.emailSubject;
+        this.emailQueueSize = builder.emailQueueSize;
+        this.emailWorkerThreads = builder.emailWorkerThreads;
+        this.emailSendTimeoutMillis = builder.emailSendTimeoutMillis;
+        this.emailDigestWindowMillis = builder.emailDigestWindowMillis;
+        this.emailDigestMaxSamples = builder.emailDigestMaxSamples;
+        this.emailDedupTtlMillis = builder.emailDedupTtlMillis;
+        this.emailDedupCapacity = builder.emailDedupCapacity;
+        this.emailRateLimitPerMinute = builder.emailRateLimitPerMinute;
+        this.emailRateLimitBurst = builder.emailRateLimitBurst;
+        this.emailBreakerFailureThreshold = builder.emailBreakerFailureThreshold;
+        this.emailBreakerOpenMillis = builder.emailBreakerOpenMillis;
+        this.fingerprint = computeFingerprint();
+    }
+
+    /**
+     * Hashes every field into 64 bits, with the same null and empty string equivalence as {@link #equals(Object)}.
+     *
+     * @return the fingerprint
+     */
+    private long computeFingerprint() {
+        long hash = FINGERPRINT_SEED;
+        hash = mix(hash, appName);
+        hash = mix(hash, logPath);
+        hash = mix(hash, maxFileSize);
+        hash = mix(hash, totalSizeCap);
+        hash = mix(hash, logPattern);
+        hash = mix(hash, garbageFreeEncoding ? 1 : 0);
+        hash = mix(hash, level != null ? level.toInt() : -1);
+        hash = mix(hash, fileSinkType.ordinal());
+        hash = mix(hash, batchSize);
+        hash = mix(hash, flushIntervalMillis);
+        hash = mix(hash, durabilityMode.ordinal());
+        hash = mix(hash, durabilityIntervalMillis);
+        hash = mix(hash, compressionEnabled ? 1 : 0);
+        hash = mix(hash, compressionLevel);
+        hash = mix(hash, compressionThreads);
+        hash = mix(hash, asyncEnabled ? 1 : 0);
+        hash = mix(hash, asyncQueueSize);
+        hash = mix(hash, asyncConsumerThreads);
+        hash = mix(hash, overflowPolicy != null ? overflowPolicy.ordinal() : -1);
+        hash = mix(hash, emailEnabled ? 1 : 0);
+        hash = mix(hash, smtpHost);
+        hash = mix(hash, smtpPort);
+        hash = mix(hash, smtpUsername);
+        hash = mix(hash, smtpPassword);
+        hash = mix(hash, emailFrom);
+        hash = mix(hash, emailTo);
+        hash = mix(hash, emailSubject);
+        hash = mix(hash, emailQueueSize);
+        hash = mix(hash, emailWorkerThreads);
+        hash = mix(hash, emailSendTimeoutMillis);
+        hash = mix(hash, emailDigestWindowMillis);
+        hash = mix(hash, emailDigestMaxSamples);
+        hash = mix(hash, emailDedupTtlMillis);
+        hash = mix(hash, emailDedupCapacity);
+        hash = mix(hash, emailRateLimitPerMinute);
+        hash = mix(hash, emailRateLimitBurst);
+        hash = mix(hash, emailBreakerFailureThreshold);
+        hash = mix(hash, emailBreakerOpenMillis);
+        return hash;
+    }
+
+    static long mix(long hash, long value) {
+        long mixed = (hash ^ value) * FINGERPRINT_MULTIPLIER;
+        return mixed ^ (mixed >>> 29);
+    }
+
+    static long mix(long hash, String value) {
+        if (value == null) {
+            return mix(hash, 0L);
+        }
+        long mixed = hash;
+        for (int i = 0; i < value.length(); i++) {
+            mixed = (mixed ^ value.charAt(i)) * FINGERPRINT_MULTIPLIER;
+        }
+        // The length keeps adjacent strings from hashing like their concatenation
+        return mix(mixed, value.length());
     }
 
     // Getters for existing fields
@@ -57,6 +191,64 @@ public class LoggerOptions {
         return logPattern;
     }
 
+    public boolean isGarbageFreeEncoding() {
+        return garbageFreeEncoding;
+    }
+
+    public Level getLevel() {
+        return level;
+    }
+
+    // Getters for file sink fields
+    public FileSinkType getFileSinkType() {
+        return fileSinkType;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public long getFlushIntervalMillis() {
+        return flushIntervalMillis;
+    }
+
+    public DurabilityMode getDurabilityMode() {
+        return durabilityMode;
+    }
+
+    public long getDurabilityIntervalMillis() {
+        return durabilityIntervalMillis;
+    }
+
+    public boolean isCompressionEnabled() {
+        return compressionEnabled;
+    }
+
+    public int getCompressionLevel() {
+        return compressionLevel;
+    }
+
+    public int getCompressionThreads() {
+        return compressionThreads;
+    }
+
+    // Getters for asynchronous logging fields
+    public boolean isAsyncEnabled() {
+        return asyncEnabled;
+    }
+
+    public int getAsyncQueueSize() {
+        return asyncQueueSize;
+    }
+
+    public int getAsyncConsumerThreads() {
+        return asyncConsumerThreads;
+    }
+
+    public OverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
     // Getters for new email fields
     public boolean isEmailEnabled() {
         return emailEnabled;
@@ -90,6 +282,127 @@ public class LoggerOptions {
         return emailSubject;
     }
 
+    public int getEmailQueueSize() {
+        return emailQueueSize;
+    }
+
+    public int getEmailWorkerThreads() {
+        return emailWorkerThreads;
+    }
+
+    public long getEmailSendTimeoutMillis() {
+        return emailSendTimeoutMillis;
+    }
+
+    public long getEmailDigestWindowMillis() {
+        return emailDigestWindowMillis;
+    }
+
+    public int getEmailDigestMaxSamples() {
+        return emailDigestMaxSamples;
+    }
+
+    public long getEmailDedupTtlMillis() {
+        return emailDedupTtlMillis;
+    }
+
+    public int getEmailDedupCapacity() {
+        return emailDedupCapacity;
+    }
+
+    public int getEmailRateLimitPerMinute() {
+        return emailRateLimitPerMinute;
+    }
+
+    public int getEmailRateLimitBurst() {
+        return emailRateLimitBurst;
+    }
+
+    public int getEmailBreakerFailureThreshold() {
+        return emailBreakerFailureThreshold;
+    }
+
+    public long getEmailBreakerOpenMillis() {
+        return emailBreakerOpenMillis;
+    }
+
+    /**
+     * Returns the 64-bit fingerprint of these options. Equal options always have the same fingerprint.
+     *
+     * @return the fingerprint
+     */
+    public long getFingerprint() {
+        return fingerprint;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof LoggerOptions)) {
+            return false;
+        }
+        LoggerOptions other = (LoggerOptions) o;
+        return fingerprint == other.fingerprint
+                && safeEq(appName, other.appName)
+                && safeEq(logPath, other.logPath)
+                && safeEq(maxFileSize, other.maxFileSize)
+                && safeEq(totalSizeCap, other.totalSizeCap)
+                && safeEq(logPattern, other.logPattern)
+                && garbageFreeEncoding == other.garbageFreeEncoding
+                && level == other.level
+                && fileSinkType == other.fileSinkType
+                && batchSize == other.batchSize
+                && flushIntervalMillis == other.flushIntervalMillis
+                && durabilityMode == other.durabilityMode
+                && durabilityIntervalMillis == other.durabilityIntervalMillis
+                && compressionEnabled == other.compressionEnabled
+                && compressionLevel == other.compressionLevel
+                && compressionThreads == other.compressionThreads
+                && asyncEnabled == other.asyncEnabled
+                && asyncQueueSize == other.asyncQueueSize
+                && asyncConsumerThreads == other.asyncConsumerThreads
+                && overflowPolicy == other.overflowPolicy
+                && emailEnabled == other.emailEnabled
+                && safeEq(smtpHost, other.smtpHost)
+                && smtpPort == other.smtpPort
+                && safeEq(smtpUsername, other.smtpUsername)
+                && safeEq(smtpPassword, other.smtpPassword)
+                && safeEq(emailFrom, other.emailFrom)
+                && safeEq(emailTo, other.emailTo)
+                && safeEq(emailSubject, other.emailSubject)
+                && emailQueueSize == other.emailQueueSize
+                && emailWorkerThreads == other.emailWorkerThreads
+                && emailSendTimeoutMillis == other.emailSendTimeoutMillis
+                && emailDigestWindowMillis == other.emailDigestWindowMillis
+                && emailDigestMaxSamples == other.emailDigestMaxSamples
+                && emailDedupTtlMillis == other.emailDedupTtlMillis
+                && emailDedupCapacity == other.emailDedupCapacity
+                && emailRateLimitPerMinute == other.emailRateLimitPerMinute
+                && emailRateLimitBurst == other.emailRateLimitBurst
+                && emailBreakerFailureThreshold == other.emailBreakerFailureThreshold
+                && emailBreakerOpenMillis == other.emailBreakerOpenMillis;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(fingerprint);
+    }
+
+    /**
+     * Safely compares two strings, treating nulls as empty strings.
+     *
+     * @param s1 first string
+     * @param s2 second string
+     * @return true if equal, false otherwise
+     */
+    private static boolean safeEq(String s1, String s2) {
+        if (s1 == null) s1 = "";
+        if (s2 == null) s2 = "";
+        return s1.equals(s2);
+    }
+
     @Override
     public String toString() {
         return "LoggerOptions{" +
@@ -98,6 +411,20 @@ public class LoggerOptions {
                 ", maxFileSize='" + maxFileSize + '\'' +
                 ", totalSizeCap='" + totalSizeCap + '\'' +
                 ", logPattern='" + logPattern + '\'' +
+                ", garbageFreeEncoding=" + garbageFreeEncoding +
+                ", level=" + level +
+                ", fileSinkType=" + fileSinkType +
+                ", batchSize=" + batchSize +
+                ", flushIntervalMillis=" + flushIntervalMillis +
+                ", durabilityMode=" + durabilityMode +
+                ", durabilityIntervalMillis=" + durabilityIntervalMillis +
+                ", compressionEnabled=" + compressionEnabled +
+                ", compressionLevel=" + compressionLevel +
+                ", compressionThreads=" + compressionThreads +
+                ", asyncEnabled=" + asyncEnabled +
+                ", asyncQueueSize=" + asyncQueueSize +
+                ", asyncConsumerThreads=" + asyncConsumerThreads +
+                ", overflowPolicy=" + overflowPolicy +
                 ", emailEnabled=" + emailEnabled +
                 ", smtpHost='" + smtpHost + '\'' +
                 ", smtpPort=" + smtpPort +
@@ -106,6 +433,17 @@ public class LoggerOptions {
                 ", emailFrom='" + emailFrom + '\'' +
                 ", emailTo='" + emailTo + '\'' +
                 ", emailSubject='" + emailSubject + '\'' +
+                ", emailQueueSize=" + emailQueueSize +
+                ", emailWorkerThreads=" + emailWorkerThreads +
+                ", emailSendTimeoutMillis=" + emailSendTimeoutMillis +
+                ", emailDigestWindowMillis=" + emailDigestWindowMillis +
+                ", emailDigestMaxSamples=" + emailDigestMaxSamples +
+                ", emailDedupTtlMillis=" + emailDedupTtlMillis +
+                ", emailDedupCapacity=" + emailDedupCapacity +
+                ", emailRateLimitPerMinute=" + emailRateLimitPerMinute +
+                ", emailRateLimitBurst=" + emailRateLimitBurst +
+                ", emailBreakerFailureThreshold=" + emailBreakerFailureThreshold +
+                ", emailBreakerOpenMillis=" + emailBreakerOpenMillis +
                 '}';
     }
 
@@ -118,6 +456,24 @@ public class LoggerOptions {
         private String maxFileSize = "10MB";
         private String totalSizeCap = "4GB";
         private String logPattern;
+        private boolean garbageFreeEncoding = false;
+        private Level level;
+
+        // File sink configurations
+        private FileSinkType fileSinkType = FileSinkType.STREAM;
+        private int batchSize = 64 * 1024;
+        private long flushIntervalMillis = 200;
+        private DurabilityMode durabilityMode = DurabilityMode.NONE;
+        private long durabilityIntervalMillis = 1000;
+        private boolean compressionEnabled = false;
+        private int compressionLevel = Deflater.DEFAULT_COMPRESSION;
+        private int compressionThreads = 1;
+
+        // Asynchronous logging configurations
+        private boolean asyncEnabled = false;
+        private int asyncQueueSize = 8192;
+        private int asyncConsumerThreads = 1;
+        private OverflowPolicy overflowPolicy = OverflowPolicy.BLOCK;
         
         // Email configurations
         private boolean emailEnabled = false;
@@ -128,6 +484,17 @@ public class LoggerOptions {
         private String emailFrom;
         private String emailTo;
         private String emailSubject = "Application Error Notification";
+        private int emailQueueSize = 256;
+        private int emailWorkerThreads = 1;
+        private long emailSendTimeoutMillis = 10_000;
+        private long emailDigestWindowMillis = 0;
+        private int emailDigestMaxSamples = 20;
+        private long emailDedupTtlMillis = 0;
+        private int emailDedupCapacity = 4096;
+        private int emailRateLimitPerMinute = 0;
+        private int emailRateLimitBurst = 10;
+        private int emailBreakerFailureThreshold = 5;
+        private long emailBreakerOpenMillis = 30_000;
 
         /**
          * Initializes the Builder with the required application name.
@@ -141,6 +508,52 @@ public class LoggerOptions {
             this.appName = appName;
         }
 
+        /**
+         * Initializes the Builder with all settings of existing options, so that individual settings can be changed.
+         *
+         * @param options the options to copy
+         */
+        public Builder(LoggerOptions options) {
+            this(options.appName);
+            this.logPath = options.logPath;
+            this.maxFileSize = options.maxFileSize;
+            this.totalSizeCap = options.totalSizeCap;
+            this.logPattern = options.logPattern;
+            this.garbageFreeEncoding = options.garbageFreeEncoding;
+            this.level = options.level;
+            this.fileSinkType = options.fileSinkType;
+            this.batchSize = options.batchSize;
+            this.flushIntervalMillis = options.flushIntervalMillis;
+            this.durabilityMode = options.durabilityMode;
+            this.durabilityIntervalMillis = options.durabilityIntervalMillis;
+            this.compressionEnabled = options.compressionEnabled;
+            this.compressionLevel = options.compressionLevel;
+            this.compressionThreads = options.compressionThreads;
+            this.asyncEnabled = options.asyncEnabled;
+            this.asyncQueueSize = options.asyncQueueSize;
+            this.asyncConsumerThreads = options.asyncConsumerThreads;
+            this.overflowPolicy = options.overflowPolicy;
+            this.emailEnabled = options.emailEnabled;
+            this.smtpHost = options.smtpHost;
+            this.smtpPort = options.smtpPort;
+            this.smtpUsername = options.smtpUsername;
+            this.smtpPassword = options.smtpPassword;
+            this.emailFrom = options.emailFrom;
+            this.emailTo = options.emailTo;
+            this.emailSubject = options.emailSubject;
+            this.emailQueueSize = options.emailQueueSize;
+            this.emailWorkerThreads = options.emailWorkerThreads;
+            this.emailSendTimeoutMillis = options.emailSendTimeoutMillis;
+            this.emailDigestWindowMillis = options.emailDigestWindowMillis;
+            this.emailDigestMaxSamples = options.emailDigestMaxSamples;
+            this.emailDedupTtlMillis = options.emailDedupTtlMillis;
+            this.emailDedupCapacity = options.emailDedupCapacity;
+            this.emailRateLimitPerMinute = options.emailRateLimitPerMinute;
+            this.emailRateLimitBurst = options.emailRateLimitBurst;
+            this.emailBreakerFailureThreshold = options.emailBreakerFailureThreshold;
+            this.emailBreakerOpenMillis = options.emailBreakerOpenMillis;
+        }
+
         /**
          * Sets the log path for the application.
          *
@@ -185,6 +598,162 @@ public class LoggerOptions {
             return this;
         }
 
+        /**
+         * Enables the precompiled, garbage-free encoder for the default log pattern.
+         * Ignored when a custom log pattern is set.
+         *
+         * @param enabled true to encode log lines without per-event allocations
+         * @return the Builder instance
+         */
+        public Builder garbageFreeEncoding(boolean enabled) {
+            this.garbageFreeEncoding = enabled;
+            return this;
+        }
+
+        /**
+         * Sets the level of the application's logger. Calls below the level are discarded before any formatting.
+         * When not set, the application inherits the level of the ROOT logger.
+         *
+         * @param level the log level, or null to inherit the ROOT level
+         * @return the Builder instance
+         */
+        public Builder level(Level level) {
+            this.level = level;
+            return this;
+        }
+
+        /**
+         * Sets how the per-level log files are written.
+         *
+         * @param fileSinkType the file sink type (defaults to STREAM)
+         * @return the Builder instance
+         */
+        public Builder fileSinkType(FileSinkType fileSinkType) {
+            this.fileSinkType = fileSinkType;
+            return this;
+        }
+
+        /**
+         * Sets the batch buffer size for the BATCHED_CHANNEL file sink.
+         *
+         * @param batchSize the batch buffer size in bytes (e.g., 65536)
+         * @return the Builder instance
+         */
+        public Builder batchSize(int batchSize) {
+            this.batchSize = batchSize;
+            return this;
+        }
+
+        /**
+         * Sets how long an event may wait in a batch before the BATCHED_CHANNEL file sink writes it.
+         *
+         * @param flushIntervalMillis the flush interval in milliseconds
+         * @return the Builder instance
+         */
+        public Builder flushIntervalMillis(long flushIntervalMillis) {
+            this.flushIntervalMillis = flushIntervalMillis;
+            return this;
+        }
+
+        /**
+         * Sets when written log data is forced to disk.
+         *
+         * @param durabilityMode the durability mode (defaults to NONE)
+         * @return the Builder instance
+         */
+        public Builder durabilityMode(DurabilityMode durabilityMode) {
+            this.durabilityMode = durabilityMode;
+            return this;
+        }
+
+        /**
+         * Sets how often the PERIODIC durability mode forces the log files to disk.
+         *
+         * @param durabilityIntervalMillis the interval in milliseconds (e.g., 1000)
+         * @return the Builder instance
+         */
+        public Builder durabilityIntervalMillis(long durabilityIntervalMillis) {
+            this.durabilityIntervalMillis = durabilityIntervalMillis;
+            return this;
+        }
+
+        /**
+         * Enables GZIP compression of rolled log files on low-priority background threads.
+         *
+         * @param enabled true to store rolled log files as .gz archives
+         * @return the Builder instance
+         */
+        public Builder compressRolledFiles(boolean enabled) {
+            this.compressionEnabled = enabled;
+            return this;
+        }
+
+        /**
+         * Sets the Deflater level used to compress rolled log files.
+         *
+         * @param compressionLevel the level from 0 (fastest) to 9 (smallest), or -1 for the default level
+         * @return the Builder instance
+         */
+        public Builder compressionLevel(int compressionLevel) {
+            this.compressionLevel = compressionLevel;
+            return this;
+        }
+
+        /**
+         * Sets the number of background threads compressing rolled log files.
+         *
+         * @param compressionThreads the number of compression threads (defaults to 1)
+         * @return the Builder instance
+         */
+        public Builder compressionThreads(int compressionThreads) {
+            this.compressionThreads = compressionThreads;
+            return this;
+        }
+
+        /**
+         * Enables asynchronous logging, where events are queued in a ring buffer and written by consumer threads.
+         *
+         * @param enabled true to enable asynchronous logging
+         * @return the Builder instance
+         */
+        public Builder enableAsync(boolean enabled) {
+            this.asyncEnabled = enabled;
+            return this;
+        }
+
+        /**
+         * Sets the capacity of the asynchronous ring buffer.
+         *
+         * @param asyncQueueSize the queue capacity, rounded up to a power of two
+         * @return the Builder instance
+         */
+        public Builder asyncQueueSize(int asyncQueueSize) {
+            this.asyncQueueSize = asyncQueueSize;
+            return this;
+        }
+
+        /**
+         * Sets the number of consumer threads that drain the asynchronous ring buffer.
+         *
+         * @param asyncConsumerThreads the number of consumer threads
+         * @return the Builder instance
+         */
+        public Builder asyncConsumerThreads(int asyncConsumerThreads) {
+            this.asyncConsumerThreads = asyncConsumerThreads;
+            return this;
+        }
+
+        /**
+         * Sets what the asynchronous queue does with new events when it is full.
+         *
+         * @param overflowPolicy the overflow policy (defaults to BLOCK)
+         * @return the Builder instance
+         */
+        public Builder overflowPolicy(OverflowPolicy overflowPolicy) {
+            this.overflowPolicy = overflowPolicy;
+            return this;
+        }
+
         /**
          * Enables the email feature.
          *
@@ -273,12 +842,181 @@ public class LoggerOptions {
             return this;
         }
 
+        /**
+         * Sets how many emails can wait to be sent. Emails logged while the queue is full are dropped.
+         *
+         * @param emailQueueSize the queue capacity (defaults to 256)
+         * @return the Builder instance
+         */
+        public Builder emailQueueSize(int emailQueueSize) {
+            this.emailQueueSize = emailQueueSize;
+            return this;
+        }
+
+        /**
+         * Sets the number of threads sending emails. Virtual threads are used when the JVM supports them.
+         *
+         * @param emailWorkerThreads the number of email threads (defaults to 1)
+         * @return the Builder instance
+         */
+        public Builder emailWorkerThreads(int emailWorkerThreads) {
+            this.emailWorkerThreads = emailWorkerThreads;
+            return this;
+        }
+
+        /**
+         * Sets the timeout for connecting to the SMTP server and for each read and write while sending an email.
+         *
+         * @param emailSendTimeoutMillis the timeout in milliseconds (defaults to 10000)
+         * @return the Builder instance
+         */
+        public Builder emailSendTimeoutMillis(long emailSendTimeoutMillis) {
+            this.emailSendTimeoutMillis = emailSendTimeoutMillis;
+            return this;
+        }
+
+        /**
+         * Enables digest mode for emails. The first alert is sent immediately; alerts logged during the following
+         * window are gathered into one digest email with their count, first and last timestamps and sample lines.
+         *
+         * @param emailDigestWindowMillis the digest window in milliseconds, or 0 to send every alert on its own
+         *                                (defaults to 0)
+         * @return the Builder instance
+         */
+        public Builder emailDigestWindowMillis(long emailDigestWindowMillis) {
+            this.emailDigestWindowMillis = emailDigestWindowMillis;
+            return this;
+        }
+
+        /**
+         * Sets how many alert lines a digest email keeps. Later alerts of the window are only counted.
+         *
+         * @param emailDigestMaxSamples the maximum number of sample lines (defaults to 20)
+         * @return the Builder instance
+         */
+        public Builder emailDigestMaxSamples(int emailDigestMaxSamples) {
+            this.emailDigestMaxSamples = emailDigestMaxSamples;
+            return this;
+        }
+
+        /**
+         * Suppresses repeats of an alert for a while after it was emailed. Alerts are identical when they have
+         * the same logger, level, message template and top stack frames. The next email for a suppressed alert
+         * reports how many repeats were suppressed.
+         *
+         * @param emailDedupTtlMillis how long repeats are suppressed in milliseconds, or 0 to email every alert
+         *                            (defaults to 0)
+         * @return the Builder instance
+         */
+        public Builder emailDedupTtlMillis(long emailDedupTtlMillis) {
+            this.emailDedupTtlMillis = emailDedupTtlMillis;
+            return this;
+        }
+
+        /**
+         * Sets how many distinct alerts are remembered for suppressing repeats.
+         *
+         * @param emailDedupCapacity the number of alerts (defaults to 4096)
+         * @return the Builder instance
+         */
+        public Builder emailDedupCapacity(int emailDedupCapacity) {
+            this.emailDedupCapacity = emailDedupCapacity;
+            return this;
+        }
+
+        /**
+         * Limits how many emails this application sends. Emails over the limit are dropped and counted in
+         * {@link LoggerMonitor}; see {@link EmailAppender#setGlobalRateLimit(int, int)} for a limit shared by all
+         * applications.
+         *
+         * @param emailRateLimitPerMinute the sustained rate, or 0 for no limit (defaults to 0)
+         * @return the Builder instance
+         */
+        public Builder emailRateLimitPerMinute(int emailRateLimitPerMinute) {
+            this.emailRateLimitPerMinute = emailRateLimitPerMinute;
+            return this;
+        }
+
+        /**
+         * Sets how many emails can be sent at once under the rate limit after a quiet period.
+         *
+         * @param emailRateLimitBurst the burst size (defaults to 10)
+         * @return the Builder instance
+         */
+        public Builder emailRateLimitBurst(int emailRateLimitBurst) {
+            this.emailRateLimitBurst = emailRateLimitBurst;
+            return this;
+        }
+
+        /**
+         * Sets how many consecutive failed sends open the email circuit breaker. While it is open, emails are
+         * dropped without contacting the SMTP server; after the open period, one email probes the server.
+         *
+         * @param emailBreakerFailureThreshold the number of failures, or 0 to disable the breaker (defaults to 5)
+         * @return the Builder instance
+         */
+        public Builder emailBreakerFailureThreshold(int emailBreakerFailureThreshold) {
+            this.emailBreakerFailureThreshold = emailBreakerFailureThreshold;
+            return this;
+        }
+
+        /**
+         * Sets how long the email circuit breaker stays open before probing the SMTP server.
+         *
+         * @param emailBreakerOpenMillis the open period in milliseconds (defaults to 30000)
+         * @return the Builder instance
+         */
+        public Builder emailBreakerOpenMillis(long emailBreakerOpenMillis) {
+            this.emailBreakerOpenMillis = emailBreakerOpenMillis;
+            return this;
+        }
+
         /**
          * Builds and returns a LoggerOptions instance with the configured settings.
          *
          * @return the constructed LoggerOptions
          */
         public LoggerOptions build() {
+            if (fileSinkType == null) {
+                throw new IllegalArgumentException("File sink type cannot be null");
+            }
+            if (fileSinkType == FileSinkType.BATCHED_CHANNEL && batchSize <= 0) {
+                throw new IllegalArgumentException("Batch size must be greater than zero");
+            }
+            if (fileSinkType == FileSinkType.MEMORY_MAPPED) {
+                if (maxFileSize == null) {
+                    throw new IllegalArgumentException("Max file size cannot be null with the MEMORY_MAPPED file sink");
+                }
+                if (FileSize.valueOf(maxFileSize).getSize() > Integer.MAX_VALUE) {
+                    throw new IllegalArgumentException("Max file size cannot exceed 2GB with the MEMORY_MAPPED file sink");
+                }
+            }
+            if (durabilityMode == null) {
+                throw new IllegalArgumentException("Durability mode cannot be null");
+            }
+            if (durabilityMode == DurabilityMode.PERIODIC && durabilityIntervalMillis <= 0) {
+                throw new IllegalArgumentException("Durability interval must be greater than zero");
+            }
+            if (compressionEnabled) {
+                if (compressionLevel != Deflater.DEFAULT_COMPRESSION
+                        && (compressionLevel < Deflater.NO_COMPRESSION || compressionLevel > Deflater.BEST_COMPRESSION)) {
+                    throw new IllegalArgumentException("Compression level must be between 0 and 9, or -1 for the default level");
+                }
+                if (compressionThreads <= 0) {
+                    throw new IllegalArgumentException("Compression threads must be greater than zero");
+                }
+            }
+            if (asyncEnabled) {
+                if (asyncQueueSize <= 0) {
+                    throw new IllegalArgumentException("Async queue size must be greater than zero");
+                }
+                if (asyncConsumerThreads <= 0) {
+                    throw new IllegalArgumentException("Async consumer threads must be greater than zero");
+                }
+                if (overflowPolicy == null) {
+                    throw new IllegalArgumentException("Overflow policy must be provided when async logging is enabled");
+                }
+            }
             if (emailEnabled) {
                 if (smtpHost == null || smtpHost.trim().isEmpty()) {
                     throw new IllegalArgumentException("SMTP host must be provided when email is enabled");
@@ -289,6 +1027,39 @@ public class LoggerOptions {
                 if (emailTo == null || emailTo.trim().isEmpty()) {
                     throw new IllegalArgumentException("Email 'to' address must be provided when email is enabled");
                 }
+                if (emailQueueSize <= 0) {
+                    throw new IllegalArgumentException("Email queue size must be greater than zero");
+                }
+                if (emailWorkerThreads <= 0) {
+                    throw new IllegalArgumentException("Email worker threads must be greater than zero");
+                }
+                if (emailSendTimeoutMillis <= 0) {
+                    throw new IllegalArgumentException("Email send timeout must be greater than zero");
+                }
+                if (emailDigestWindowMillis < 0) {
+                    throw new IllegalArgumentException("Email digest window cannot be negative");
+                }
+                if (emailDigestWindowMillis > 0 && emailDigestMaxSamples <= 0) {
+                    throw new IllegalArgumentException("Email digest samples must be greater than zero");
+                }
+                if (emailDedupTtlMillis < 0) {
+                    throw new IllegalArgumentException("Email dedup TTL cannot be negative");
+                }
+                if (emailDedupTtlMillis > 0 && emailDedupCapacity <= 0) {
+                    throw new IllegalArgumentException("Email dedup capacity must be greater than zero");
+                }
+                if (emailRateLimitPerMinute < 0) {
+                    throw new IllegalArgumentException("Email rate limit cannot be negative");
+                }
+                if (emailRateLimitPerMinute > 0 && emailRateLimitBurst <= 0) {
+                    throw new IllegalArgumentException("Email rate limit burst must be greater than zero");
+                }
+                if (emailBreakerFailureThreshold < 0) {
+                    throw new IllegalArgumentException("Email breaker failure threshold cannot be negative");
+                }
+                if (emailBreakerFailureThreshold > 0 && emailBreakerOpenMillis <= 0) {
+                    throw new IllegalArgumentException("Email breaker open period must be greater than zero");
+                }
             }
             return new LoggerOptions(this);
         }
@@ -12,11 +12,15 @@ class MDCConfig {
     private static final Logger logger = LoggerFactory.getLogger(MDCConfig.class);
 
     /**
-     * Sets the application name in the MDC.
+     * Sets the application name in the MDC. Does nothing if the MDC already holds the name,
+     * since every put copies the thread's MDC map.
      *
      * @param appName the name of the application
      */
     static void setApplicationName(String appName) {
+        if (appName != null && appName.equals(MDC.get(APP_NAME_KEY))) {
+            return;
+        }
         MDC.put(APP_NAME_KEY, appName);
         logger.debug("MDCConfig: Set applicationName to {}", appName);
     }
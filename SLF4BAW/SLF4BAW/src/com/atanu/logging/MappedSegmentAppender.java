@@ -0,0 +1,491 @@
+package com.atanu.logging;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.UnsynchronizedAppenderBase;
+import ch.qos.logback.core.encoder.Encoder;
+import ch.qos.logback.core.rolling.helper.DateTokenConverter;
+import ch.qos.logback.core.rolling.helper.FileNamePattern;
+import ch.qos.logback.core.rolling.helper.RollingCalendar;
+import ch.qos.logback.core.rolling.helper.SizeAndTimeBasedArchiveRemover;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Appender that writes a log file through fixed-size memory-mapped segments.
+ * <p>
+ * Writers reserve space in the current segment with a compare-and-set on its append cursor and copy their
+ * encoded bytes into the MappedByteBuffer without taking a lock. When a segment is full, or the day changes,
+ * one writer seals it, waits for the in-flight copies to land, truncates the unused tail and renames the file
+ * following the same {@code level.%d{yyyy-MM-dd}.%i.log} naming as SizeAndTimeBasedRollingPolicy before
+ * mapping a fresh segment. Rolled files are cleaned up with logback's archive remover, honouring
+ * maxHistory and totalSizeCap.
+ */
+public class MappedSegmentAppender extends UnsynchronizedAppenderBase<ILoggingEvent> implements SyncableAppender {
+    private static final long SEALED = -1L;
+    private static final long REOPEN_INTERVAL_MILLIS = 1000;
+
+    private Encoder<ILoggingEvent> encoder;
+    private String file;
+    private String fileNamePattern;
+    private long segmentSize = 10L * 1024 * 1024;
+    private int maxHistory = 90;
+    private long totalSizeCap = 0;
+
+    private final Object rollLock = new Object();
+    private LogCompressor compressor;
+    private FileNamePattern rolledNamePattern;
+    private RollingCalendar rollingCalendar;
+    private SizeAndTimeBasedArchiveRemover archiveRemover;
+    private volatile Segment current;
+    // Guarded by rollLock; after a failed roll, when to try mapping the file again and how many events were lost
+    private long nextReopenMillis;
+    private long droppedEvents;
+
+    @Override
+    public void start() {
+        if (encoder == null) {
+            addError("MappedSegmentAppender: Encoder is not set.");
+            return;
+        }
+        if (file == null || fileNamePattern == null) {
+            addError("MappedSegmentAppender: Both file and fileNamePattern must be set.");
+            return;
+        }
+
+        String rolledPattern = fileNamePattern;
+        if (fileNamePattern.endsWith(LogCompressor.GZ_SUFFIX)) {
+            if (compressor == null) {
+                addError("MappedSegmentAppender: A compressor is required for the compressed pattern " + fileNamePattern);
+                return;
+            }
+            rolledPattern = fileNamePattern.substring(0, fileNamePattern.length() - LogCompressor.GZ_SUFFIX.length());
+            compressor.compressLeftovers(rolledPattern, getContext());
+        }
+        rolledNamePattern = new FileNamePattern(rolledPattern, getContext());
+        DateTokenConverter<Object> dateTokenConverter = rolledNamePattern.getPrimaryDateTokenConverter();
+        if (dateTokenConverter == null || !rolledNamePattern.hasIntegerTokenCOnverter()) {
+            addError("MappedSegmentAppender: fileNamePattern needs both %d and %i tokens: " + fileNamePattern);
+            return;
+        }
+        rollingCalendar = new RollingCalendar(dateTokenConverter.getDatePattern());
+        // With compression, retention only counts the finished archives and their compressed sizes
+        archiveRemover = new SizeAndTimeBasedArchiveRemover(new FileNamePattern(fileNamePattern, getContext()), rollingCalendar);
+        archiveRemover.setContext(getContext());
+        archiveRemover.setMaxHistory(maxHistory);
+        archiveRemover.setTotalSizeCap(totalSizeCap);
+
+        try {
+            current = openSegment(System.currentTimeMillis());
+        } catch (IOException e) {
+            addError("MappedSegmentAppender: Failed to map " + file, e);
+            return;
+        }
+        super.start();
+    }
+
+    @Override
+    public void stop() {
+        super.stop();
+        synchronized (rollLock) {
+            Segment segment = current;
+            current = null;
+            if (segment != null) {
+                try {
+                    closeSegment(segment);
+                } catch (IOException e) {
+                    addError("MappedSegmentAppender: Failed to close " + file, e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Copies the encoded event into the current segment, rolling to a new segment when it does not fit.
+     *
+     * @param event the logging event
+     */
+    @Override
+    protected void append(ILoggingEvent event) {
+        ByteBuffer encoded = encode(event);
+        int length = encoded.remaining();
+        if (length > segmentSize) {
+            addWarn("MappedSegmentAppender: Dropping event larger than the segment size of " + file);
+            return;
+        }
+
+        while (true) {
+            Segment segment = current;
+            if (segment == null) {
+                if (!reopen(event.getTimeStamp())) {
+                    return;
+                }
+                continue;
+            }
+            if (event.getTimeStamp() >= segment.periodEnd) {
+                roll(segment, event.getTimeStamp());
+                continue;
+            }
+            long position = segment.reserve(length);
+            if (position >= 0) {
+                segment.write(position, encoded);
+                segment.committed.addAndGet(length);
+                return;
+            }
+            roll(segment, event.getTimeStamp());
+        }
+    }
+
+    /**
+     * Forces the current segment to disk. Holds the roll lock so the segment cannot be unmapped during the force.
+     */
+    @Override
+    public void sync() {
+        synchronized (rollLock) {
+            Segment segment = current;
+            if (segment != null) {
+                segment.mapped.force();
+            }
+        }
+    }
+
+    private ByteBuffer encode(ILoggingEvent event) {
+        if (encoder instanceof DefaultPatternEncoder) {
+            return ((DefaultPatternEncoder) encoder).encodeToBuffer(event);
+        }
+        return ByteBuffer.wrap(encoder.encode(event));
+    }
+
+    /**
+     * Replaces a full or expired segment. Only the first writer to arrive does the work;
+     * the others find a new current segment once they get the lock.
+     */
+    private void roll(Segment segment, long timestamp) {
+        synchronized (rollLock) {
+            if (current != segment) {
+                return;
+            }
+            try {
+                File activeFile = new File(file);
+                closeSegment(segment);
+                File target = nextRolledFile(segment.periodStart);
+                if (!activeFile.renameTo(target)) {
+                    addError("MappedSegmentAppender: Failed to rename " + activeFile + " to " + target);
+                } else if (compressor != null) {
+                    compressor.compressAsync(target);
+                }
+                current = openSegment(timestamp);
+                archiveRemover.cleanAsynchronously(new Date(timestamp));
+            } catch (IOException e) {
+                addError("MappedSegmentAppender: Failed to roll " + file + "; retrying every "
+                        + REOPEN_INTERVAL_MILLIS + "ms", e);
+                current = null;
+                nextReopenMillis = System.currentTimeMillis() + REOPEN_INTERVAL_MILLIS;
+            }
+        }
+    }
+
+    /**
+     * Maps the active file again after a failed roll. Tries at most once per interval; the events arriving in
+     * between are dropped and counted, and the count is reported with the next attempt.
+     *
+     * @return true if a segment is available
+     */
+    private boolean reopen(long timestamp) {
+        synchronized (rollLock) {
+            if (current != null) {
+                return true;
+            }
+            if (!isStarted()) {
+                return false;
+            }
+            long now = System.currentTimeMillis();
+            if (now < nextReopenMillis) {
+                droppedEvents++;
+                return false;
+            }
+            try {
+                current = openSegment(timestamp);
+                addWarn("MappedSegmentAppender: Mapped " + file + " again after dropping " + droppedEvents + " events");
+                droppedEvents = 0;
+                return true;
+            } catch (IOException e) {
+                droppedEvents++;
+                nextReopenMillis = now + REOPEN_INTERVAL_MILLIS;
+                addError("MappedSegmentAppender: Failed to map " + file + " again; " + droppedEvents
+                        + " events dropped so far", e);
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Maps the active file as a new segment, continuing after any content a previous segment left behind.
+     */
+    private Segment openSegment(long timestamp) throws IOException {
+        File activeFile = new File(file);
+        File parent = activeFile.getParentFile();
+        if (parent != null && !parent.exists() && !parent.mkdirs()) {
+            throw new IOException("Failed to create directory " + parent);
+        }
+
+        Date periodStart = new Date(timestamp);
+        long periodEnd = rollingCalendar.getNextTriggeringDate(periodStart).getTime();
+        RandomAccessFile randomAccessFile = new RandomAccessFile(activeFile, "rw");
+        FileChannel channel = randomAccessFile.getChannel();
+        try {
+            // Mapping grows the file to the full segment size, so a segment left behind by a crash still carries
+            // its zero-filled tail; cut it off so that only the written data counts
+            long existing = dataEnd(channel);
+            if (existing < channel.size()) {
+                channel.truncate(existing);
+            }
+            if (existing >= segmentSize) {
+                channel.close();
+                File target = nextRolledFile(new Date(activeFile.lastModified()));
+                if (!activeFile.renameTo(target)) {
+                    throw new IOException("Failed to rename " + activeFile + " to " + target);
+                }
+                if (compressor != null) {
+                    compressor.compressAsync(target);
+                }
+                return openSegment(timestamp);
+            }
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+            return new Segment(channel, mapped, existing, periodStart, periodEnd);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Finds the end of the data in a file, which is the position after its last non-zero byte.
+     */
+    private static long dataEnd(FileChannel channel) throws IOException {
+        ByteBuffer block = ByteBuffer.allocate(64 * 1024);
+        long end = channel.size();
+        while (end > 0) {
+            long blockStart = Math.max(0, end - block.capacity());
+            block.clear().limit((int) (end - blockStart));
+            while (block.hasRemaining()) {
+                if (channel.read(block, blockStart + block.position()) < 0) {
+                    break;
+                }
+            }
+            for (int i = block.position() - 1; i >= 0; i--) {
+                if (block.get(i) != 0) {
+                    return blockStart + i + 1;
+                }
+            }
+            end = blockStart;
+        }
+        return 0;
+    }
+
+    /**
+     * Seals the segment, waits for writers that already reserved space, then forces the data to disk,
+     * truncates the unused tail and releases the mapping.
+     * <p>
+     * If the writers have not finished after a few seconds, the mapping is left to the garbage collector and the
+     * file keeps its zero-filled tail: unmapping or truncating under a writer that still copies into the mapping
+     * would crash the JVM instead of throwing.
+     */
+    private void closeSegment(Segment segment) throws IOException {
+        long end = segment.seal();
+        long waitStart = System.nanoTime();
+        while (segment.committed.get() < end) {
+            if (System.nanoTime() - waitStart > TimeUnit.SECONDS.toNanos(5)) {
+                addWarn("MappedSegmentAppender: Timed out waiting for writers of " + file
+                        + "; leaving the segment mapped and untruncated");
+                segment.channel.close();
+                return;
+            }
+            LockSupport.parkNanos(1000L);
+        }
+        segment.mapped.force();
+        unmap(segment.mapped);
+        segment.channel.truncate(end);
+        segment.channel.close();
+    }
+
+    /**
+     * Finds the first unused index of the rolled file name for the given period.
+     */
+    private File nextRolledFile(Date periodDate) {
+        int index = 0;
+        File target;
+        do {
+            target = new File(rolledNamePattern.convertMultipleArguments(periodDate, index++));
+        } while (target.exists() || new File(target.getPath() + LogCompressor.GZ_SUFFIX).exists());
+        File parent = target.getParentFile();
+        if (parent != null && !parent.exists()) {
+            parent.mkdirs();
+        }
+        return target;
+    }
+
+    /**
+     * Releases a mapping eagerly so the file can be truncated and renamed on every platform.
+     * Falls back to garbage collection when the JDK offers no cleaner.
+     */
+    private void unmap(MappedByteBuffer mapped) {
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+            Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            invokeCleaner.invoke(theUnsafe.get(null), mapped);
+            return;
+        } catch (NoSuchMethodException e) {
+            // Java 8 has no Unsafe.invokeCleaner; use the buffer's own cleaner below
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            addWarn("MappedSegmentAppender: Could not unmap segment of " + file, e);
+            return;
+        }
+        try {
+            Method cleanerMethod = mapped.getClass().getMethod("cleaner");
+            cleanerMethod.setAccessible(true);
+            Object cleaner = cleanerMethod.invoke(mapped);
+            if (cleaner != null) {
+                cleaner.getClass().getMethod("clean").invoke(cleaner);
+            }
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            addWarn("MappedSegmentAppender: Could not unmap segment of " + file, e);
+        }
+    }
+
+    public void setEncoder(Encoder<ILoggingEvent> encoder) {
+        this.encoder = encoder;
+    }
+
+    public Encoder<ILoggingEvent> getEncoder() {
+        return encoder;
+    }
+
+    /**
+     * Sets the active log file.
+     *
+     * @param file the path of the active log file
+     */
+    public void setFile(String file) {
+        this.file = file;
+    }
+
+    public String getFile() {
+        return file;
+    }
+
+    /**
+     * Sets the name pattern of rolled segments, which must contain %d and %i tokens.
+     * A pattern ending in .gz compresses rolled segments with the configured compressor.
+     *
+     * @param fileNamePattern the rolled file name pattern (e.g., "info.%d{yyyy-MM-dd}.%i.log")
+     */
+    public void setFileNamePattern(String fileNamePattern) {
+        this.fileNamePattern = fileNamePattern;
+    }
+
+    /**
+     * Sets the compressor for rolled segments, required when the file name pattern ends in .gz.
+     *
+     * @param compressor the LogCompressor instance
+     */
+    void setCompressor(LogCompressor compressor) {
+        this.compressor = compressor;
+    }
+
+    /**
+     * Sets the size of each mapped segment, which is also the size at which the file rolls.
+     *
+     * @param segmentSize the segment size in bytes
+     */
+    public void setSegmentSize(long segmentSize) {
+        this.segmentSize = segmentSize;
+    }
+
+    /**
+     * Sets the number of periods rolled segments are kept for.
+     *
+     * @param maxHistory the maximum history in periods
+     */
+    public void setMaxHistory(int maxHistory) {
+        this.maxHistory = maxHistory;
+    }
+
+    /**
+     * Sets the total size cap for rolled segments.
+     *
+     * @param totalSizeCap the total size cap in bytes, or 0 for no cap
+     */
+    public void setTotalSizeCap(long totalSizeCap) {
+        this.totalSizeCap = totalSizeCap;
+    }
+
+    /**
+     * One mapped region of the active file with its lock-free append cursor.
+     */
+    private static final class Segment {
+        private final FileChannel channel;
+        private final MappedByteBuffer mapped;
+        private final AtomicLong cursor;
+        private final AtomicLong committed;
+        private final Date periodStart;
+        private final long periodEnd;
+        private final long capacity;
+
+        Segment(FileChannel channel, MappedByteBuffer mapped, long start, Date periodStart, long periodEnd) {
+            this.channel = channel;
+            this.mapped = mapped;
+            this.cursor = new AtomicLong(start);
+            this.committed = new AtomicLong(start);
+            this.periodStart = periodStart;
+            this.periodEnd = periodEnd;
+            this.capacity = mapped.capacity();
+        }
+
+        /**
+         * Reserves space for an event.
+         *
+         * @return the position to write at, or -1 if the segment is full or sealed
+         */
+        long reserve(int length) {
+            while (true) {
+                long position = cursor.get();
+                if (position == SEALED || position + length > capacity) {
+                    return -1;
+                }
+                if (cursor.compareAndSet(position, position + length)) {
+                    return position;
+                }
+            }
+        }
+
+        /**
+         * Stops further reservations.
+         *
+         * @return the end of the reserved area
+         */
+        long seal() {
+            long end = cursor.getAndSet(SEALED);
+            return end == SEALED ? committed.get() : end;
+        }
+
+        void write(long position, ByteBuffer encoded) {
+            // A duplicate has its own position, so writers do not share the mapped buffer's position
+            ByteBuffer destination = mapped.duplicate();
+            destination.position((int) position);
+            destination.put(encoded);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.atanu.logging;
+
+/**
+ * Policies deciding what the asynchronous logging queue does with an event when it is full.
+ */
+public enum OverflowPolicy {
+    /**
+     * Waits for a free slot, so no event is lost but the calling thread slows down to the disk's pace.
+     */
+    BLOCK,
+
+    /**
+     * Discards the event being logged and keeps the queued ones.
+     */
+    DROP_NEWEST,
+
+    /**
+     * Discards the oldest queued event to make room for the new one.
+     */
+    DROP_OLDEST,
+
+    /**
+     * Discards DEBUG, INFO and TRACE events, while WARN and ERROR events wait for a free slot.
+     */
+    DROP_BELOW_LEVEL,
+
+    /**
+     * Writes the event to a spill file on disk, which the consumer threads replay once the queue drains.
+     */
+    SPILL_TO_DISK
+}
@@ -0,0 +1,88 @@
+package com.atanu.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.encoder.Encoder;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * EncoderFactory that creates a PatternLayoutEncoder per log file, using an application specific pattern
+ * when one is registered and the default pattern otherwise. Applications flagged as garbage-free get a
+ * {@link DefaultPatternEncoder} instead.
+ */
+public class PatternEncoderFactory implements EncoderFactory {
+    private final String defaultPattern;
+    private final Map<String, String> appPatterns = new ConcurrentHashMap<>();
+    private final Set<String> garbageFreeApps = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Creates a factory with the given default pattern.
+     *
+     * @param defaultPattern the pattern used for applications without their own pattern
+     */
+    public PatternEncoderFactory(String defaultPattern) {
+        if (defaultPattern == null || defaultPattern.isEmpty()) {
+            throw new IllegalArgumentException("Default pattern cannot be null or empty");
+        }
+        this.defaultPattern = defaultPattern;
+    }
+
+    /**
+     * Registers the pattern for an application. Files opened afterwards for the application use it.
+     *
+     * @param appName the name of the application
+     * @param pattern the log pattern, or null to fall back to the default pattern
+     */
+    public void setAppPattern(String appName, String pattern) {
+        if (pattern == null || pattern.isEmpty()) {
+            appPatterns.remove(appName);
+        } else {
+            appPatterns.put(appName, pattern);
+        }
+    }
+
+    /**
+     * Selects the precompiled, garbage-free DefaultPatternEncoder for an application.
+     * Only valid for applications that log with the default pattern.
+     *
+     * @param appName     the name of the application
+     * @param garbageFree true to use DefaultPatternEncoder for the application's files
+     */
+    public void setGarbageFree(String appName, boolean garbageFree) {
+        if (garbageFree) {
+            garbageFreeApps.add(appName);
+        } else {
+            garbageFreeApps.remove(appName);
+        }
+    }
+
+    /**
+     * Returns the pattern used for the given application.
+     *
+     * @param appName the name of the application
+     * @return the application's pattern, or the default pattern
+     */
+    public String getPattern(String appName) {
+        return appPatterns.getOrDefault(appName, defaultPattern);
+    }
+
+    @Override
+    public Encoder<ILoggingEvent> createEncoder(LoggerContext context, String appName, Level level) {
+        if (garbageFreeApps.contains(appName)) {
+            DefaultPatternEncoder encoder = new DefaultPatternEncoder();
+            encoder.setContext(context);
+            encoder.start();
+            return encoder;
+        }
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(context);
+        encoder.setPattern(getPattern(appName));
+        encoder.start();
+        return encoder;
+    }
+}
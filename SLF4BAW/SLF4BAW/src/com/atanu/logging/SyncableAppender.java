@@ -0,0 +1,16 @@
+package com.atanu.logging;
+
+import java.io.IOException;
+
+/**
+ * A file appender able to force the data it has written to disk.
+ */
+interface SyncableAppender {
+
+    /**
+     * Writes out any buffered data and forces the file to disk.
+     *
+     * @throws IOException if the file cannot be written or forced
+     */
+    void sync() throws IOException;
+}
@@ -0,0 +1,50 @@
+package com.atanu.logging;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.recovery.ResilientFileOutputStream;
+import ch.qos.logback.core.rolling.RollingFileAppender;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+
+/**
+ * RollingFileAppender that can force its active file to disk through the FileChannel behind its output stream.
+ */
+public class SyncingRollingFileAppender extends RollingFileAppender<ILoggingEvent> implements SyncableAppender {
+
+    /**
+     * Flushes the output stream and forces the active file to disk. Holds the appender lock so the file
+     * cannot be rolled over underneath the force.
+     *
+     * @throws IOException if the file cannot be flushed or forced
+     */
+    @Override
+    public void sync() throws IOException {
+        lock.lock();
+        try {
+            FileChannel channel = channel();
+            if (channel != null && channel.isOpen()) {
+                channel.force(false);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the channel of the active file after flushing anything written through the stream itself.
+     * Must be called while holding the lock.
+     *
+     * @return the file channel, or null if no file is open
+     * @throws IOException if the stream cannot be flushed
+     */
+    protected FileChannel channel() throws IOException {
+        OutputStream outputStream = getOutputStream();
+        if (!(outputStream instanceof ResilientFileOutputStream)) {
+            return null;
+        }
+        outputStream.flush();
+        return ((ResilientFileOutputStream) outputStream).getChannel();
+    }
+}
@@ -0,0 +1,179 @@
+package com.atanu.logging;
+
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Lock-free cache of formatted timestamps for one date pattern and time zone.
+ * <p>
+ * Most log events within a busy second share everything but the milliseconds, so the text around the
+ * {@code SSS} field is formatted once per second and the milliseconds are patched in for every event.
+ * Patterns without a single {@code SSS} field are cached per millisecond instead. The cached second is
+ * published as an immutable snapshot through a volatile field; threads that race on a new second
+ * simply format it twice.
+ */
+class TimestampCache {
+    private static final Map<String, TimestampCache> CACHES = new ConcurrentHashMap<>();
+
+    private final SimpleDateFormat prefixFormat;
+    private final SimpleDateFormat suffixFormat;
+    private final SimpleDateFormat fullFormat;
+    private final boolean patchMillis;
+    private volatile Second current = new Second(Long.MIN_VALUE, "", "");
+
+    private TimestampCache(String datePattern, TimeZone timeZone) {
+        int millisIndex = findMillisField(datePattern);
+        this.patchMillis = millisIndex >= 0;
+        if (patchMillis) {
+            this.prefixFormat = createFormat(datePattern.substring(0, millisIndex), timeZone);
+            this.suffixFormat = createFormat(datePattern.substring(millisIndex + 3), timeZone);
+            this.fullFormat = null;
+        } else {
+            this.prefixFormat = null;
+            this.suffixFormat = null;
+            this.fullFormat = createFormat(datePattern, timeZone);
+        }
+    }
+
+    /**
+     * Returns the shared cache for a date pattern in the given time zone.
+     *
+     * @param datePattern the SimpleDateFormat pattern
+     * @param timeZone    the time zone, or null for the default time zone
+     * @return the shared TimestampCache
+     * @throws IllegalArgumentException if the pattern is invalid
+     */
+    static TimestampCache forPattern(String datePattern, TimeZone timeZone) {
+        TimeZone zone = timeZone != null ? timeZone : TimeZone.getDefault();
+        return CACHES.computeIfAbsent(datePattern + '|' + zone.getID(), key -> new TimestampCache(datePattern, zone));
+    }
+
+    /**
+     * Formats a timestamp.
+     *
+     * @param timestamp the timestamp in milliseconds since the epoch
+     * @return the formatted timestamp
+     */
+    String format(long timestamp) {
+        if (!patchMillis) {
+            Second snapshot = current;
+            if (snapshot.key != timestamp) {
+                snapshot = new Second(timestamp, format(fullFormat, timestamp), "");
+                current = snapshot;
+            }
+            return snapshot.prefix;
+        }
+
+        Second snapshot = secondOf(timestamp);
+        int millis = (int) Math.floorMod(timestamp, 1000L);
+        StringBuilder builder = new StringBuilder(snapshot.prefix.length() + 3 + snapshot.suffix.length());
+        builder.append(snapshot.prefix);
+        appendMillis(builder, millis);
+        builder.append(snapshot.suffix);
+        return builder.toString();
+    }
+
+    /**
+     * Returns whether the pattern has a single {@code SSS} field, so that {@link #secondOf(long)} can be used.
+     *
+     * @return true if milliseconds are patched into a per-second snapshot
+     */
+    boolean isPatchingMillis() {
+        return patchMillis;
+    }
+
+    /**
+     * Returns the snapshot of the second containing the timestamp, formatting it if the cached second is stale.
+     * Only meaningful when {@link #isPatchingMillis()} is true.
+     *
+     * @param timestamp the timestamp in milliseconds since the epoch
+     * @return the formatted text before and after the milliseconds
+     */
+    Second secondOf(long timestamp) {
+        long second = Math.floorDiv(timestamp, 1000L);
+        Second snapshot = current;
+        if (snapshot.key != second) {
+            long secondStart = second * 1000L;
+            snapshot = new Second(second, format(prefixFormat, secondStart), format(suffixFormat, secondStart));
+            current = snapshot;
+        }
+        return snapshot;
+    }
+
+    private static String format(SimpleDateFormat template, long timestamp) {
+        // SimpleDateFormat is not thread-safe; a clone per cache miss keeps the hot path lock-free
+        SimpleDateFormat format = (SimpleDateFormat) template.clone();
+        return format.format(new Date(timestamp));
+    }
+
+    private static SimpleDateFormat createFormat(String pattern, TimeZone timeZone) {
+        SimpleDateFormat format = new SimpleDateFormat(pattern);
+        format.setTimeZone(timeZone);
+        return format;
+    }
+
+    private static void appendMillis(StringBuilder builder, int millis) {
+        builder.append((char) ('0' + millis / 100));
+        builder.append((char) ('0' + (millis / 10) % 10));
+        builder.append((char) ('0' + millis % 10));
+    }
+
+    /**
+     * Finds the position of the only {@code SSS} field outside quoted text.
+     *
+     * @param pattern the date pattern
+     * @return the index of the field, or -1 if the pattern has no single three-letter milliseconds field
+     */
+    private static int findMillisField(String pattern) {
+        int index = -1;
+        boolean quoted = false;
+        for (int i = 0; i < pattern.length(); i++) {
+            char c = pattern.charAt(i);
+            if (c == '\'') {
+                quoted = !quoted;
+            } else if (!quoted && c == 'S') {
+                int end = i;
+                while (end < pattern.length() && pattern.charAt(end) == 'S') {
+                    end++;
+                }
+                if (end - i != 3 || index >= 0) {
+                    return -1;
+                }
+                index = i;
+                i = end - 1;
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Immutable snapshot of one formatted second: the text before and after the milliseconds.
+     */
+    static final class Second {
+        private final long key;
+        private final String prefix;
+        private final String suffix;
+        private final byte[] prefixBytes;
+        private final byte[] suffixBytes;
+
+        private Second(long key, String prefix, String suffix) {
+            this.key = key;
+            this.prefix = prefix;
+            this.suffix = suffix;
+            this.prefixBytes = prefix.getBytes(StandardCharsets.UTF_8);
+            this.suffixBytes = suffix.getBytes(StandardCharsets.UTF_8);
+        }
+
+        byte[] getPrefixBytes() {
+            return prefixBytes;
+        }
+
+        byte[] getSuffixBytes() {
+            return suffixBytes;
+        }
+    }
+}
@@ -2,6 +2,8 @@ package com.atanu.logging.test;
 
 import org.slf4j.Logger;
 
+import ch.qos.logback.classic.Level;
+
 import com.atanu.logging.ApplicationLoggerFactory;
 import com.atanu.logging.ExtendedLogger;
 
@@ -29,6 +31,13 @@ public class LoggerTest {
         fileLogger.info("Application started without email notifications.");
         fileLogger.debug("Debugging application without email.");
         fileLogger.error("An error occurred without email notification.");
+
+        // A level set at runtime survives later lookups of the logger
+        ApplicationLoggerFactory.setLevel("ALF", Level.WARN);
+        if (ApplicationLoggerFactory.getLogger("ALF").isInfoEnabled()) {
+            throw new IllegalStateException("getLogger(\"ALF\") reset the level set at runtime");
+        }
+        fileLogger.info("Not logged: ALF logs WARN and above now.");
         
         
         